@@ -295,7 +295,10 @@ implicit class RichPlayer(plr: Player) {
   def sendItemModel(id: Int, scale: Int, item: Int) = plr.queue(new WidgetItemModelMessageWriter(id, scale, item))
   def sendTabInterface(tab: Int, interface: Int) = plr.queue(new TabInterfaceMessageWriter(tab, interface))
 
-  def flag(updateFlag: UpdateFlag) = plr.getUpdateFlags.flag(updateFlag)
+  def flag(updateFlag: UpdateFlag) = updateFlag match {
+    case UpdateFlag.APPEARANCE => plr.flagAppearance()
+    case _ => plr.getUpdateFlags.flag(updateFlag)
+  }
 
   def stopWalking = plr.getWalkingQueue.clear()
 
@@ -385,12 +388,12 @@ implicit class RichWorld(world: World) {
     }
   }
 
-  def schedule(delay: Int, instant: Boolean = false)(action: Task => Unit) =
+  def schedule(delay: Int, instant: Boolean = false, deferrable: Boolean = false)(action: Task => Unit) =
     world.schedule(new Task(instant, delay) {
       override protected def execute() = {
         action(this)
       }
-    })
+    }.setDeferrable(deferrable))
 
   def scheduleOnce(delay: Int)(action: => Unit) = {
     schedule(delay) { task =>
@@ -412,7 +415,7 @@ implicit class RichWorld(world: World) {
   }
 
   def scheduleInterval(range: Range)(action: Task => Unit) = {
-    schedule(rand(range)) { task =>
+    schedule(rand(range), deferrable = true) { task =>
       action(task)
       task.setDelay(rand(range))
     }
@@ -10,8 +10,6 @@
 */
 
 import io.luna.game.event.impl.SkillChangeEvent
-import io.luna.game.model.mobile.update.UpdateFlagSet
-import io.luna.game.model.mobile.update.UpdateFlagSet.UpdateFlag
 import io.luna.game.model.mobile.{Graphic, Player, Skill}
 import io.luna.util.StringUtils
 
@@ -67,7 +65,7 @@ private def advanceLevel(plr: Player, id: Int, oldLevel: Int) = {
 
     if (Skill.isCombatSkill(id)) {
       set.resetCombatLevel()
-      plr.flag(UpdateFlag.APPEARANCE)
+      plr.flagAppearance()
     }
   }
 }
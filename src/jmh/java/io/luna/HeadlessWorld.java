@@ -0,0 +1,205 @@
+package io.luna;
+
+import com.google.common.util.concurrent.Futures;
+import io.luna.game.model.Position;
+import io.luna.game.model.World;
+import io.luna.game.model.def.EquipmentDefinition;
+import io.luna.game.model.def.ItemDefinition;
+import io.luna.game.model.def.NpcCombatDefinition;
+import io.luna.game.model.def.NpcDefinition;
+import io.luna.game.model.def.ObjectDefinition;
+import io.luna.game.model.mobile.Mob;
+import io.luna.game.model.mobile.Npc;
+import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.PlayerCredentials;
+import io.luna.game.model.mobile.WalkingQueue.Step;
+import io.luna.net.codec.IsaacCipher;
+import io.luna.net.msg.MessageRepository;
+import io.luna.net.session.GameSession;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.FutureTask;
+
+import static io.luna.util.ClassUtils.loadClass;
+
+/**
+ * A {@link World} populated with synthetic players and npcs for benchmarking. Players are attached to
+ * {@link EmbeddedChannel}s instead of sockets, and all mobs are spread uniformly over a square area so that the
+ * crowd density can be controlled.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class HeadlessWorld {
+
+    /**
+     * An {@link EmbeddedChannel} that reports a loopback socket address, as sessions expect.
+     */
+    private static final class BotChannel extends EmbeddedChannel {
+
+        /**
+         * The address every bot connects from.
+         */
+        private static final InetSocketAddress ADDRESS = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+            43594);
+
+        @Override
+        protected SocketAddress remoteAddress0() {
+            return ADDRESS;
+        }
+    }
+
+    /**
+     * The south-west corner of the populated area.
+     */
+    private static final Position BASE = new Position(3136, 3136);
+
+    /**
+     * The npc id used for synthetic npcs.
+     */
+    private static final int NPC_ID = 1;
+
+    /**
+     * The context instance.
+     */
+    private final LunaContext context = new LunaContext();
+
+    /**
+     * An empty message repository.
+     */
+    private final MessageRepository repository = new MessageRepository();
+
+    /**
+     * The channels of all players.
+     */
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+
+    /**
+     * A random number generator with a fixed seed, so every run sees the same world.
+     */
+    private final Random random = new Random(317);
+
+    /**
+     * The length of each side of the populated area.
+     */
+    private final int area;
+
+    /**
+     * The fraction of mobs that walk and flag update blocks each tick.
+     */
+    private final double activity;
+
+    /**
+     * Creates a new {@link HeadlessWorld} on an initialization thread, since definitions and the message
+     * repository may only be loaded from one.
+     *
+     * @param players The amount of players.
+     * @param npcs The amount of npcs.
+     * @param area The length of each side of the populated area.
+     * @param activity The fraction of mobs that walk and flag update blocks each tick.
+     */
+    public static HeadlessWorld create(int players, int npcs, int area, double activity) {
+        FutureTask<HeadlessWorld> task = new FutureTask<>(() -> new HeadlessWorld(players, npcs, area, activity));
+        new Thread(task, "LunaInitializationThread").start();
+        return Futures.getUnchecked(task);
+    }
+
+    /**
+     * Creates a new {@link HeadlessWorld}.
+     *
+     * @param players The amount of players.
+     * @param npcs The amount of npcs.
+     * @param area The length of each side of the populated area.
+     * @param activity The fraction of mobs that walk and flag update blocks each tick.
+     */
+    private HeadlessWorld(int players, int npcs, int area, double activity) {
+        loadClass(ItemDefinition.class);
+        loadClass(EquipmentDefinition.class);
+        loadClass(NpcCombatDefinition.class);
+        loadClass(NpcDefinition.class);
+        loadClass(ObjectDefinition.class);
+
+        this.area = area;
+        this.activity = activity;
+
+        World world = context.getWorld();
+        for (int count = 0; count < players; count++) {
+            Player player = new Player(context, new PlayerCredentials("bot" + count, "password"));
+            EmbeddedChannel channel = new BotChannel();
+            player.setSession(new GameSession(player, channel, new IsaacCipher(new int[4]),
+                new IsaacCipher(new int[4]), repository));
+            player.setPosition(randomPosition());
+            world.getPlayers().add(player);
+            channels.add(channel);
+        }
+        for (int count = 0; count < npcs; count++) {
+            world.getNpcs().add(new Npc(context, NPC_ID, randomPosition()));
+        }
+    }
+
+    /**
+     * Randomly walks and flags update blocks for a fraction of all mobs, as would happen during a normal tick.
+     */
+    public void simulateActivity() {
+        World world = context.getWorld();
+        for (Player player : world.getPlayers()) {
+            simulateActivity(player);
+        }
+        for (Npc npc : world.getNpcs()) {
+            simulateActivity(npc);
+        }
+    }
+
+    /**
+     * Randomly walks and flags update blocks for {@code mob}.
+     */
+    private void simulateActivity(Mob mob) {
+        if (random.nextDouble() < activity) {
+            Position position = mob.getPosition();
+            int x = position.getX() + random.nextInt(3) - 1;
+            int y = position.getY() + random.nextInt(3) - 1;
+            mob.getWalkingQueue().addFirst(new Step(x, y));
+        }
+        if (random.nextDouble() < activity) {
+            mob.forceChat("Hello world!");
+        }
+    }
+
+    /**
+     * Runs a full game loop then discards everything written to the channels.
+     */
+    public void tick() {
+        simulateActivity();
+        context.getWorld().runGameLoop();
+        drain();
+    }
+
+    /**
+     * Runs the flushes handed to the channels, then releases all messages written to them.
+     */
+    public void drain() {
+        for (EmbeddedChannel channel : channels) {
+            channel.runPendingTasks();
+            channel.releaseOutbound();
+        }
+    }
+
+    /**
+     * Returns a random position within the populated area.
+     */
+    public Position randomPosition() {
+        return BASE.move(random.nextInt(area), random.nextInt(area));
+    }
+
+    /**
+     * @return The world.
+     */
+    public World getWorld() {
+        return context.getWorld();
+    }
+}
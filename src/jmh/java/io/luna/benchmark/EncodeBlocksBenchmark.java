@@ -0,0 +1,75 @@
+package io.luna.benchmark;
+
+import io.luna.HeadlessWorld;
+import io.luna.game.model.mobile.Animation;
+import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.update.UpdateBlockSet;
+import io.luna.game.model.mobile.update.UpdateState;
+import io.luna.net.codec.ByteMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding the update blocks of a player with chat, animation, and (when added) appearance flagged,
+ * both from scratch and from the per-tick cache.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djmh.shutdownTimeout=0")
+public class EncodeBlocksBenchmark {
+
+    /**
+     * The update state to encode for.
+     */
+    @Param({"UPDATE_LOCAL", "ADD_LOCAL"})
+    public UpdateState state;
+
+    /**
+     * If the cached blocks should be discarded before every encode.
+     */
+    @Param({"false", "true"})
+    public boolean fresh;
+
+    /**
+     * The player whose blocks are encoded.
+     */
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        HeadlessWorld world = HeadlessWorld.create(1, 0, 1, 0.0);
+        player = world.getWorld().getPlayers().get(1);
+        player.forceChat("Hello world!");
+        player.animation(new Animation(866));
+    }
+
+    @Benchmark
+    public int encodeUpdateBlocks() {
+        if (fresh) {
+            player.clearCachedBlocks();
+        }
+        ByteMessage msg = ByteMessage.message();
+        try {
+            UpdateBlockSet.PLAYER_BLOCK_SET.encodeUpdateBlocks(player, msg, state);
+            return msg.getBuffer().writerIndex();
+        } finally {
+            msg.release();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.luna.benchmark;
+
+import io.luna.net.codec.IsaacCipher;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encrypting a tick's worth of opcodes one {@link IsaacCipher#nextInt()} at a time, against encrypting
+ * them all with {@link IsaacCipher#encryptOpcodes(ByteBuf, int[], int)}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djmh.shutdownTimeout=0")
+public class IsaacCipherBenchmark {
+
+    /**
+     * The amount of opcodes encrypted.
+     */
+    @Param({"16", "256", "1024"})
+    public int opcodes;
+
+    /**
+     * If the buffer is direct, rather than heap.
+     */
+    @Param({"true", "false"})
+    public boolean direct;
+
+    /**
+     * The cipher.
+     */
+    private IsaacCipher cipher;
+
+    /**
+     * The buffer holding the opcodes.
+     */
+    private ByteBuf buf;
+
+    /**
+     * The indexes of the opcodes, spaced like small messages.
+     */
+    private int[] offsets;
+
+    @Setup
+    public void setUp() {
+        cipher = new IsaacCipher(new int[] { 1, 2, 3, 4 });
+        offsets = new int[opcodes];
+        for (int index = 0; index < opcodes; index++) {
+            offsets[index] = index * 8;
+        }
+        int capacity = opcodes * 8;
+        buf = direct ? PooledByteBufAllocator.DEFAULT.directBuffer(capacity) :
+            PooledByteBufAllocator.DEFAULT.heapBuffer(capacity);
+        buf.writeZero(capacity);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buf.release();
+    }
+
+    @Benchmark
+    public ByteBuf scalar() {
+        for (int index = 0; index < opcodes; index++) {
+            int offset = offsets[index];
+            buf.setByte(offset, buf.getByte(offset) + cipher.nextInt());
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuf bulk() {
+        cipher.encryptOpcodes(buf, offsets, opcodes);
+        return buf;
+    }
+}
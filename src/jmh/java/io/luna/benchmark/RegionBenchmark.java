@@ -0,0 +1,95 @@
+package io.luna.benchmark;
+
+import io.luna.HeadlessWorld;
+import io.luna.game.model.EntityType;
+import io.luna.game.model.Position;
+import io.luna.game.model.mobile.Player;
+import io.luna.game.model.region.EntityVisitor;
+import io.luna.game.model.region.RegionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RegionManager} viewport queries from the position of a single player.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djmh.shutdownTimeout=0")
+public class RegionBenchmark {
+
+    /**
+     * The amount of players, and of npcs.
+     */
+    @Param({"500", "2000"})
+    public int mobs;
+
+    /**
+     * The length of each side of the populated area.
+     */
+    @Param({"16", "64", "256"})
+    public int area;
+
+    /**
+     * The region manager.
+     */
+    private RegionManager regions;
+
+    /**
+     * The player queries are made for.
+     */
+    private Player player;
+
+    /**
+     * The amount of entities visited.
+     */
+    private int visited;
+
+    /**
+     * A visitor that counts entities.
+     */
+    private final EntityVisitor<Player> counter = entity -> {
+        visited++;
+        return true;
+    };
+
+    @Setup
+    public void setUp() {
+        HeadlessWorld world = HeadlessWorld.create(mobs, mobs, area, 0.0);
+        regions = world.getWorld().getRegions();
+        player = world.getWorld().getPlayers().get(1);
+    }
+
+    @Benchmark
+    public int visitViewable() {
+        visited = 0;
+        regions.visitViewable(player.getPosition(), EntityType.PLAYER, counter);
+        return visited;
+    }
+
+    @Benchmark
+    public int surroundingPlayers() {
+        return regions.getSurroundingPlayers(player).size();
+    }
+
+    @Benchmark
+    public int computeVersion() {
+        Position position = player.getPosition();
+        return regions.computeVersion(position);
+    }
+}
@@ -0,0 +1,59 @@
+package io.luna.benchmark;
+
+import io.luna.HeadlessWorld;
+import io.luna.game.model.WorldSynchronizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full game loop, including every {@link WorldSynchronizer} phase, while a fraction of all mobs walk
+ * and flag update blocks each tick.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djmh.shutdownTimeout=0")
+public class SynchronizerBenchmark {
+
+    /**
+     * The amount of players, and of npcs.
+     */
+    @Param({"500", "2000"})
+    public int mobs;
+
+    /**
+     * The length of each side of the populated area.
+     */
+    @Param({"16", "64", "256"})
+    public int area;
+
+    /**
+     * The synthetic world.
+     */
+    private HeadlessWorld world;
+
+    @Setup
+    public void setUp() {
+        world = HeadlessWorld.create(mobs, mobs, area, 0.1);
+    }
+
+    @Benchmark
+    public void tick() {
+        world.tick();
+    }
+}
@@ -0,0 +1,110 @@
+package io.luna.benchmark;
+
+import io.luna.HeadlessWorld;
+import io.luna.game.model.mobile.Player;
+import io.luna.net.msg.MessageWriter;
+import io.luna.net.msg.out.NpcUpdateMessageWriter;
+import io.luna.net.msg.out.PlayerUpdateMessageWriter;
+import io.luna.net.session.GameSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing player and npc update messages for a single player, once their viewports have filled up.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djmh.shutdownTimeout=0")
+public class UpdateMessageBenchmark {
+
+    /**
+     * The amount of players, and of npcs.
+     */
+    @Param({"500", "2000"})
+    public int mobs;
+
+    /**
+     * The length of each side of the populated area.
+     */
+    @Param({"16", "64", "256"})
+    public int area;
+
+    /**
+     * The synthetic world.
+     */
+    private HeadlessWorld world;
+
+    /**
+     * The players, in index order.
+     */
+    private Player[] players;
+
+    /**
+     * The index of the next player to write for.
+     */
+    private int next;
+
+    @Setup
+    public void setUp() {
+        world = HeadlessWorld.create(mobs, mobs, area, 0.0);
+        for (int tick = 0; tick < 20; tick++) {
+            world.tick();
+        }
+        players = new Player[mobs];
+        int index = 0;
+        for (Player player : world.getWorld().getPlayers()) {
+            players[index++] = player;
+        }
+    }
+
+    @Benchmark
+    public int playerUpdate() {
+        return send(nextPlayer(), new PlayerUpdateMessageWriter());
+    }
+
+    @Benchmark
+    public int npcUpdate() {
+        return send(nextPlayer(), new NpcUpdateMessageWriter());
+    }
+
+    /**
+     * Returns the next player to write for.
+     */
+    private Player nextPlayer() {
+        Player player = players[next];
+        next = (next + 1) % players.length;
+        return player;
+    }
+
+    /**
+     * Queues and flushes {@code msg} for {@code player}, then releases it and returns the amount of bytes sent.
+     */
+    private int send(Player player, MessageWriter msg) {
+        GameSession session = player.getSession();
+        session.queue(msg);
+        session.flush();
+
+        ByteBuf buf = ((EmbeddedChannel) session.getChannel()).readOutbound();
+        int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+}
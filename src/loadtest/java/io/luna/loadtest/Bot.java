@@ -0,0 +1,327 @@
+package io.luna.loadtest;
+
+import io.luna.LunaConstants;
+import io.luna.net.codec.ByteMessage;
+import io.luna.net.codec.IsaacCipher;
+import io.luna.net.codec.MessageType;
+import io.luna.net.codec.login.LoginResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simulated 317 client for a single connection. It performs the handshake and login the way the real client does,
+ * then performs {@link BotBehaviour}s at their configured rates until disconnected. Everything runs on the channel's
+ * event loop.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class Bot extends ByteToMessageDecoder {
+
+    /**
+     * The public RSA exponent matching the server's private exponent.
+     */
+    private static final BigInteger RSA_PUBLIC_EXPONENT = BigInteger.valueOf(65537);
+
+    /**
+     * The milliseconds between behaviour rolls.
+     */
+    private static final long ACT_MILLIS = 600;
+
+    /**
+     * The nanoseconds without reads after which the next read is taken as a new server tick.
+     */
+    private static final long TICK_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * The nanoseconds between idle messages, which stop the server timing the connection out.
+     */
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * The load test.
+     */
+    private final LoadTest loadTest;
+
+    /**
+     * The index of this bot.
+     */
+    private final int index;
+
+    /**
+     * The username.
+     */
+    private final String username;
+
+    /**
+     * When the connection was started.
+     */
+    private final long startedAt = System.nanoTime();
+
+    /**
+     * The current state.
+     */
+    private State state = State.HANDSHAKE;
+
+    /**
+     * The channel, set once active.
+     */
+    private Channel channel;
+
+    /**
+     * The encryptor, set once logged in.
+     */
+    private IsaacCipher encryptor;
+
+    /**
+     * The task performing behaviours.
+     */
+    private ScheduledFuture<?> actTask;
+
+    /**
+     * The seconds to wait before reconnecting.
+     */
+    private int reconnectSeconds = LoadTest.RECONNECT_SECONDS;
+
+    /**
+     * When the last read happened.
+     */
+    private long lastReadAt;
+
+    /**
+     * When the first read of the last server tick happened.
+     */
+    private long lastTickAt;
+
+    /**
+     * When the last message was sent.
+     */
+    private long lastSentAt;
+
+    /**
+     * Creates a new {@link Bot}.
+     *
+     * @param loadTest The load test.
+     * @param index The index of this bot.
+     */
+    public Bot(LoadTest loadTest, int index) {
+        this.loadTest = loadTest;
+        this.index = index;
+        username = "bot" + index;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        channel = ctx.channel();
+        loadTest.getChannels().add(channel);
+
+        ByteBuf buf = ctx.alloc().buffer(2);
+        buf.writeByte(14);
+        buf.writeByte(0);
+        write(buf);
+        channel.flush();
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (actTask != null) {
+            actTask.cancel(false);
+        }
+        if (state == State.GAME) {
+            loadTest.getStatistics().loggedOut();
+        }
+        loadTest.connect(index, reconnectSeconds);
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.close();
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        switch (state) {
+        case HANDSHAKE:
+            decodeHandshake(in);
+            break;
+        case LOGIN_RESPONSE:
+            decodeLoginResponse(ctx, in);
+            break;
+        case GAME:
+            decodeGame(in);
+            break;
+        }
+    }
+
+    /**
+     * Decodes the handshake response, then sends the login block.
+     */
+    private void decodeHandshake(ByteBuf in) {
+        if (in.readableBytes() >= 17) {
+            loadTest.getStatistics().read(17);
+            in.skipBytes(9);
+            long serverHalf = in.readLong();
+            long clientHalf = ThreadLocalRandom.current().nextLong();
+
+            ByteMessage rsaBlock = ByteMessage.message();
+            try {
+                rsaBlock.put(10);
+                rsaBlock.putLong(clientHalf);
+                rsaBlock.putLong(serverHalf);
+                rsaBlock.putInt(index);
+                rsaBlock.putString(username);
+                rsaBlock.putString("password");
+
+                byte[] plain = new byte[rsaBlock.getBuffer().readableBytes()];
+                rsaBlock.getBuffer().readBytes(plain);
+                byte[] rsaBytes = new BigInteger(plain).modPow(RSA_PUBLIC_EXPONENT, LunaConstants.RSA_MODULUS)
+                    .toByteArray();
+
+                ByteBuf buf = channel.alloc().buffer(rsaBytes.length + 43);
+                buf.writeByte(16);
+                buf.writeByte(rsaBytes.length + 41);
+                buf.writeByte(255);
+                buf.writeShort(317);
+                buf.writeByte(0);
+                buf.writeZero(36);
+                buf.writeByte(rsaBytes.length);
+                buf.writeBytes(rsaBytes);
+                write(buf);
+                channel.flush();
+            } finally {
+                rsaBlock.release();
+            }
+
+            encryptor = new IsaacCipher(new int[] { (int) (clientHalf >> 32), (int) clientHalf,
+                (int) (serverHalf >> 32), (int) serverHalf });
+            state = State.LOGIN_RESPONSE;
+        }
+    }
+
+    /**
+     * Decodes the login response. Queued logins reconnect after the wait the server asked for.
+     */
+    private void decodeLoginResponse(ChannelHandlerContext ctx, ByteBuf in) {
+        if (!in.isReadable()) {
+            return;
+        }
+        LoadStatistics statistics = loadTest.getStatistics();
+        int response = in.getUnsignedByte(in.readerIndex());
+        if (response == LoginResponse.NORMAL.getOpcode()) {
+            if (in.readableBytes() >= 3) {
+                statistics.read(3);
+                in.skipBytes(3);
+                statistics.loggedIn(System.nanoTime() - startedAt);
+
+                state = State.GAME;
+                long delay = ThreadLocalRandom.current().nextLong(ACT_MILLIS);
+                actTask = ctx.executor().scheduleAtFixedRate(this::act, delay, ACT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } else if (response == LoginResponse.LOGIN_QUEUED.getOpcode()) {
+            if (in.readableBytes() >= 2) {
+                statistics.read(2);
+                in.skipBytes(1);
+                reconnectSeconds = Math.max(1, in.readUnsignedByte());
+                statistics.loginQueued();
+                ctx.close();
+            }
+        } else {
+            statistics.read(1);
+            in.skipBytes(1);
+            statistics.loginFailed();
+            ctx.close();
+        }
+    }
+
+    /**
+     * Counts game messages from the server. Messages aren't parsed, but the server writes each tick's messages at
+     * once, so the first read after a gap marks a new tick.
+     */
+    private void decodeGame(ByteBuf in) {
+        long now = System.nanoTime();
+        int amount = in.readableBytes();
+        in.skipBytes(amount);
+
+        LoadStatistics statistics = loadTest.getStatistics();
+        statistics.read(amount);
+        if (lastTickAt == 0) {
+            lastTickAt = now;
+        } else if (now - lastReadAt > TICK_GAP_NANOS) {
+            statistics.tick(now - lastTickAt);
+            lastTickAt = now;
+        }
+        lastReadAt = now;
+    }
+
+    /**
+     * Rolls every behaviour against its rate, and sends an idle message if nothing else was sent for a while.
+     */
+    private void act() {
+        if (!channel.isActive()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LoadTestConfig config = loadTest.getConfig();
+        for (BotBehaviour behaviour : BotBehaviour.values()) {
+            if (random.nextDouble() < config.getRate(behaviour) * ACT_MILLIS / 1000.0) {
+                behaviour.perform(this, config, random);
+            }
+        }
+        if (System.nanoTime() - lastSentAt > IDLE_NANOS) {
+            send(message(0, MessageType.FIXED));
+        }
+        channel.flush();
+    }
+
+    /**
+     * Starts a game message with an encrypted opcode. Only {@link BotBehaviour}s should call this.
+     */
+    public ByteMessage message(int opcode, MessageType type) {
+        ByteBuf buf = channel.alloc().buffer(16);
+        buf.writeByte(opcode + encryptor.nextInt());
+        if (type == MessageType.VAR) {
+            buf.writeByte(0);
+        }
+        return ByteMessage.wrap(buf, opcode, type);
+    }
+
+    /**
+     * Fills in the size of a message started by {@link #message(int, MessageType)}, then writes it. Written
+     * messages are flushed once every behaviour has been rolled.
+     */
+    public void send(ByteMessage msg) {
+        ByteBuf buf = msg.getBuffer();
+        if (msg.getType() == MessageType.VAR) {
+            buf.setByte(1, buf.writerIndex() - 2);
+        }
+        loadTest.getStatistics().sent();
+        lastSentAt = System.nanoTime();
+        write(buf);
+    }
+
+    /**
+     * Writes {@code buf} to the channel without flushing it.
+     */
+    private void write(ByteBuf buf) {
+        loadTest.getStatistics().wrote(buf.readableBytes());
+        channel.write(buf, channel.voidPromise());
+    }
+
+    /**
+     * An enum representing bot states.
+     */
+    private enum State {
+        HANDSHAKE,
+        LOGIN_RESPONSE,
+        GAME
+    }
+}
@@ -0,0 +1,134 @@
+package io.luna.loadtest;
+
+import io.luna.game.model.Position;
+import io.luna.net.codec.ByteMessage;
+import io.luna.net.codec.ByteOrder;
+import io.luna.net.codec.ByteTransform;
+import io.luna.net.codec.MessageType;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An enumerated type whose elements represent the scripted actions a {@link Bot} performs. Each writes the same
+ * message a real client would send for that action. Default rates stay well under the server's rate limits.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public enum BotBehaviour {
+
+    /**
+     * Walks to a random tile around home.
+     */
+    WALK(0.2) {
+        @Override
+        public void perform(Bot bot, LoadTestConfig config, ThreadLocalRandom random) {
+            Position target = randomPosition(config, random);
+            ByteMessage msg = bot.message(164, MessageType.VAR);
+            msg.putShort(target.getX(), ByteTransform.A, ByteOrder.LITTLE);
+            msg.putShort(target.getY(), ByteOrder.LITTLE);
+            msg.put(random.nextBoolean() ? 1 : 0, ByteTransform.S);
+            bot.send(msg);
+        }
+    },
+
+    /**
+     * Says a short public chat message.
+     */
+    CHAT(0.05) {
+        @Override
+        public void perform(Bot bot, LoadTestConfig config, ThreadLocalRandom random) {
+            ByteMessage msg = bot.message(4, MessageType.VAR);
+            msg.put(0, ByteTransform.S);
+            msg.put(0, ByteTransform.S);
+            for (int index = CHAT_TEXT.length - 1; index >= 0; index--) {
+                msg.put(CHAT_TEXT[index], ByteTransform.A);
+            }
+            bot.send(msg);
+        }
+    },
+
+    /**
+     * Clicks the first option of an object around home.
+     */
+    OBJECT_CLICK(0.05) {
+        @Override
+        public void perform(Bot bot, LoadTestConfig config, ThreadLocalRandom random) {
+            Position target = randomPosition(config, random);
+            ByteMessage msg = bot.message(132, MessageType.FIXED);
+            msg.putShort(target.getX(), ByteTransform.A, ByteOrder.LITTLE);
+            msg.putShort(config.getObjectId());
+            msg.putShort(target.getY(), ByteTransform.A);
+            bot.send(msg);
+        }
+    },
+
+    /**
+     * Clicks the first option of a random npc, if npcs are configured.
+     */
+    NPC_CLICK(0.05) {
+        @Override
+        public void perform(Bot bot, LoadTestConfig config, ThreadLocalRandom random) {
+            if (config.getNpcs() > 0) {
+                ByteMessage msg = bot.message(155, MessageType.FIXED);
+                msg.putShort(random.nextInt(1, config.getNpcs() + 1), ByteOrder.LITTLE);
+                bot.send(msg);
+            }
+        }
+    },
+
+    /**
+     * Swaps two random inventory slots.
+     */
+    ITEM_SWAP(0.1) {
+        @Override
+        public void perform(Bot bot, LoadTestConfig config, ThreadLocalRandom random) {
+            ByteMessage msg = bot.message(214, MessageType.FIXED);
+            msg.putShort(3214, ByteTransform.A, ByteOrder.LITTLE);
+            msg.put(0, ByteTransform.C);
+            msg.putShort(random.nextInt(28), ByteTransform.A, ByteOrder.LITTLE);
+            msg.putShort(random.nextInt(28), ByteOrder.LITTLE);
+            bot.send(msg);
+        }
+    };
+
+    /**
+     * The chat message {@code "hello world"}, packed the way the client packs chat text.
+     */
+    private static final byte[] CHAT_TEXT = { 0x61, (byte) 0xbb, 0x40, (byte) 0xd1, 0x49, (byte) 0xba };
+
+    /**
+     * The default times per second each bot performs this.
+     */
+    private final double defaultRate;
+
+    /**
+     * Creates a new {@link BotBehaviour}.
+     *
+     * @param defaultRate The default times per second each bot performs this.
+     */
+    BotBehaviour(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    /**
+     * Writes the message for this behaviour to {@code bot}.
+     */
+    public abstract void perform(Bot bot, LoadTestConfig config, ThreadLocalRandom random);
+
+    /**
+     * Returns a random position within the configured radius of home.
+     */
+    private static Position randomPosition(LoadTestConfig config, ThreadLocalRandom random) {
+        Position home = config.getHome();
+        int radius = config.getRadius();
+        return new Position(home.getX() + random.nextInt(-radius, radius + 1),
+            home.getY() + random.nextInt(-radius, radius + 1));
+    }
+
+    /**
+     * @return The default times per second each bot performs this.
+     */
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+}
@@ -0,0 +1,209 @@
+package io.luna.loadtest;
+
+import io.luna.game.profile.RollingHistogram;
+import io.luna.game.profile.TickProfilerMXBean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A model that counts what every {@link Bot} does, and periodically reports it. Counters are updated from every
+ * event loop, while reports are made from a single thread.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoadStatistics {
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The amount of bots logged in.
+     */
+    private final AtomicInteger online = new AtomicInteger();
+
+    /**
+     * The amount of successful logins.
+     */
+    private final AtomicLong logins = new AtomicLong();
+
+    /**
+     * The amount of logins the server queued.
+     */
+    private final AtomicLong queued = new AtomicLong();
+
+    /**
+     * The amount of logins the server refused, and connections that failed.
+     */
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * The amount of game messages sent.
+     */
+    private final AtomicLong messages = new AtomicLong();
+
+    /**
+     * The amount of bytes read.
+     */
+    private final AtomicLong bytesIn = new AtomicLong();
+
+    /**
+     * The amount of bytes written.
+     */
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    /**
+     * The time from connecting to being logged in.
+     */
+    private final RollingHistogram loginLatency = new RollingHistogram(1000);
+
+    /**
+     * The time between server ticks, as seen by the bots.
+     */
+    private final RollingHistogram tickInterval = new RollingHistogram(10000);
+
+    /**
+     * The server's tick profiler, or {@code null} if JMX isn't used.
+     */
+    private final TickProfilerMXBean tickProfiler;
+
+    /**
+     * When the last report was made.
+     */
+    private long lastReportAt = System.nanoTime();
+
+    /**
+     * The messages sent as of the last report.
+     */
+    private long lastMessages;
+
+    /**
+     * The bytes read as of the last report.
+     */
+    private long lastBytesIn;
+
+    /**
+     * The bytes written as of the last report.
+     */
+    private long lastBytesOut;
+
+    /**
+     * Creates a new {@link LoadStatistics}.
+     *
+     * @param tickProfiler The server's tick profiler, or {@code null}.
+     */
+    public LoadStatistics(TickProfilerMXBean tickProfiler) {
+        this.tickProfiler = tickProfiler;
+    }
+
+    /**
+     * Records a successful login that took {@code nanos}.
+     */
+    public void loggedIn(long nanos) {
+        online.incrementAndGet();
+        logins.incrementAndGet();
+        loginLatency.record(nanos);
+    }
+
+    /**
+     * Records a logged in bot disconnecting.
+     */
+    public void loggedOut() {
+        online.decrementAndGet();
+    }
+
+    /**
+     * Records a login the server queued.
+     */
+    public void loginQueued() {
+        queued.incrementAndGet();
+    }
+
+    /**
+     * Records a login the server refused, or a connection that failed.
+     */
+    public void loginFailed() {
+        failures.incrementAndGet();
+    }
+
+    /**
+     * Records a game message being sent.
+     */
+    public void sent() {
+        messages.incrementAndGet();
+    }
+
+    /**
+     * Records {@code amount} bytes being read.
+     */
+    public void read(int amount) {
+        bytesIn.addAndGet(amount);
+    }
+
+    /**
+     * Records {@code amount} bytes being written.
+     */
+    public void wrote(int amount) {
+        bytesOut.addAndGet(amount);
+    }
+
+    /**
+     * Records a server tick that came {@code nanos} after the last.
+     */
+    public void tick(long nanos) {
+        tickInterval.record(nanos);
+    }
+
+    /**
+     * Logs the current totals, and the rates since the last report.
+     */
+    public void report(int bots) {
+        long now = System.nanoTime();
+        double seconds = (now - lastReportAt) / (double) TimeUnit.SECONDS.toNanos(1);
+        long currentMessages = messages.get();
+        long currentBytesIn = bytesIn.get();
+        long currentBytesOut = bytesOut.get();
+
+        LOGGER.info("{}/{} online, {} logins, {} queued, {} failed.", online.get(), bots, logins.get(), queued.get(),
+            failures.get());
+        LOGGER.info("Login latency p50 {}ms, p99 {}ms. Tick interval p50 {}ms, p99 {}ms.",
+            millis(loginLatency.percentile(50.0)), millis(loginLatency.percentile(99.0)),
+            millis(tickInterval.percentile(50.0)), millis(tickInterval.percentile(99.0)));
+        LOGGER.info("{} messages/s sent, {} KB/s in, {} KB/s out.", Math.round((currentMessages - lastMessages) /
+            seconds), kilobytes((currentBytesIn - lastBytesIn) / seconds),
+            kilobytes((currentBytesOut - lastBytesOut) / seconds));
+        if (tickProfiler != null) {
+            try {
+                LOGGER.info("Server tick p50 {}ms, p99 {}ms, max {}ms, {} overruns.",
+                    millis(tickProfiler.getP50TickNanos()), millis(tickProfiler.getP99TickNanos()),
+                    millis(tickProfiler.getMaxTickNanos()), tickProfiler.getOverrunCount());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not read server tick times.", e);
+            }
+        }
+
+        lastReportAt = now;
+        lastMessages = currentMessages;
+        lastBytesIn = currentBytesIn;
+        lastBytesOut = currentBytesOut;
+    }
+
+    /**
+     * Converts {@code bytes} to kilobytes, rounded to one decimal place.
+     */
+    private double kilobytes(double bytes) {
+        return Math.round(bytes / 102.4) / 10.0;
+    }
+
+    /**
+     * Converts {@code nanos} to milliseconds, rounded to two decimal places.
+     */
+    private double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,181 @@
+package io.luna.loadtest;
+
+import io.luna.LunaConstants;
+import io.luna.game.profile.TickProfiler;
+import io.luna.game.profile.TickProfilerMXBean;
+import io.luna.net.NetworkTransport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load generator that connects a crowd of {@link Bot}s to a running server, and reports how it holds up. Run it
+ * with {@code mvn -P loadtest test-compile exec:exec -Dloadtest.args="bots=2000 walk=0.5"}. See
+ * {@link LoadTestConfig} for every setting.
+ * <p>
+ * Server tick times are only reported when {@code jmx} is given and the server was started with a remote JMX
+ * connector, for example {@code -Dcom.sun.management.jmxremote.port=9010}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoadTest {
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The seconds to wait before reconnecting after a failed connection, failed login, or disconnect.
+     */
+    static final int RECONNECT_SECONDS = 5;
+
+    /**
+     * Starts a load test with the settings in {@code args}.
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        JMXConnector connector = null;
+        TickProfilerMXBean tickProfiler = null;
+        if (config.getJmx() != null) {
+            JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + config.getJmx() + "/jmxrmi");
+            connector = JMXConnectorFactory.connect(url);
+            tickProfiler = JMX.newMXBeanProxy(connector.getMBeanServerConnection(),
+                new ObjectName(TickProfiler.OBJECT_NAME), TickProfilerMXBean.class);
+        }
+
+        try {
+            new LoadTest(config, new LoadStatistics(tickProfiler)).run();
+        } finally {
+            if (connector != null) {
+                connector.close();
+            }
+        }
+    }
+
+    /**
+     * The settings.
+     */
+    private final LoadTestConfig config;
+
+    /**
+     * The statistics.
+     */
+    private final LoadStatistics statistics;
+
+    /**
+     * Every open bot channel.
+     */
+    private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+    /**
+     * The event loops bots run on.
+     */
+    private final EventLoopGroup group;
+
+    /**
+     * The bootstrap new connections are made with.
+     */
+    private final Bootstrap bootstrap;
+
+    /**
+     * If bots should still connect.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new {@link LoadTest}.
+     *
+     * @param config The settings.
+     * @param statistics The statistics.
+     */
+    private LoadTest(LoadTestConfig config, LoadStatistics statistics) {
+        this.config = config;
+        this.statistics = statistics;
+
+        NetworkTransport transport = LunaConstants.TRANSPORT.resolve();
+        group = transport.newEventLoopGroup(config.getThreads(), new DefaultThreadFactory("LoadTestThread"));
+        bootstrap = new Bootstrap().group(group).channel(transport.getClientChannel())
+            .remoteAddress(config.getHost(), config.getPort()).option(ChannelOption.ALLOCATOR, LunaConstants.ALLOCATOR)
+            .option(ChannelOption.TCP_NODELAY, true).option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000);
+        LOGGER.info("Load testing {}:{} with {} bots over {}.", config.getHost(), config.getPort(), config.getBots(),
+            transport);
+    }
+
+    /**
+     * Ramps up the bots, then reports until the duration is up.
+     */
+    private void run() throws InterruptedException {
+        long connectNanos = TimeUnit.SECONDS.toNanos(1) / config.getConnectRate();
+        for (int index = 0; index < config.getBots(); index++) {
+            int bot = index;
+            group.schedule(() -> connect(bot, 0), index * connectNanos, TimeUnit.NANOSECONDS);
+        }
+
+        long end = config.getDurationSeconds() == 0 ? Long.MAX_VALUE :
+            System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        while (System.nanoTime() < end) {
+            TimeUnit.SECONDS.sleep(config.getReportSeconds());
+            statistics.report(config.getBots());
+        }
+
+        running = false;
+        channels.close().awaitUninterruptibly();
+        group.shutdownGracefully().awaitUninterruptibly();
+        statistics.report(config.getBots());
+    }
+
+    /**
+     * Connects the bot with {@code index} after {@code delaySeconds}, unless the test is over.
+     */
+    void connect(int index, int delaySeconds) {
+        if (!running) {
+            return;
+        }
+        if (delaySeconds > 0) {
+            group.schedule(() -> connect(index, 0), delaySeconds, TimeUnit.SECONDS);
+            return;
+        }
+
+        bootstrap.clone().handler(new Bot(this, index)).connect().addListener(future -> {
+            if (!future.isSuccess()) {
+                statistics.loginFailed();
+                connect(index, RECONNECT_SECONDS);
+            }
+        });
+    }
+
+    /**
+     * @return The settings.
+     */
+    public LoadTestConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return The statistics.
+     */
+    public LoadStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Every open bot channel.
+     */
+    public ChannelGroup getChannels() {
+        return channels;
+    }
+}
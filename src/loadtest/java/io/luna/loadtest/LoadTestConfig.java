@@ -0,0 +1,249 @@
+package io.luna.loadtest;
+
+import io.luna.LunaConstants;
+import io.luna.game.model.Position;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A model holding the settings of a load test. Settings are given as {@code key=value} arguments, and any not given
+ * keep their defaults. Behaviour rates are keyed by the lowercase behaviour name, for example {@code walk=0.5}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoadTestConfig {
+
+    /**
+     * The host to connect to.
+     */
+    private String host = "127.0.0.1";
+
+    /**
+     * The port to connect to.
+     */
+    private int port = LunaConstants.PORT;
+
+    /**
+     * The amount of bots.
+     */
+    private int bots = 1000;
+
+    /**
+     * The amount of new connections opened every second while ramping up.
+     */
+    private int connectRate = 50;
+
+    /**
+     * The seconds to run for, or {@code 0} to run until stopped.
+     */
+    private int durationSeconds;
+
+    /**
+     * The seconds between reports.
+     */
+    private int reportSeconds = 10;
+
+    /**
+     * The amount of event loop threads, {@code 0} uses Netty's default.
+     */
+    private int threads;
+
+    /**
+     * The {@code host:port} of the server's JMX connector, or {@code null} to not report server tick times.
+     */
+    private String jmx;
+
+    /**
+     * The highest npc index to click, or {@code 0} to never click npcs.
+     */
+    private int npcs;
+
+    /**
+     * The identifier of the objects clicked.
+     */
+    private int objectId = 1276;
+
+    /**
+     * The position bots walk and click around.
+     */
+    private Position home = LunaConstants.STARTING_POSITION;
+
+    /**
+     * The maximum distance from home that bots walk and click.
+     */
+    private int radius = 10;
+
+    /**
+     * The times per second each bot performs each behaviour.
+     */
+    private final Map<BotBehaviour, Double> rates = new EnumMap<>(BotBehaviour.class);
+
+    /**
+     * Creates a new {@link LoadTestConfig} with the default settings.
+     */
+    public LoadTestConfig() {
+        for (BotBehaviour behaviour : BotBehaviour.values()) {
+            rates.put(behaviour, behaviour.getDefaultRate());
+        }
+    }
+
+    /**
+     * Parses {@code key=value} arguments over the default settings.
+     */
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            checkArgument(split > 0, "expected key=value, got %s", arg);
+            config.set(arg.substring(0, split), arg.substring(split + 1));
+        }
+        checkArgument(config.bots > 0, "bots <= 0");
+        checkArgument(config.connectRate > 0, "connect_rate <= 0");
+        checkArgument(config.reportSeconds > 0, "report_seconds <= 0");
+        return config;
+    }
+
+    /**
+     * Sets the setting named {@code key} to {@code value}.
+     */
+    private void set(String key, String value) {
+        switch (key) {
+        case "host":
+            host = value;
+            break;
+        case "port":
+            port = Integer.parseInt(value);
+            break;
+        case "bots":
+            bots = Integer.parseInt(value);
+            break;
+        case "connect_rate":
+            connectRate = Integer.parseInt(value);
+            break;
+        case "duration_seconds":
+            durationSeconds = Integer.parseInt(value);
+            break;
+        case "report_seconds":
+            reportSeconds = Integer.parseInt(value);
+            break;
+        case "threads":
+            threads = Integer.parseInt(value);
+            break;
+        case "jmx":
+            jmx = value;
+            break;
+        case "npcs":
+            npcs = Integer.parseInt(value);
+            break;
+        case "object_id":
+            objectId = Integer.parseInt(value);
+            break;
+        case "home_x":
+            home = new Position(Integer.parseInt(value), home.getY());
+            break;
+        case "home_y":
+            home = new Position(home.getX(), Integer.parseInt(value));
+            break;
+        case "radius":
+            radius = Integer.parseInt(value);
+            break;
+        default:
+            rates.put(BotBehaviour.valueOf(key.toUpperCase()), Double.parseDouble(value));
+            break;
+        }
+    }
+
+    /**
+     * @return The host to connect to.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return The port to connect to.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return The amount of bots.
+     */
+    public int getBots() {
+        return bots;
+    }
+
+    /**
+     * @return The amount of new connections opened every second while ramping up.
+     */
+    public int getConnectRate() {
+        return connectRate;
+    }
+
+    /**
+     * @return The seconds to run for, or {@code 0} to run until stopped.
+     */
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return The seconds between reports.
+     */
+    public int getReportSeconds() {
+        return reportSeconds;
+    }
+
+    /**
+     * @return The amount of event loop threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return The {@code host:port} of the server's JMX connector, or {@code null}.
+     */
+    public String getJmx() {
+        return jmx;
+    }
+
+    /**
+     * @return The highest npc index to click.
+     */
+    public int getNpcs() {
+        return npcs;
+    }
+
+    /**
+     * @return The identifier of the objects clicked.
+     */
+    public int getObjectId() {
+        return objectId;
+    }
+
+    /**
+     * @return The position bots walk and click around.
+     */
+    public Position getHome() {
+        return home;
+    }
+
+    /**
+     * @return The maximum distance from home that bots walk and click.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the times per second each bot performs {@code behaviour}.
+     */
+    public double getRate(BotBehaviour behaviour) {
+        return rates.get(behaviour);
+    }
+}
@@ -1,16 +1,31 @@
 package io.luna;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.gson.JsonObject;
 import com.moandjiezana.toml.Toml;
 import io.luna.game.model.Position;
+import io.luna.game.model.mobile.PlayerStorageType;
 import io.luna.game.model.region.RegionUpdateComparator;
+import io.luna.game.profile.LoadLevel;
+import io.luna.game.profile.LoadLevelPolicy;
+import io.luna.net.NetworkTransport;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.util.ResourceLeakDetector.Level;
 
 import java.io.File;
 import java.math.BigInteger;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.TreeSet;
 
+import static com.google.common.base.Preconditions.checkState;
+import static io.luna.game.model.EntityConstants.LOGIN_THRESHOLD;
+import static io.luna.game.model.mobile.Viewport.MAXIMUM_ENTERING;
 import static io.luna.util.GsonUtils.getAsType;
 
 /**
@@ -30,10 +45,61 @@ public final class LunaConstants {
             RSA_EXPONENT = new BigInteger(networkConstants.get("rsa_exponent").getAsString());
             RESOURCE_LEAK_DETECTION = Level.valueOf(networkConstants.get("resource_leak_detection").getAsString());
             CONNECTION_LIMIT = networkConstants.get("connection_threshold").getAsInt();
+            TRANSPORT = NetworkTransport.valueOf(networkConstants.get("transport").getAsString());
+            BOSS_THREADS = networkConstants.get("boss_threads").getAsInt();
+            WORKER_THREADS = networkConstants.get("worker_threads").getAsInt();
+            TCP_NO_DELAY = networkConstants.get("tcp_no_delay").getAsBoolean();
+            RECEIVE_BUFFER_SIZE = networkConstants.get("receive_buffer_size").getAsInt();
+            SEND_BUFFER_SIZE = networkConstants.get("send_buffer_size").getAsInt();
+            int[] waterMark = getAsType(networkConstants.get("write_buffer_water_mark"), int[].class);
+            checkState(waterMark.length == 2, "write_buffer_water_mark must have 2 values");
+            WRITE_BUFFER_WATER_MARK = new WriteBufferWaterMark(waterMark[0], waterMark[1]);
+            String allocator = networkConstants.get("allocator").getAsString();
+            switch (allocator) {
+            case "POOLED":
+                ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+                break;
+            case "UNPOOLED":
+                ALLOCATOR = UnpooledByteBufAllocator.DEFAULT;
+                break;
+            default:
+                throw new IllegalStateException("allocator must be POOLED or UNPOOLED");
+            }
+            LOGIN_THREADS = networkConstants.get("login_threads").getAsInt();
+            LOGIN_QUEUE_SIZE = networkConstants.get("login_queue_size").getAsInt();
+            UNWRITABLE_TICK_LIMIT = networkConstants.get("unwritable_tick_limit").getAsInt();
 
             JsonObject gameConstants = tomlReader.getTable("game").to(JsonObject.class);
             STAGGERED_UPDATING = gameConstants.get("staggered_updating").getAsBoolean();
             STARTING_POSITION = getAsType(gameConstants.get("starting_position"), Position.class);
+            TICK_OVERRUN_THRESHOLD = gameConstants.get("tick_overrun_threshold").getAsDouble();
+            SAVE_THREADS = gameConstants.get("save_threads").getAsInt();
+            SAVE_QUEUE_SIZE = gameConstants.get("save_queue_size").getAsInt();
+            int autosaveTicks = gameConstants.get("autosave_ticks").getAsInt();
+            boolean journal = gameConstants.get("journal").getAsBoolean();
+            checkState(!journal || autosaveTicks > 0, "journal requires autosave_ticks > 0");
+            AUTOSAVE_TICKS = autosaveTicks;
+            JOURNAL = journal;
+            PLAYER_STORAGE = PlayerStorageType.valueOf(gameConstants.get("player_storage").getAsString());
+
+            JsonObject loadSheddingConstants = tomlReader.getTable("load_shedding").to(JsonObject.class);
+            Map<LoadLevel, LoadLevelPolicy> loadShedding = new EnumMap<>(LoadLevel.class);
+            double lastThreshold = -1.0;
+            for (LoadLevel level : LoadLevel.values()) {
+                String key = level.name().toLowerCase();
+                checkState(loadSheddingConstants.has(key), "load_shedding must have a %s stage", key);
+                LoadLevelPolicy policy = getAsType(loadSheddingConstants.get(key), LoadLevelPolicy.class);
+                checkState(policy.getThreshold() > lastThreshold, "load_shedding thresholds must be ascending");
+                checkState(policy.getLoginThreshold() >= 1 && policy.getLoginThreshold() <= LOGIN_THRESHOLD,
+                    "load_shedding login_threshold must be within 1 and %s", LOGIN_THRESHOLD);
+                checkState(policy.getEnteringLimit() >= 1 && policy.getEnteringLimit() <= MAXIMUM_ENTERING,
+                    "load_shedding entering_limit must be within 1 and %s", MAXIMUM_ENTERING);
+                lastThreshold = policy.getThreshold();
+                loadShedding.put(level, policy);
+            }
+            checkState(loadShedding.get(LoadLevel.NORMAL).getThreshold() == 0.0,
+                "load_shedding normal threshold must be 0.0");
+            LOAD_SHEDDING = Maps.immutableEnumMap(loadShedding);
 
             JsonObject utilityConstants = tomlReader.getTable("utility").to(JsonObject.class);
             ASYNCHRONOUS_LOGGING = utilityConstants.get("asynchronous_logging").getAsBoolean();
@@ -72,6 +138,66 @@ public final class LunaConstants {
      */
     public static final int CONNECTION_LIMIT;
 
+    /**
+     * The transport used to accept and serve connections. {@code AUTO} uses native epoll on Linux when it's
+     * available and {@code NIO} everywhere else.
+     */
+    public static final NetworkTransport TRANSPORT;
+
+    /**
+     * The amount of threads accepting connections. One is enough for a single listening port.
+     */
+    public static final int BOSS_THREADS;
+
+    /**
+     * The amount of threads serving connections, {@code 0} for Netty's default of twice the available processors.
+     */
+    public static final int WORKER_THREADS;
+
+    /**
+     * If Nagle's algorithm should be disabled. Game messages are small and latency sensitive, so this should almost
+     * always be {@code true}.
+     */
+    public static final boolean TCP_NO_DELAY;
+
+    /**
+     * The socket receive buffer size in bytes, {@code 0} to leave it up to the operating system.
+     */
+    public static final int RECEIVE_BUFFER_SIZE;
+
+    /**
+     * The socket send buffer size in bytes, {@code 0} to leave it up to the operating system.
+     */
+    public static final int SEND_BUFFER_SIZE;
+
+    /**
+     * The low and high amount of pending outbound bytes at which a channel becomes writable and unwritable again.
+     */
+    public static final WriteBufferWaterMark WRITE_BUFFER_WATER_MARK;
+
+    /**
+     * The buffer allocator used by channels, either {@code POOLED} or {@code UNPOOLED}. Pooling produces far less
+     * garbage and should only be disabled when hunting down buffer leaks.
+     */
+    public static final ByteBufAllocator ALLOCATOR;
+
+    /**
+     * The amount of threads decrypting, validating, and loading logins. Logins are admitted at the same rate the
+     * world adds players, so more threads only help when loading a single save is slow.
+     */
+    public static final int LOGIN_THREADS;
+
+    /**
+     * The maximum amount of logins waiting for a login thread. Logins beyond this are told to retry after the time
+     * it would take the queue to drain.
+     */
+    public static final int LOGIN_QUEUE_SIZE;
+
+    /**
+     * The consecutive ticks a client's channel may stay unwritable before it's disconnected as a slow consumer.
+     */
+    public static final int UNWRITABLE_TICK_LIMIT;
+
     /**
      * If staggered updating should be enabled. This feature is disabled by default because it introduces a slight
      * performance regression. It should only be enabled by highly populated servers.
@@ -93,6 +219,49 @@ public final class LunaConstants {
      */
     public static final Position STARTING_POSITION;
 
+    /**
+     * The fraction of the {@code 600ms} tick length a tick can take before a per-phase breakdown of it is logged.
+     * For example, {@code 0.75} logs every tick that takes longer than {@code 450ms}.
+     */
+    public static final double TICK_OVERRUN_THRESHOLD;
+
+    /**
+     * The amount of threads writing player saves. Each player is always written by the same thread, so saves of
+     * one player are never written out of order.
+     */
+    public static final int SAVE_THREADS;
+
+    /**
+     * The maximum amount of players waiting for each save thread. Saves beyond this are written on the thread that
+     * submitted them.
+     */
+    public static final int SAVE_QUEUE_SIZE;
+
+    /**
+     * The amount of ticks between autosaves of each player, {@code 0} to only save players when they log out.
+     * Autosaves are spread evenly across this interval, and skip players without changes since their last save.
+     */
+    public static final int AUTOSAVE_TICKS;
+
+    /**
+     * If changes to players between saves should be journaled, so they can be recovered after a crash. Whatever is
+     * left of the journal is replayed into player saves on startup. Requires autosaves, since the journal can only be
+     * trimmed once the players in it have been saved.
+     */
+    public static final boolean JOURNAL;
+
+    /**
+     * The backend player saves are kept in. {@code FILES} keeps one file per player, {@code STORE} keeps every
+     * player in a single indexed file. Switching to {@code STORE} imports existing player files on startup.
+     */
+    public static final PlayerStorageType PLAYER_STORAGE;
+
+    /**
+     * The measures taken during each stage of load shedding, and the smoothed load, as a fraction of the {@code
+     * 600ms} tick length, at which each stage starts.
+     */
+    public static final ImmutableMap<LoadLevel, LoadLevelPolicy> LOAD_SHEDDING;
+
     /**
      * If asynchronous and garbage-free logging should be enabled. This feature is enabled by default because it
      * improves performance.
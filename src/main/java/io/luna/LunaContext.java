@@ -2,7 +2,13 @@ package io.luna;
 
 import io.luna.game.GameService;
 import io.luna.game.model.World;
+import io.luna.game.model.mobile.PlayerJournal;
+import io.luna.game.model.mobile.PlayerSaveService;
+import io.luna.game.model.mobile.PlayerStorage;
 import io.luna.game.plugin.PluginManager;
+import io.luna.net.session.LoginService;
+
+import java.nio.file.Paths;
 
 /**
  * A model representing a single instance of Runescape. Only one instance should exist at a time, unless
@@ -27,6 +33,27 @@ public final class LunaContext {
      */
     private final PluginManager plugins = new PluginManager(this);
 
+    /**
+     * The login service.
+     */
+    private final LoginService loginService = new LoginService(this);
+
+    /**
+     * The player storage.
+     */
+    private final PlayerStorage storage = LunaConstants.PLAYER_STORAGE.newStorage();
+
+    /**
+     * The player journal.
+     */
+    private final PlayerJournal journal = new PlayerJournal(storage, Paths.get("./data/journal"),
+        LunaConstants.JOURNAL);
+
+    /**
+     * The player save service.
+     */
+    private final PlayerSaveService saveService = new PlayerSaveService(journal, storage);
+
     /**
      * A package-private constructor.
      */
@@ -53,4 +80,32 @@ public final class LunaContext {
     public PluginManager getPlugins() {
         return plugins;
     }
+
+    /**
+     * @return The login service.
+     */
+    public LoginService getLoginService() {
+        return loginService;
+    }
+
+    /**
+     * @return The player save service.
+     */
+    public PlayerSaveService getSaveService() {
+        return saveService;
+    }
+
+    /**
+     * @return The player storage.
+     */
+    public PlayerStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * @return The player journal.
+     */
+    public PlayerJournal getJournal() {
+        return journal;
+    }
 }
@@ -6,6 +6,8 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.luna.game.GameService;
 import io.luna.game.event.impl.ServerLaunchEvent;
 import io.luna.game.model.Chance;
+import io.luna.game.model.World;
+import io.luna.game.model.mobile.PlayerSaveService;
 import io.luna.game.model.def.EquipmentDefinition;
 import io.luna.game.model.def.ItemDefinition;
 import io.luna.game.model.def.NpcCombatDefinition;
@@ -14,14 +16,15 @@ import io.luna.game.model.def.ObjectDefinition;
 import io.luna.game.plugin.PluginBootstrap;
 import io.luna.game.plugin.PluginManager;
 import io.luna.net.LunaChannelInitializer;
+import io.luna.net.NetworkTransport;
 import io.luna.net.msg.MessageRepository;
 import io.luna.util.Rational;
 import io.luna.util.parser.impl.MessageRepositoryParser;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.ResourceLeakDetector;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -95,19 +98,47 @@ public final class Server {
     private void initNetwork() throws Exception {
         ResourceLeakDetector.setLevel(LunaConstants.RESOURCE_LEAK_DETECTION);
 
-        ServerBootstrap bootstrap = new ServerBootstrap();
-        EventLoopGroup loopGroup = new NioEventLoopGroup();
+        NetworkTransport transport = LunaConstants.TRANSPORT.resolve();
+        EventLoopGroup bossGroup = transport.newEventLoopGroup(LunaConstants.BOSS_THREADS,
+            new DefaultThreadFactory("LunaBossThread"));
+        EventLoopGroup workerGroup = transport.newEventLoopGroup(LunaConstants.WORKER_THREADS,
+            new DefaultThreadFactory("LunaNetworkThread"));
 
-        bootstrap.group(loopGroup);
-        bootstrap.channel(NioServerSocketChannel.class);
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(bossGroup, workerGroup);
+        bootstrap.channel(transport.getServerChannel());
+        bootstrap.option(ChannelOption.ALLOCATOR, LunaConstants.ALLOCATOR);
+        bootstrap.childOption(ChannelOption.ALLOCATOR, LunaConstants.ALLOCATOR);
+        bootstrap.childOption(ChannelOption.TCP_NODELAY, LunaConstants.TCP_NO_DELAY);
+        bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, LunaConstants.WRITE_BUFFER_WATER_MARK);
+        if (LunaConstants.RECEIVE_BUFFER_SIZE > 0) {
+            bootstrap.childOption(ChannelOption.SO_RCVBUF, LunaConstants.RECEIVE_BUFFER_SIZE);
+        }
+        if (LunaConstants.SEND_BUFFER_SIZE > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, LunaConstants.SEND_BUFFER_SIZE);
+        }
         bootstrap.childHandler(new LunaChannelInitializer(context, repository));
+        context.getLoginService().registerMBean();
         bootstrap.bind(LunaConstants.PORT).syncUninterruptibly();
+        LOGGER.info("Network is using the {} transport.", transport);
     }
 
     /**
      * Initializes the game service.
      */
     private void initGame() throws Exception {
+        World world = context.getWorld();
+        world.getProfiler().registerMBeans();
+        world.getLoadMonitor().registerMBean();
+        world.getTrafficProfiler().registerMBean();
+
+        context.getStorage().open();
+        context.getJournal().start();
+
+        PlayerSaveService saveService = context.getSaveService();
+        saveService.registerMBean();
+        saveService.addShutdownHook();
+
         GameService service = context.getService();
         service.startAsync().awaitRunning();
     }
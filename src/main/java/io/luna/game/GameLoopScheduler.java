@@ -0,0 +1,50 @@
+package io.luna.game;
+
+import com.google.common.util.concurrent.AbstractScheduledService.CustomScheduler;
+import io.luna.game.profile.TickProfiler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CustomScheduler} that keeps ticks aligned to a fixed {@code 600ms} grid. A tick that runs long shortens
+ * the delay before the next one instead of shifting every later tick, and a server that falls more than a full
+ * tick behind forgives the debt rather than running ticks back to back to catch up.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+final class GameLoopScheduler extends CustomScheduler {
+
+    /**
+     * The time the next tick is due.
+     */
+    private long nextTick;
+
+    /**
+     * How late the last tick is starting.
+     */
+    private volatile long debt;
+
+    @Override
+    protected Schedule getNextSchedule() {
+        long now = System.nanoTime();
+        if (nextTick == 0) {
+            nextTick = now;
+        }
+        nextTick += TickProfiler.TICK_NANOS;
+
+        long delay = nextTick - now;
+        if (delay < -TickProfiler.TICK_NANOS) {
+            nextTick = now;
+            delay = 0;
+        }
+        debt = Math.max(0, -delay);
+        return new Schedule(Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return How late the last tick is starting, in nanoseconds.
+     */
+    long getDebt() {
+        return debt;
+    }
+}
@@ -7,6 +7,8 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.luna.LunaContext;
 import io.luna.game.model.World;
+import io.luna.game.profile.TickPhase;
+import io.luna.game.profile.TickProfiler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -44,6 +46,11 @@ public final class GameService extends AbstractScheduledService {
      */
     private final LunaContext context;
 
+    /**
+     * The drift-compensating tick scheduler.
+     */
+    private final GameLoopScheduler scheduler = new GameLoopScheduler();
+
     /**
      * Creates a new {@link GameService}.
      *
@@ -60,7 +67,10 @@ public final class GameService extends AbstractScheduledService {
 
     @Override
     protected void runOneIteration() throws Exception {
+        World world = context.getWorld();
+        TickProfiler profiler = world.getProfiler();
         try {
+            profiler.startTick();
             for (; ; ) {
                 Runnable t = syncTasks.poll();
                 if (t == null) {
@@ -74,18 +84,27 @@ public final class GameService extends AbstractScheduledService {
                 }
             }
 
-            World world = context.getWorld();
+            profiler.endPhase(TickPhase.SYNC_TASKS);
+
             world.dequeueLogins();
+            profiler.endPhase(TickPhase.LOGINS);
             world.runGameLoop();
             world.dequeueLogouts();
+            profiler.endPhase(TickPhase.LOGOUTS);
+            world.runAutosave();
+            context.getJournal().flush();
+            profiler.endPhase(TickPhase.AUTOSAVE);
         } catch (Exception e) {
             LOGGER.catching(e);
+        } finally {
+            profiler.endTick(world.getPlayers().size(), world.getNpcs().size(), world.getTasks().size());
+            world.getLoadMonitor().update(profiler.getLastTickNanos(), scheduler.getDebt());
         }
     }
 
     @Override
     protected Scheduler scheduler() {
-        return Scheduler.newFixedRateSchedule(600, 600, TimeUnit.MILLISECONDS);
+        return scheduler;
     }
 
     @Override
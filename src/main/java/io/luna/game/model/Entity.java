@@ -4,7 +4,7 @@ import io.luna.LunaContext;
 import io.luna.game.GameService;
 import io.luna.game.event.impl.PositionChangeEvent;
 import io.luna.game.model.region.Region;
-import io.luna.game.model.region.RegionCoordinates;
+import io.luna.game.model.region.RegionManager;
 import io.luna.game.plugin.PluginManager;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -52,7 +52,7 @@ public abstract class Entity {
     protected Position position;
 
     /**
-     * The current region.
+     * The current region, {@code null} while not {@code ACTIVE}.
      */
     protected Region currentRegion;
 
@@ -134,14 +134,17 @@ public abstract class Entity {
         if (state != newState) {
             state = newState;
 
+            RegionManager regions = world.getRegions();
             switch (state) {
             case ACTIVE:
+                currentRegion = regions.add(this);
                 onActive();
                 break;
             case INACTIVE:
                 onInactive();
                 if (currentRegion != null) {
-                    currentRegion.removeEntity(this);
+                    regions.remove(this, currentRegion);
+                    currentRegion = null;
                 }
                 break;
             }
@@ -149,23 +152,21 @@ public abstract class Entity {
     }
 
     /**
-     * Sets the current position and performs region checking.
+     * Sets the current position and keeps the region index current, if this entity is {@code ACTIVE}.
      */
     public final void setPosition(Position newPosition) {
-        RegionCoordinates next = RegionCoordinates.create(newPosition);
-        if (position != null) {
-            if (currentRegion.getCoordinates().equals(next)) {
-                plugins.post(new PositionChangeEvent(this, position, newPosition));
-                position = newPosition;
-                return;
-            }
-            currentRegion.removeEntity(this);
+        if (state == EntityState.ACTIVE) {
+            currentRegion = world.getRegions().move(this, currentRegion, newPosition);
         }
-        currentRegion = world.getRegions().getRegion(next);
-        currentRegion.addEntity(this);
-
         plugins.post(new PositionChangeEvent(this, position, newPosition));
         position = newPosition;
+        onPositionChange();
+    }
+
+    /**
+     * Invoked after the current position is set.
+     */
+    protected void onPositionChange() {
     }
 
     /**
@@ -218,7 +219,7 @@ public abstract class Entity {
     }
 
     /**
-     * @return The current region.
+     * @return The current region, {@code null} while not {@code ACTIVE}.
      */
     public Region getCurrentRegion() {
         return currentRegion;
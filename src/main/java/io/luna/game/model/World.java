@@ -1,15 +1,22 @@
 package io.luna.game.model;
 
 import io.luna.LunaContext;
+import io.luna.game.model.mobile.AutosaveScheduler;
 import io.luna.game.model.mobile.MobList;
 import io.luna.game.model.mobile.Npc;
 import io.luna.game.model.mobile.Player;
 import io.luna.game.model.region.RegionManager;
+import io.luna.game.profile.LoadMonitor;
+import io.luna.game.profile.TickPhase;
+import io.luna.game.profile.TickProfiler;
+import io.luna.game.profile.TrafficProfiler;
 import io.luna.game.task.Task;
 import io.luna.game.task.TaskManager;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
@@ -39,6 +46,11 @@ public final class World {
      */
     private final Queue<Player> logins = new ConcurrentLinkedQueue<>();
 
+    /**
+     * Players that are online or logging in, keyed by username hash.
+     */
+    private final Map<Long, Player> usernames = new ConcurrentHashMap<>();
+
     /**
      * A queue of players awaiting logout.
      */
@@ -54,11 +66,31 @@ public final class World {
      */
     private final TaskManager tasks = new TaskManager();
 
+    /**
+     * The tick profiler.
+     */
+    private final TickProfiler profiler = new TickProfiler();
+
+    /**
+     * The load monitor.
+     */
+    private final LoadMonitor loadMonitor = new LoadMonitor();
+
+    /**
+     * The traffic profiler.
+     */
+    private final TrafficProfiler trafficProfiler = new TrafficProfiler();
+
     /**
      * The world synchronizer.
      */
     private final WorldSynchronizer synchronizer = new WorldSynchronizer(this);
 
+    /**
+     * The autosave scheduler.
+     */
+    private final AutosaveScheduler autosave = new AutosaveScheduler(this);
+
     /**
      * Creates a new {@link World}.
      *
@@ -85,16 +117,42 @@ public final class World {
     }
 
     /**
-     * Adds players awaiting login to the world.
+     * Adds players awaiting login to the world. Fewer players are added while the server is under heavy load.
+     * Players that no longer fit, because the world filled up after they logged in, are disconnected.
      */
     public void dequeueLogins() {
-        for (int amount = 0; amount < EntityConstants.LOGIN_THRESHOLD; amount++) {
+        int threshold = loadMonitor.getLoadLevel().getLoginThreshold();
+        for (int amount = 0; amount < threshold; amount++) {
             Player player = logins.poll();
             if (player == null) {
                 break;
             }
+            if (playerList.isFull()) {
+                releaseUsername(player);
+                player.getSession().getChannel().close();
+                continue;
+            }
             playerList.add(player);
         }
+        if (threshold < EntityConstants.LOGIN_THRESHOLD && !logins.isEmpty()) {
+            loadMonitor.loginsThrottled();
+        }
+        context.getLoginService().admit(threshold);
+    }
+
+    /**
+     * Claims {@code player}'s username for a login. Returns {@code false} if another player with the same username
+     * is already online or logging in. Safe to call from any thread.
+     */
+    public boolean claimUsername(Player player) {
+        return usernames.putIfAbsent(player.getUsernameHash(), player) == null;
+    }
+
+    /**
+     * Releases the username claimed by {@code player}, if it's still theirs. Safe to call from any thread.
+     */
+    public void releaseUsername(Player player) {
+        usernames.remove(player.getUsernameHash(), player);
     }
 
     /**
@@ -117,6 +175,7 @@ public final class World {
             }
             /* TODO: Anti x-logging. */
             playerList.remove(player);
+            releaseUsername(player);
         }
     }
 
@@ -124,18 +183,31 @@ public final class World {
      * Runs task processing and mob synchronization.
      */
     public void runGameLoop() {
-        tasks.runTaskIteration();
+        int deferred = tasks.runTaskIteration(loadMonitor.getLoadLevel().isDeferringTasks());
+        loadMonitor.tasksDeferred(deferred);
+        profiler.endPhase(TickPhase.TASKS);
 
         synchronizer.preSynchronize();
+        profiler.endPhase(TickPhase.PRE_SYNCHRONIZE);
         synchronizer.synchronize();
+        profiler.endPhase(TickPhase.SYNCHRONIZE);
         synchronizer.postSynchronize();
+        profiler.endPhase(TickPhase.POST_SYNCHRONIZE);
+    }
+
+    /**
+     * Autosaves the players whose turn it is this tick.
+     */
+    public void runAutosave() {
+        autosave.process();
     }
 
     /**
      * Retrieves a player by their username hash. Faster than {@code getPlayer(String)}.
      */
     public Optional<Player> getPlayer(long username) {
-        return playerList.findFirst(player -> player.getUsernameHash() == username);
+        Player player = usernames.get(username);
+        return player != null && player.getState() == EntityState.ACTIVE ? Optional.of(player) : Optional.empty();
     }
 
     /**
@@ -159,6 +231,34 @@ public final class World {
         return regions;
     }
 
+    /**
+     * @return The tick profiler.
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @return The load monitor.
+     */
+    public LoadMonitor getLoadMonitor() {
+        return loadMonitor;
+    }
+
+    /**
+     * @return The traffic profiler.
+     */
+    public TrafficProfiler getTrafficProfiler() {
+        return trafficProfiler;
+    }
+
+    /**
+     * @return The autosave scheduler.
+     */
+    public AutosaveScheduler getAutosave() {
+        return autosave;
+    }
+
     /**
      * @return The task manager
      */
@@ -1,18 +1,24 @@
 package io.luna.game.model;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.luna.game.model.mobile.MobList;
 import io.luna.game.model.mobile.Npc;
 import io.luna.game.model.mobile.Player;
+import io.luna.game.profile.LoadMonitor;
+import io.luna.game.profile.TickProfiler;
+import io.luna.net.LunaNetworkConstants;
+import io.luna.net.codec.ByteMessage;
+import io.luna.net.session.GameSession;
+import io.luna.net.session.SessionFlusher;
 import io.luna.net.msg.out.NpcUpdateMessageWriter;
 import io.luna.net.msg.out.PlayerUpdateMessageWriter;
 import io.luna.net.msg.out.RegionChangeMessageWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Phaser;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A model that concurrently runs the update procedure for mobs.
@@ -22,40 +28,72 @@ import java.util.concurrent.Phaser;
 public final class WorldSynchronizer {
 
     /**
-     * A model that applies the update procedure within a synchronization block.
+     * A {@link RecursiveAction} that applies the update procedure to a range of players, splitting itself in half
+     * until the range is small enough to run directly. Idle workers steal the halves that haven't started yet.
      */
-    private final class UpdateTask implements Runnable {
+    private final class UpdateBatch extends RecursiveAction {
 
         /**
-         * The player.
+         * The first player index, inclusive.
          */
-        private final Player player;
+        private final int from;
 
         /**
-         * Creates a new {@link UpdateTask}.
+         * The last player index, exclusive.
+         */
+        private final int to;
+
+        /**
+         * Creates a new {@link UpdateBatch}.
          *
-         * @param player The player.
+         * @param from The first player index, inclusive.
+         * @param to The last player index, exclusive.
          */
-        private UpdateTask(Player player) {
-            this.player = player;
+        private UpdateBatch(int from, int to) {
+            this.from = from;
+            this.to = to;
         }
 
         @Override
-        public void run() {
-            synchronized (player) {
-                try {
-                    player.queue(new NpcUpdateMessageWriter());
-                    player.queue(new PlayerUpdateMessageWriter());
-                } catch (Exception e) {
-                    LOGGER.catching(e);
-                    player.logout();
-                } finally {
-                    barrier.arriveAndDeregister();
+        protected void compute() {
+            if (to - from <= batchSize) {
+                ByteMessage scratch = scratchFor(Thread.currentThread());
+                for (int index = from; index < to; index++) {
+                    update(snapshot[index], scratch);
                 }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new UpdateBatch(from, middle), new UpdateBatch(middle, to));
             }
         }
     }
 
+    /**
+     * A {@link ForkJoinWorkerThread} that owns a reusable buffer for encoding update blocks.
+     */
+    private static final class UpdateWorker extends ForkJoinWorkerThread {
+
+        /**
+         * A reusable buffer for update blocks.
+         */
+        private final ByteMessage scratch = ByteMessage.message();
+
+        /**
+         * Creates a new {@link UpdateWorker}.
+         *
+         * @param pool The pool this worker belongs to.
+         */
+        private UpdateWorker(ForkJoinPool pool) {
+            super(pool);
+            setName("WorldSynchronizerThread");
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            scratch.release();
+        }
+    }
+
     /**
      * The asynchronous logger.
      */
@@ -72,15 +110,40 @@ public final class WorldSynchronizer {
     private final MobList<Npc> npcs;
 
     /**
-     * A synchronization barrier.
+     * The tick profiler.
+     */
+    private final TickProfiler profiler;
+
+    /**
+     * The load monitor.
+     */
+    private final LoadMonitor loadMonitor;
+
+    /**
+     * A work-stealing pool for parallel updating.
      */
-    private final Phaser barrier = new Phaser(1);
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+        UpdateWorker::new, null, false);
 
     /**
-     * A thread pool for parallel updating.
+     * Flushes every session at the end of a tick, one task per event loop.
      */
-    private final ExecutorService service = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
-        new ThreadFactoryBuilder().setNameFormat("WorldSynchronizerThread").build());
+    private final SessionFlusher flusher = new SessionFlusher();
+
+    /**
+     * The players being updated this tick, in index order.
+     */
+    private final Player[] snapshot;
+
+    /**
+     * The amount of players in {@link #snapshot}.
+     */
+    private int snapshotSize;
+
+    /**
+     * The largest range of players updated without splitting, recomputed every tick.
+     */
+    private int batchSize;
 
     /**
      * Creates a new {@link WorldSynchronizer}.
@@ -90,16 +153,29 @@ public final class WorldSynchronizer {
     public WorldSynchronizer(World world) {
         players = world.getPlayers();
         npcs = world.getNpcs();
+        snapshot = new Player[players.capacity()];
+        profiler = world.getProfiler();
+        loadMonitor = world.getLoadMonitor();
     }
 
     /**
      * Pre-synchronization is for tick-dependant sequential processing.
      */
     public void preSynchronize() {
+        boolean pausingFloods = loadMonitor.getLoadLevel().isPausingFloods();
         for (Player player : players) {
             try {
                 player.getWalkingQueue().process();
-                player.getSession().dequeue();
+
+                GameSession session = player.getSession();
+                int messages = session.dequeue();
+                profiler.addMessages(messages);
+
+                /* Under critical load, stop reading from clients that filled their queue until next tick. */
+                boolean flooding = pausingFloods && messages >= LunaNetworkConstants.MESSAGE_LIMIT;
+                if (session.setFlooding(flooding) && flooding) {
+                    loadMonitor.readPaused();
+                }
 
                 if (player.getLastRegion() == null || player.needsRegionUpdate()) {
                     player.setRegionChanged(true);
@@ -127,11 +203,38 @@ public final class WorldSynchronizer {
      * Synchronization applies the update protocol in parallel.
      */
     public void synchronize() {
-        barrier.bulkRegister(players.size());
+        snapshotSize = 0;
         for (Player player : players) {
-            service.execute(new UpdateTask(player));
+            snapshot[snapshotSize++] = player;
         }
-        barrier.arriveAndAwaitAdvance();
+
+        /* Aim for several batches per worker, so there is something left to steal when workers finish early. */
+        batchSize = Math.max(1, snapshotSize / (pool.getParallelism() * 8));
+        try {
+            pool.invoke(new UpdateBatch(0, snapshotSize));
+        } finally {
+            Arrays.fill(snapshot, 0, snapshotSize, null);
+        }
+    }
+
+    /**
+     * Applies the update procedure to {@code player}, using {@code scratch} to encode update blocks.
+     */
+    private void update(Player player, ByteMessage scratch) {
+        try {
+            player.queue(new NpcUpdateMessageWriter(scratch));
+            player.queue(new PlayerUpdateMessageWriter(scratch));
+        } catch (Exception e) {
+            LOGGER.catching(e);
+            player.logout();
+        }
+    }
+
+    /**
+     * Returns the reusable buffer owned by {@code thread}, or {@code null} if it doesn't own one.
+     */
+    private static ByteMessage scratchFor(Thread thread) {
+        return thread instanceof UpdateWorker ? ((UpdateWorker) thread).scratch : null;
     }
 
     /**
@@ -139,13 +242,15 @@ public final class WorldSynchronizer {
      */
     public void postSynchronize() {
         for (Player player : players) {
-            player.getSession().flush();
+            flusher.add(player.getSession());
             player.resetFlags();
-            player.setCachedBlock(null);
+            player.clearCachedBlocks();
         }
+        flusher.flush();
 
         for (Npc npc : npcs) {
             npc.resetFlags();
+            npc.clearCachedBlocks();
         }
     }
 }
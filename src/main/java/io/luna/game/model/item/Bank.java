@@ -2,6 +2,7 @@ package io.luna.game.model.item;
 
 import io.luna.game.model.def.ItemDefinition;
 import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.SaveSection;
 import io.luna.net.msg.out.GameChatboxMessageWriter;
 import io.luna.net.msg.out.InventoryOverlayMessageWriter;
 
@@ -89,6 +90,7 @@ public final class Bank extends ItemContainer {
         inventory = player.getInventory();
 
         addListener(new BankListener());
+        addListener(new ItemSaveListener(player, SaveSection.BANK));
     }
 
     /**
@@ -6,8 +6,8 @@ import io.luna.game.event.impl.EquipmentChangeEvent;
 import io.luna.game.model.def.EquipmentDefinition;
 import io.luna.game.model.def.EquipmentDefinition.EquipmentRequirement;
 import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.SaveSection;
 import io.luna.game.model.mobile.Skill;
-import io.luna.game.model.mobile.update.UpdateFlagSet.UpdateFlag;
 import io.luna.game.plugin.PluginManager;
 import io.luna.net.msg.out.GameChatboxMessageWriter;
 import io.luna.net.msg.out.WidgetTextMessageWriter;
@@ -51,6 +51,7 @@ public final class Equipment extends ItemContainer {
 
             updateBonus(oldItem, newItem);
             writeBonuses();
+            flagAppearance(index);
             sendEvent(oldItem, newItem, index);
         }
 
@@ -59,6 +60,7 @@ public final class Equipment extends ItemContainer {
             super.onBulkUpdate(items, oldItem, newItem, index);
 
             updateBonus(oldItem, newItem);
+            flagAppearance(index);
             sendEvent(oldItem, newItem, index);
         }
 
@@ -247,6 +249,7 @@ public final class Equipment extends ItemContainer {
 
         addListener(new EquipmentListener());
         addListener(new ItemWeightListener(player));
+        addListener(new ItemSaveListener(player, SaveSection.EQUIPMENT));
     }
 
     @Override
@@ -340,8 +343,6 @@ public final class Equipment extends ItemContainer {
         unequip(toIndex);
         unequipIndex.ifPresent(this::unequip);
         set(toIndex, inventoryItem);
-
-        flagAppearance(toIndex);
         return true;
     }
 
@@ -358,7 +359,6 @@ public final class Equipment extends ItemContainer {
         Inventory inventory = player.getInventory();
         if (inventory.add(equipmentItem)) {
             set(equipmentIndex, null);
-            flagAppearance(equipmentIndex);
             return true;
         }
         sendMessage("You do not have enough space in your inventory.");
@@ -370,7 +370,7 @@ public final class Equipment extends ItemContainer {
      */
     private void flagAppearance(int equipmentIndex) {
         if (!NO_APPEARANCE.contains(equipmentIndex)) {
-            player.getUpdateFlags().flag(UpdateFlag.APPEARANCE);
+            player.flagAppearance();
         }
     }
 
@@ -1,6 +1,7 @@
 package io.luna.game.model.item;
 
 import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.SaveSection;
 
 /**
  * An item container model representing a player's inventory.
@@ -53,5 +54,6 @@ public final class Inventory extends ItemContainer {
 
         addListener(new InventoryListener());
         addListener(new ItemWeightListener(player));
+        addListener(new ItemSaveListener(player, SaveSection.INVENTORY));
     }
 }
@@ -0,0 +1,60 @@
+package io.luna.game.model.item;
+
+import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.SaveSection;
+
+import java.util.Optional;
+
+/**
+ * A listener that marks a player's item container as changed since their last save, and journals changed slots.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class ItemSaveListener implements ItemContainerListener {
+
+    /**
+     * The player.
+     */
+    private final Player player;
+
+    /**
+     * The section the container is saved in.
+     */
+    private final SaveSection section;
+
+    /**
+     * Creates a new {@link ItemSaveListener}.
+     *
+     * @param player The player.
+     * @param section The section the container is saved in.
+     */
+    public ItemSaveListener(Player player, SaveSection section) {
+        this.player = player;
+        this.section = section;
+    }
+
+    @Override
+    public void onSingleUpdate(ItemContainer items, Optional<Item> oldItem, Optional<Item> newItem, int index) {
+        onSlotUpdate(oldItem, newItem, index);
+    }
+
+    @Override
+    public void onBulkUpdate(ItemContainer items, Optional<Item> oldItem, Optional<Item> newItem, int index) {
+        onSlotUpdate(oldItem, newItem, index);
+    }
+
+    @Override
+    public void onBulkUpdateCompleted(ItemContainer items) {
+        player.markDirty(section);
+    }
+
+    /**
+     * Marks the container as changed and journals the slot on {@code index}, unless it was and still is empty.
+     */
+    private void onSlotUpdate(Optional<Item> oldItem, Optional<Item> newItem, int index) {
+        player.markDirty(section);
+        if (oldItem.isPresent() || newItem.isPresent()) {
+            player.getContext().getJournal().slotChanged(player, section, index, newItem.orElse(null));
+        }
+    }
+}
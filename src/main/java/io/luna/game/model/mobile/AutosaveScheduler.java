@@ -0,0 +1,85 @@
+package io.luna.game.model.mobile;
+
+import io.luna.LunaConstants;
+import io.luna.game.model.World;
+
+/**
+ * A model that autosaves online players, spread evenly across {@link LunaConstants#AUTOSAVE_TICKS}. Every tick it
+ * visits the player indexes belonging to the current slot of the interval, so each player is visited once per
+ * interval and about the same amount of players are saved every tick. Players without changes since their last
+ * save are skipped.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class AutosaveScheduler {
+
+    /**
+     * The world.
+     */
+    private final World world;
+
+    /**
+     * The amount of ticks processed.
+     */
+    private long ticks;
+
+    /**
+     * The amount of players saved.
+     */
+    private long saved;
+
+    /**
+     * The amount of players skipped because they had no changes.
+     */
+    private long skipped;
+
+    /**
+     * Creates a new {@link AutosaveScheduler}.
+     *
+     * @param world The world.
+     */
+    public AutosaveScheduler(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Saves the changed players belonging to this tick's slot. Called on the game thread.
+     */
+    public void process() {
+        int interval = LunaConstants.AUTOSAVE_TICKS;
+        if (interval <= 0) {
+            return;
+        }
+
+        MobList<Player> players = world.getPlayers();
+        PlayerSaveService service = world.getContext().getSaveService();
+        int slot = (int) (ticks++ % interval);
+        for (int index = slot + 1; index < players.capacity(); index += interval) {
+            Player player = players.get(index);
+            if (player == null) {
+                continue;
+            }
+
+            if (player.isDirty()) {
+                new PlayerSerializer(player).asyncSave(service);
+                saved++;
+            } else {
+                skipped++;
+            }
+        }
+    }
+
+    /**
+     * @return The amount of players saved.
+     */
+    public long getSaved() {
+        return saved;
+    }
+
+    /**
+     * @return The amount of players skipped because they had no changes.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,93 @@
+package io.luna.game.model.mobile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A {@link PlayerStorage} that keeps every save in its own file, named after the player.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class FilePlayerStorage implements PlayerStorage {
+
+    /**
+     * The extension of save files.
+     */
+    private static final String EXTENSION = ".bin";
+
+    /**
+     * The directory containing save files.
+     */
+    private final Path directory;
+
+    /**
+     * Creates a new {@link FilePlayerStorage}.
+     *
+     * @param directory The directory containing save files.
+     */
+    public FilePlayerStorage(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public PlayerData load(String username) throws IOException {
+        Path path = computePath(username);
+        return Files.exists(path) ? PlayerSaveFormat.read(path) : null;
+    }
+
+    @Override
+    public void save(String username, PlayerData data) throws IOException {
+        PlayerSaveFormat.write(data, computePath(username));
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, PlayerData> action) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(EXTENSION)) {
+                    action.accept(fileName.substring(0, fileName.length() - EXTENSION.length()),
+                        PlayerSaveFormat.read(path));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Copies every save file into {@code storage}. Returns the amount of saves copied.
+     */
+    int copyTo(PlayerStorage storage) throws IOException {
+        int[] copied = { 0 };
+        if (Files.isDirectory(directory)) {
+            forEach((username, data) -> {
+                try {
+                    storage.save(username, data);
+                    copied[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return copied[0];
+    }
+
+    /**
+     * Returns the path to the save file of {@code username}.
+     */
+    private Path computePath(String username) {
+        return directory.resolve(username + EXTENSION);
+    }
+}
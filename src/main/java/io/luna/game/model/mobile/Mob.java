@@ -10,9 +10,12 @@ import io.luna.game.model.Position;
 import io.luna.game.model.mobile.attr.AttributeMap;
 import io.luna.game.model.mobile.update.UpdateFlagSet;
 import io.luna.game.model.mobile.update.UpdateFlagSet.UpdateFlag;
+import io.luna.game.model.mobile.update.UpdateState;
+import io.luna.net.codec.ByteMessage;
 
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -48,6 +51,12 @@ public abstract class Mob extends Entity {
      */
     protected final WalkingQueue walkingQueue = new WalkingQueue(this);
 
+    /**
+     * The update blocks cached for the current tick, indexed by {@link UpdateState} ordinal.
+     */
+    private final AtomicReferenceArray<ByteMessage> cachedBlocks = new AtomicReferenceArray<>(
+        UpdateState.values().length);
+
     /**
      * The mob list index.
      */
@@ -287,6 +296,39 @@ public abstract class Mob extends Entity {
         updateFlags.clear();
     }
 
+    /**
+     * Retrieves the update block cached for {@code state}, {@code null} if none has been encoded this tick.
+     */
+    public final ByteMessage getCachedBlock(UpdateState state) {
+        return cachedBlocks.get(state.ordinal());
+    }
+
+    /**
+     * Attempts to cache {@code block} for {@code state}. If another thread has already cached a block, that block
+     * is returned instead and {@code block} is left untouched. Otherwise a reference to {@code block} is retained
+     * and it is returned.
+     */
+    public final ByteMessage setCachedBlock(UpdateState state, ByteMessage block) {
+        block.retain();
+        if (cachedBlocks.compareAndSet(state.ordinal(), null, block)) {
+            return block;
+        }
+        block.release();
+        return cachedBlocks.get(state.ordinal());
+    }
+
+    /**
+     * Releases all cached update blocks. Must only be called once synchronization has completed.
+     */
+    public final void clearCachedBlocks() {
+        for (int index = 0; index < cachedBlocks.length(); index++) {
+            ByteMessage block = cachedBlocks.getAndSet(index, null);
+            if (block != null) {
+                block.release();
+            }
+        }
+    }
+
     /**
      * Retrieves the skill with {@code id}.
      */
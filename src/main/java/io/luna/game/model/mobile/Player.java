@@ -28,11 +28,10 @@ import io.netty.channel.Channel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.luna.game.model.item.Bank.BANK_DISPLAY_ID;
@@ -116,19 +115,19 @@ public final class Player extends Mob {
     private static final Logger LOGGER = LogManager.getLogger();
 
     /**
-     * A set of local players.
+     * The local players.
      */
-    private final Set<Player> localPlayers = new LinkedHashSet<>();
+    private final Viewport<Player> localPlayers = new Viewport<>(EntityType.PLAYER, world.getPlayers().capacity());
 
     /**
-     * A set of local npcs.
+     * The local npcs.
      */
-    private final Set<Npc> localNpcs = new LinkedHashSet<>();
+    private final Viewport<Npc> localNpcs = new Viewport<>(EntityType.NPC, world.getNpcs().capacity());
 
     /**
      * The appearance.
      */
-    private final PlayerAppearance appearance = new PlayerAppearance();
+    private final PlayerAppearance appearance = new PlayerAppearance(this::flagAppearance);
 
     /**
      * The credentials.
@@ -151,9 +150,9 @@ public final class Player extends Mob {
     private final Bank bank = new Bank(this);
 
     /**
-     * The cached update block.
+     * The encoded appearance block, {@code null} if it needs to be encoded again.
      */
-    private ByteMessage cachedBlock;
+    private final AtomicReference<ByteMessage> cachedAppearance = new AtomicReference<>();
 
     /**
      * The rights.
@@ -210,6 +209,21 @@ public final class Player extends Mob {
      */
     private SkullIcon skullIcon = SkullIcon.NONE;
 
+    /**
+     * The mask of sections changed since the last snapshot.
+     */
+    private int dirtySections = SaveSection.ALL;
+
+    /**
+     * The last snapshot of persistent data, {@code null} if none has been taken.
+     */
+    private PlayerData lastSnapshot;
+
+    /**
+     * When the position was last journaled.
+     */
+    private long positionCheckpoint;
+
     /**
      * Creates a new {@link Player}.
      *
@@ -220,6 +234,10 @@ public final class Player extends Mob {
         super(context, EntityType.PLAYER);
         this.credentials = credentials;
 
+        attributes.setPersistentListener((name, value) -> {
+            markDirty(SaveSection.ATTRIBUTES);
+            context.getJournal().attributeChanged(this, name, value);
+        });
         setPosition(LunaConstants.STARTING_POSITION);
 
         if (credentials.getUsername().equals("lare96")) {
@@ -254,9 +272,15 @@ public final class Player extends Mob {
         return false;
     }
 
+    @Override
+    protected void onPositionChange() {
+        markDirty(SaveSection.POSITION);
+        context.getJournal().positionChanged(this);
+    }
+
     @Override
     public void onActive() {
-        updateFlags.flag(UpdateFlag.APPEARANCE);
+        flagAppearance();
 
         queue(new AssignmentMessageWriter(true));
 
@@ -278,15 +302,22 @@ public final class Player extends Mob {
 
         plugins.post(new LoginEvent(this));
 
+        // New accounts are saved right away, so their journaled changes always have a save to be replayed into.
+        if (lastSnapshot == null) {
+            new PlayerSerializer(this).asyncSave(context.getSaveService());
+        }
+
         LOGGER.info("{} has logged in.", this);
     }
 
     @Override
     public void onInactive() {
         plugins.post(new LogoutEvent(this));
+        session.release();
+        clearCachedAppearance();
 
         PlayerSerializer serializer = new PlayerSerializer(this);
-        serializer.asyncSave(service);
+        serializer.asyncSave(context.getSaveService());
 
         LOGGER.info("{} has logged out.", this);
     }
@@ -353,7 +384,7 @@ public final class Player extends Mob {
      */
     public void transform(int id) {
         transformId = OptionalInt.of(id);
-        updateFlags.flag(UpdateFlag.APPEARANCE);
+        flagAppearance();
     }
 
     /**
@@ -362,7 +393,26 @@ public final class Player extends Mob {
     public void untransform() { /* TODO better method name than 'untransform' ? */
         if (transformId.isPresent()) {
             transformId = OptionalInt.empty();
-            updateFlags.flag(UpdateFlag.APPEARANCE);
+            flagAppearance();
+        }
+    }
+
+    /**
+     * Discards the cached appearance block and flags it for updating. This should always be used instead of
+     * flagging {@code APPEARANCE} directly, otherwise local players will keep seeing the stale cached appearance.
+     */
+    public void flagAppearance() {
+        clearCachedAppearance();
+        updateFlags.flag(UpdateFlag.APPEARANCE);
+    }
+
+    /**
+     * Releases the cached appearance block, if there is one.
+     */
+    private void clearCachedAppearance() {
+        ByteMessage appearance = cachedAppearance.getAndSet(null);
+        if (appearance != null) {
+            appearance.release();
         }
     }
 
@@ -538,42 +588,38 @@ public final class Player extends Mob {
     }
 
     /**
-     * @return The set of local players.
+     * @return The local players.
      */
-    public Set<Player> getLocalPlayers() {
+    public Viewport<Player> getLocalPlayers() {
         return localPlayers;
     }
 
     /**
-     * @return The set of local npcs.
+     * @return The local npcs.
      */
-    public Set<Npc> getLocalNpcs() {
+    public Viewport<Npc> getLocalNpcs() {
         return localNpcs;
     }
 
     /**
-     * @return The cached update block.
+     * @return The encoded appearance block, {@code null} if it needs to be encoded again.
      */
-    public ByteMessage getCachedBlock() {
-        return cachedBlock;
+    public ByteMessage getCachedAppearance() {
+        return cachedAppearance.get();
     }
 
     /**
-     * Sets the cached update block.
+     * Attempts to cache {@code appearance}. If another thread has already cached an appearance block, that block
+     * is returned instead and {@code appearance} is left untouched. Otherwise a reference to {@code appearance} is
+     * retained and it is returned.
      */
-    public void setCachedBlock(ByteMessage newMsg) {
-
-        /* Release reference to old cached block. */
-        if (cachedBlock != null) {
-            cachedBlock.release();
+    public ByteMessage setCachedAppearance(ByteMessage appearance) {
+        appearance.retain();
+        if (cachedAppearance.compareAndSet(null, appearance)) {
+            return appearance;
         }
-
-        /* Retain a reference to new cached block.. */
-        if (newMsg != null) {
-            newMsg.retain();
-        }
-
-        cachedBlock = newMsg;
+        appearance.release();
+        return cachedAppearance.get();
     }
 
     /**
@@ -693,7 +739,7 @@ public final class Player extends Mob {
      */
     public void setPrayerIcon(PrayerIcon prayerIcon) {
         this.prayerIcon = prayerIcon;
-        updateFlags.flag(UpdateFlag.APPEARANCE);
+        flagAppearance();
     }
 
     /**
@@ -708,6 +754,56 @@ public final class Player extends Mob {
      */
     public void setSkullIcon(SkullIcon skullIcon) {
         this.skullIcon = skullIcon;
-        updateFlags.flag(UpdateFlag.APPEARANCE);
+        flagAppearance();
+    }
+
+    /**
+     * Marks {@code section} as changed since the last snapshot.
+     */
+    public void markDirty(SaveSection section) {
+        dirtySections |= section.getMask();
+    }
+
+    /**
+     * @return {@code true} if any section changed since the last snapshot.
+     */
+    public boolean isDirty() {
+        return dirtySections != 0;
+    }
+
+    /**
+     * @return The mask of sections changed since the last snapshot.
+     */
+    int getDirtySections() {
+        return dirtySections;
+    }
+
+    /**
+     * @return The last snapshot of persistent data.
+     */
+    PlayerData getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    /**
+     * Sets the last snapshot of persistent data, and marks every section as unchanged since.
+     */
+    void setLastSnapshot(PlayerData lastSnapshot) {
+        this.lastSnapshot = lastSnapshot;
+        dirtySections = 0;
+    }
+
+    /**
+     * @return When the position was last journaled.
+     */
+    long getPositionCheckpoint() {
+        return positionCheckpoint;
+    }
+
+    /**
+     * Sets when the position was last journaled.
+     */
+    void setPositionCheckpoint(long positionCheckpoint) {
+        this.positionCheckpoint = positionCheckpoint;
     }
 }
@@ -204,10 +204,18 @@ public final class PlayerAppearance {
      */
     private final int[] appearance = new int[13];
 
+    /**
+     * Invoked whenever the appearance values change.
+     */
+    private final Runnable listener;
+
     /**
      * Creates a new {@link PlayerAppearance}.
+     *
+     * @param listener Invoked whenever the appearance values change.
      */
-    public PlayerAppearance() {
+    public PlayerAppearance(Runnable listener) {
+        this.listener = listener;
 
         /* Populate the appearance array with the default values. */
         for (int index = 0; index < appearance.length; index++) {
@@ -228,6 +236,7 @@ public final class PlayerAppearance {
     public void set(int id, int value) {
         checkArgument(isAnyValid(id, get(GENDER), value), "invalid id and value pair");
         appearance[id] = value;
+        listener.run();
     }
 
     /**
@@ -250,6 +259,7 @@ public final class PlayerAppearance {
     public void setValues(int[] newValues) {
         checkArgument(isAllValid(newValues), "invalid appearance array");
         System.arraycopy(newValues, 0, appearance, 0, 13);
+        listener.run();
     }
 
     /**
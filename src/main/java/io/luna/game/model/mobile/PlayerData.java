@@ -0,0 +1,256 @@
+package io.luna.game.model.mobile;
+
+import io.luna.game.model.item.IndexedItem;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A model representing a snapshot of a player's persistent data. Snapshots are taken on the game thread and hold no
+ * references to the player, so they can be encoded and written from any thread.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerData {
+
+    /**
+     * The last journal sequence reflected in this snapshot.
+     */
+    private long journalSequence;
+
+    /**
+     * The password.
+     */
+    private String password;
+
+    /**
+     * The x coordinate.
+     */
+    private int x;
+
+    /**
+     * The y coordinate.
+     */
+    private int y;
+
+    /**
+     * The z coordinate.
+     */
+    private int z;
+
+    /**
+     * The authority level.
+     */
+    private PlayerRights rights = PlayerRights.PLAYER;
+
+    /**
+     * If running is enabled.
+     */
+    private boolean running;
+
+    /**
+     * The appearance values.
+     */
+    private int[] appearance;
+
+    /**
+     * The inventory items.
+     */
+    private IndexedItem[] inventory = new IndexedItem[0];
+
+    /**
+     * The bank items.
+     */
+    private IndexedItem[] bank = new IndexedItem[0];
+
+    /**
+     * The equipment items.
+     */
+    private IndexedItem[] equipment = new IndexedItem[0];
+
+    /**
+     * The dynamic skill levels.
+     */
+    private int[] levels;
+
+    /**
+     * The skill experience.
+     */
+    private double[] experience;
+
+    /**
+     * The persistent attribute values, by name. Values are always a boxed primitive or a {@code String}.
+     */
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    /**
+     * @return The last journal sequence reflected in this snapshot.
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    /**
+     * Sets the last journal sequence reflected in this snapshot.
+     */
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    /**
+     * @return The password.
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Sets the password.
+     */
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * @return The x coordinate.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return The y coordinate.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return The z coordinate.
+     */
+    public int getZ() {
+        return z;
+    }
+
+    /**
+     * Sets the coordinates.
+     */
+    public void setPosition(int x, int y, int z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * @return The authority level.
+     */
+    public PlayerRights getRights() {
+        return rights;
+    }
+
+    /**
+     * Sets the authority level.
+     */
+    public void setRights(PlayerRights rights) {
+        this.rights = rights;
+    }
+
+    /**
+     * @return {@code true} if running is enabled.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Sets if running is enabled.
+     */
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    /**
+     * @return The appearance values.
+     */
+    public int[] getAppearance() {
+        return appearance;
+    }
+
+    /**
+     * Sets the appearance values.
+     */
+    public void setAppearance(int[] appearance) {
+        this.appearance = appearance;
+    }
+
+    /**
+     * @return The inventory items.
+     */
+    public IndexedItem[] getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Sets the inventory items.
+     */
+    public void setInventory(IndexedItem[] inventory) {
+        this.inventory = inventory;
+    }
+
+    /**
+     * @return The bank items.
+     */
+    public IndexedItem[] getBank() {
+        return bank;
+    }
+
+    /**
+     * Sets the bank items.
+     */
+    public void setBank(IndexedItem[] bank) {
+        this.bank = bank;
+    }
+
+    /**
+     * @return The equipment items.
+     */
+    public IndexedItem[] getEquipment() {
+        return equipment;
+    }
+
+    /**
+     * Sets the equipment items.
+     */
+    public void setEquipment(IndexedItem[] equipment) {
+        this.equipment = equipment;
+    }
+
+    /**
+     * @return The dynamic skill levels.
+     */
+    public int[] getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return The skill experience.
+     */
+    public double[] getExperience() {
+        return experience;
+    }
+
+    /**
+     * Sets the dynamic skill levels and experience.
+     */
+    public void setSkills(int[] levels, double[] experience) {
+        this.levels = levels;
+        this.experience = experience;
+    }
+
+    /**
+     * @return The persistent attribute values, by name.
+     */
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+}
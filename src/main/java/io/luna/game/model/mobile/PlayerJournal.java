@@ -0,0 +1,700 @@
+package io.luna.game.model.mobile;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.luna.game.model.EntityState;
+import io.luna.game.model.Position;
+import io.luna.game.model.item.IndexedItem;
+import io.luna.game.model.item.Item;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A model that journals changes to persistent player data between saves, so they survive a crash. Changes are
+ * encoded on the game thread, handed to the journal thread once per tick, and appended to memory-mapped segment
+ * files that are forced to disk after every tick.
+ * <p>
+ * Every entry has a sequence number, and every save records the last sequence it reflects. A segment is deleted
+ * once every player in it has been saved past their last entry, and whatever is left when the server starts is
+ * replayed into the saves it's newer than. Leftover segments are replayed even if the journal has since been
+ * disabled, as saves written while it's disabled don't record a sequence and would otherwise be overwritten by them
+ * once it's enabled again.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerJournal {
+
+    /**
+     * A journal segment being written, or waiting to be deleted.
+     */
+    private static final class Segment {
+
+        /**
+         * The path.
+         */
+        private final Path path;
+
+        /**
+         * The mapped contents.
+         */
+        private final MappedByteBuffer buffer;
+
+        /**
+         * The last sequence of each player within this segment.
+         */
+        private final Map<String, Long> sequences = new HashMap<>();
+
+        /**
+         * Creates a new {@link Segment}.
+         *
+         * @param path The path.
+         * @param buffer The mapped contents.
+         */
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * The save of a player that entries are being replayed into.
+     */
+    private static final class Replay {
+
+        /**
+         * The save, {@code null} if the player has none.
+         */
+        private final PlayerData data;
+
+        /**
+         * The containers changed by replayed entries.
+         */
+        private final Map<SaveSection, TreeMap<Integer, Item>> containers = new EnumMap<>(SaveSection.class);
+
+        /**
+         * The amount of entries replayed.
+         */
+        private int replayed;
+
+        /**
+         * Creates a new {@link Replay}.
+         *
+         * @param data The save, {@code null} if the player has none.
+         */
+        private Replay(PlayerData data) {
+            this.data = data;
+        }
+
+        /**
+         * Replays the entry in {@code payload}, unless the save already reflects it.
+         */
+        private void apply(long sequence, ByteBuf payload) {
+            if (data == null || sequence <= data.getJournalSequence()) {
+                return;
+            }
+
+            int type = payload.readUnsignedByte();
+            switch (type) {
+            case SLOT:
+                SaveSection section = SaveSection.values()[payload.readUnsignedByte()];
+                int index = PlayerSaveFormat.readVarInt(payload);
+                int id = PlayerSaveFormat.readVarInt(payload) - 1;
+                int amount = PlayerSaveFormat.readVarInt(payload);
+                TreeMap<Integer, Item> items = containers.computeIfAbsent(section, it -> toMap(section));
+                if (id == -1) {
+                    items.remove(index);
+                } else {
+                    items.put(index, new Item(id, amount));
+                }
+                break;
+            case SKILL:
+                int skill = PlayerSaveFormat.readVarInt(payload);
+                data.getLevels()[skill] = PlayerSaveFormat.readVarInt(payload);
+                data.getExperience()[skill] = payload.readDouble();
+                break;
+            case POSITION:
+                data.setPosition(PlayerSaveFormat.readVarInt(payload), PlayerSaveFormat.readVarInt(payload),
+                    PlayerSaveFormat.unZigZag(PlayerSaveFormat.readVarInt(payload)));
+                break;
+            case ATTRIBUTE:
+                String name = PlayerSaveFormat.readString(payload);
+                data.getAttributes().put(name, PlayerSaveFormat.readAttribute(payload));
+                break;
+            default:
+                throw new IllegalStateException("invalid journal entry type " + type);
+            }
+            data.setJournalSequence(sequence);
+            replayed++;
+        }
+
+        /**
+         * Copies the items in {@code section} of the save into an index ordered map.
+         */
+        private TreeMap<Integer, Item> toMap(SaveSection section) {
+            TreeMap<Integer, Item> items = new TreeMap<>();
+            for (IndexedItem item : getItems(section)) {
+                items.put(item.getIndex(), item.getItem());
+            }
+            return items;
+        }
+
+        /**
+         * Copies every changed container back into the save.
+         */
+        private void applyContainers() {
+            for (Entry<SaveSection, TreeMap<Integer, Item>> entry : containers.entrySet()) {
+                IndexedItem[] items = entry.getValue().entrySet().stream()
+                    .map(it -> new IndexedItem(it.getKey(), it.getValue())).toArray(IndexedItem[]::new);
+                switch (entry.getKey()) {
+                case INVENTORY:
+                    data.setInventory(items);
+                    break;
+                case BANK:
+                    data.setBank(items);
+                    break;
+                case EQUIPMENT:
+                    data.setEquipment(items);
+                    break;
+                default:
+                    throw new IllegalStateException("invalid container section " + entry.getKey());
+                }
+            }
+        }
+
+        /**
+         * Retrieves the items of the save in {@code section}.
+         */
+        private IndexedItem[] getItems(SaveSection section) {
+            switch (section) {
+            case INVENTORY:
+                return data.getInventory();
+            case BANK:
+                return data.getBank();
+            case EQUIPMENT:
+                return data.getEquipment();
+            default:
+                throw new IllegalStateException("invalid container section " + section);
+            }
+        }
+    }
+
+    /**
+     * The journal thread, appending the entries of each tick and deleting segments that are no longer needed.
+     */
+    private final class Writer implements Runnable {
+
+        @Override
+        public void run() {
+            for (; ; ) {
+                try {
+                    ByteBuf batch = queue.take();
+                    if (batch == CLOSE) {
+                        current.buffer.force();
+                        closed.add(current);
+                        compact();
+                        return;
+                    }
+                    try {
+                        append(batch);
+                    } finally {
+                        batch.release();
+                    }
+
+                    if (queue.isEmpty()) {
+                        current.buffer.force();
+                    }
+                    if (++batches % COMPACT_BATCHES == 0) {
+                        compact();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    LOGGER.catching(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Handed to the journal thread to stop it, once everything before it has been appended.
+     */
+    private static final ByteBuf CLOSE = Unpooled.EMPTY_BUFFER;
+
+    /**
+     * The magic number at the start of every segment.
+     */
+    private static final int MAGIC = 0x4C4A4E4C;
+
+    /**
+     * The default size of every segment.
+     */
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The size of an entry header, the payload length followed by the payload checksum.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The amount of ticks between checks for segments that can be deleted.
+     */
+    private static final int COMPACT_BATCHES = 100;
+
+    /**
+     * The least amount of time between position checkpoints of a player.
+     */
+    private static final long CHECKPOINT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * The entry type of a container slot change.
+     */
+    private static final int SLOT = 0;
+
+    /**
+     * The entry type of a skill change.
+     */
+    private static final int SKILL = 1;
+
+    /**
+     * The entry type of a position checkpoint.
+     */
+    private static final int POSITION = 2;
+
+    /**
+     * The entry type of a persistent attribute change.
+     */
+    private static final int ATTRIBUTE = 3;
+
+    /**
+     * The storage that entries are replayed into.
+     */
+    private final PlayerStorage storage;
+
+    /**
+     * The directory containing journal segments.
+     */
+    private final Path directory;
+
+    /**
+     * If changes are journaled.
+     */
+    private final boolean enabled;
+
+    /**
+     * The size of every segment.
+     */
+    private final int segmentSize;
+
+    /**
+     * The batches of entries waiting for the journal thread.
+     */
+    private final BlockingQueue<ByteBuf> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * The last sequence reflected in a written save of each player, by username.
+     */
+    private final ConcurrentHashMap<String, Long> saved = new ConcurrentHashMap<>();
+
+    /**
+     * The checksum of entries being encoded. Only used on the game thread.
+     */
+    private final CRC32 checksum = new CRC32();
+
+    /**
+     * The last sequence given to an entry. Only used on the game thread.
+     */
+    private long sequence;
+
+    /**
+     * The entries of the current tick, {@code null} if there are none. Only used on the game thread.
+     */
+    private ByteBuf batch;
+
+    /**
+     * The start of the entry being encoded. Only used on the game thread.
+     */
+    private int entryStart;
+
+    /**
+     * The segments that are full, oldest first. Only used on the journal thread.
+     */
+    private final Deque<Segment> closed = new ArrayDeque<>();
+
+    /**
+     * The segment being written. Only used on the journal thread.
+     */
+    private Segment current;
+
+    /**
+     * The identifier of the last segment created. Only used on the journal thread.
+     */
+    private long segmentId;
+
+    /**
+     * The amount of batches appended. Only used on the journal thread.
+     */
+    private long batches;
+
+    /**
+     * The journal thread, {@code null} if it isn't running.
+     */
+    private Thread thread;
+
+    /**
+     * Creates a new {@link PlayerJournal}.
+     *
+     * @param storage The storage that entries are replayed into.
+     * @param directory The directory containing journal segments.
+     * @param enabled If changes are journaled.
+     */
+    public PlayerJournal(PlayerStorage storage, Path directory, boolean enabled) {
+        this(storage, directory, enabled, SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new {@link PlayerJournal}.
+     *
+     * @param storage The storage that entries are replayed into.
+     * @param directory The directory containing journal segments.
+     * @param enabled If changes are journaled.
+     * @param segmentSize The size of every segment.
+     */
+    PlayerJournal(PlayerStorage storage, Path directory, boolean enabled, int segmentSize) {
+        this.storage = storage;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Replays what is left of the journal from the last run, then starts the journal thread if the journal is
+     * enabled.
+     */
+    public void start() throws IOException {
+        long lastSequence = Files.isDirectory(directory) ? replay() : 0;
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+
+        // Sequences continue from wall clock time, so they're always newer than those recorded in existing saves.
+        sequence = Math.max(lastSequence, TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+        rotate();
+
+        thread = new ThreadFactoryBuilder().setNameFormat("LunaJournalThread").setDaemon(true).build()
+            .newThread(new Writer());
+        thread.start();
+    }
+
+    /**
+     * Appends every batch handed to the journal thread so far, deletes the segments whose players have all been
+     * saved, then stops it. Does nothing if the journal thread isn't running.
+     */
+    public void close() throws InterruptedException {
+        if (thread != null) {
+            queue.add(CLOSE);
+            thread.join();
+            thread = null;
+        }
+    }
+
+    /**
+     * Journals a change to the item on {@code index} of a container, {@code null} if it was removed.
+     */
+    public void slotChanged(Player player, SaveSection section, int index, Item item) {
+        if (isJournaling(player)) {
+            slotChanged(player.getUsername(), section, index, item);
+        }
+    }
+
+    /**
+     * Journals a change to the level or experience of {@code skill}.
+     */
+    public void skillChanged(Player player, Skill skill) {
+        if (isJournaling(player)) {
+            skillChanged(player.getUsername(), skill.getId(), skill.getLevel(), skill.getExperience());
+        }
+    }
+
+    /**
+     * Journals a change to the persistent attribute {@code name}.
+     */
+    public void attributeChanged(Player player, String name, Object value) {
+        if (isJournaling(player)) {
+            attributeChanged(player.getUsername(), name, value);
+        }
+    }
+
+    /**
+     * Journals the position of {@code player}, if enough time has passed since it was last journaled.
+     */
+    public void positionChanged(Player player) {
+        if (isJournaling(player)) {
+            long now = System.nanoTime();
+            if (now - player.getPositionCheckpoint() < CHECKPOINT_NANOS) {
+                return;
+            }
+            player.setPositionCheckpoint(now);
+            positionChanged(player.getUsername(), player.getPosition());
+        }
+    }
+
+    /**
+     * Hands the entries of this tick to the journal thread. Invoked by the game thread at the end of every tick.
+     */
+    public void flush() {
+        if (batch != null) {
+            queue.add(batch);
+            batch = null;
+        }
+    }
+
+    /**
+     * Records that a save of {@code username} reflecting every entry up to {@code sequence} was written.
+     */
+    public void saved(String username, long sequence) {
+        if (enabled) {
+            saved.merge(username, sequence, Math::max);
+        }
+    }
+
+    /**
+     * @return The last sequence given to an entry. Snapshots taken on the game thread reflect every entry up to it.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Journals a change to the item on {@code index} of a container of {@code username}.
+     */
+    void slotChanged(String username, SaveSection section, int index, Item item) {
+        ByteBuf buf = begin(username, SLOT);
+        buf.writeByte(section.ordinal());
+        PlayerSaveFormat.writeVarInt(buf, index);
+        PlayerSaveFormat.writeVarInt(buf, item == null ? 0 : item.getId() + 1);
+        PlayerSaveFormat.writeVarInt(buf, item == null ? 0 : item.getAmount());
+        end();
+    }
+
+    /**
+     * Journals a change to the level or experience of skill {@code id} of {@code username}.
+     */
+    void skillChanged(String username, int id, int level, double experience) {
+        ByteBuf buf = begin(username, SKILL);
+        PlayerSaveFormat.writeVarInt(buf, id);
+        PlayerSaveFormat.writeVarInt(buf, level);
+        buf.writeDouble(experience);
+        end();
+    }
+
+    /**
+     * Journals a change to the persistent attribute {@code name} of {@code username}.
+     */
+    void attributeChanged(String username, String name, Object value) {
+        ByteBuf buf = begin(username, ATTRIBUTE);
+        PlayerSaveFormat.writeString(buf, name);
+        PlayerSaveFormat.writeAttribute(buf, value);
+        end();
+    }
+
+    /**
+     * Journals the position of {@code username}.
+     */
+    void positionChanged(String username, Position position) {
+        ByteBuf buf = begin(username, POSITION);
+        PlayerSaveFormat.writeVarInt(buf, position.getX());
+        PlayerSaveFormat.writeVarInt(buf, position.getY());
+        PlayerSaveFormat.writeVarInt(buf, PlayerSaveFormat.zigZag(position.getZ()));
+        end();
+    }
+
+    /**
+     * Determines if changes to {@code player} are journaled.
+     */
+    private boolean isJournaling(Player player) {
+        return enabled && player.getState() == EntityState.ACTIVE;
+    }
+
+    /**
+     * Starts encoding an entry of {@code type} for {@code username}.
+     */
+    private ByteBuf begin(String username, int type) {
+        if (batch == null) {
+            batch = Unpooled.buffer(4096);
+        }
+        entryStart = batch.writerIndex();
+        batch.writeZero(HEADER_SIZE);
+        batch.writeLong(++sequence);
+        PlayerSaveFormat.writeString(batch, username);
+        batch.writeByte(type);
+        return batch;
+    }
+
+    /**
+     * Finishes encoding the current entry by filling in its header.
+     */
+    private void end() {
+        int length = batch.writerIndex() - entryStart - HEADER_SIZE;
+        checksum.reset();
+        checksum.update(batch.nioBuffer(entryStart + HEADER_SIZE, length));
+        batch.setInt(entryStart, length);
+        batch.setInt(entryStart + 4, (int) checksum.getValue());
+    }
+
+    /**
+     * Appends {@code entries} to the current segment, creating new segments as they fill up.
+     */
+    private void append(ByteBuf entries) throws IOException {
+        while (entries.isReadable()) {
+            int start = entries.readerIndex();
+            int size = HEADER_SIZE + entries.getInt(start);
+            if (current.buffer.remaining() < size) {
+                rotate();
+            }
+
+            long sequence = entries.skipBytes(HEADER_SIZE).readLong();
+            current.sequences.put(PlayerSaveFormat.readString(entries), sequence);
+            current.buffer.put(entries.nioBuffer(start, size));
+            entries.readerIndex(start + size);
+        }
+    }
+
+    /**
+     * Closes the current segment, if any, and starts a new one.
+     */
+    private void rotate() throws IOException {
+        if (current != null) {
+            current.buffer.force();
+            closed.add(current);
+        }
+
+        Path path = directory.resolve(String.format("%016d.log", ++segmentId));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            current = new Segment(path, channel.map(MapMode.READ_WRITE, 0, segmentSize));
+        }
+        current.buffer.putInt(MAGIC);
+    }
+
+    /**
+     * Deletes full segments whose players have all been saved past their last entry.
+     */
+    private void compact() throws IOException {
+        for (Segment segment : new ArrayList<>(closed)) {
+            if (segment.sequences.entrySet().stream()
+                .allMatch(it -> saved.getOrDefault(it.getKey(), 0L) >= it.getValue())) {
+                Files.deleteIfExists(segment.path);
+                closed.remove(segment);
+            }
+        }
+        saved.keySet().removeIf(it -> !current.sequences.containsKey(it) &&
+            closed.stream().noneMatch(segment -> segment.sequences.containsKey(it)));
+    }
+
+    /**
+     * Replays every segment into the saves it's newer than, then deletes them. Returns the last sequence found.
+     */
+    private long replay() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(it -> it.toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+        if (segments.isEmpty()) {
+            return 0;
+        }
+
+        long lastSequence = 0;
+        Map<String, Replay> players = new HashMap<>();
+        for (Path segment : segments) {
+            ByteBuf buf = Unpooled.wrappedBuffer(Files.readAllBytes(segment));
+            if (buf.readableBytes() < 4 || buf.readInt() != MAGIC) {
+                LOGGER.warn("Skipping journal segment {} with an invalid header.", segment);
+                continue;
+            }
+
+            while (buf.readableBytes() >= HEADER_SIZE) {
+                int length = buf.readInt();
+                int expected = buf.readInt();
+                if (length <= 0 || length > buf.readableBytes()) {
+                    break;
+                }
+
+                // Entries past a checksum mismatch were never completely written.
+                checksum.reset();
+                checksum.update(buf.nioBuffer(buf.readerIndex(), length));
+                if ((int) checksum.getValue() != expected) {
+                    break;
+                }
+
+                ByteBuf payload = buf.readSlice(length);
+                long sequence = payload.readLong();
+                String username = PlayerSaveFormat.readString(payload);
+                players.computeIfAbsent(username, this::loadReplay).apply(sequence, payload);
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+        }
+
+        int replayed = 0;
+        for (Entry<String, Replay> entry : players.entrySet()) {
+            Replay replay = entry.getValue();
+            if (replay.replayed > 0) {
+                replay.applyContainers();
+                storage.save(entry.getKey(), replay.data);
+                replayed += replay.replayed;
+            }
+        }
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+
+        LOGGER.info("Replayed {} journal entries into player saves.", replayed);
+        return lastSequence;
+    }
+
+    /**
+     * Loads the save of {@code username} for replaying entries into.
+     */
+    private Replay loadReplay(String username) {
+        try {
+            PlayerData data = storage.load(username);
+            if (data == null) {
+                LOGGER.warn("Skipping journal entries of {}, who has no save.", username);
+            }
+            return new Replay(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.luna.game.model.mobile;
+
+import io.luna.LunaConstants;
+import io.luna.util.GsonUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A debugging tool that prints binary player saves in the legacy JSON format. The output can be renamed to {@code
+ * <username>.json} and placed in the saved players directory, in place of the binary save, to be migrated back on
+ * the next login.
+ * <p>
+ * Saves are either read from {@code .bin} files, or loaded by username from the configured {@link PlayerStorage},
+ * which is the only way to reach them when it's {@link PlayerStorageType#STORE}. The server should be offline when
+ * loading by username, as the storage is opened the same way it is on startup.
+ * <p>
+ * Usage: {@code PlayerSaveExporter <path to .bin file>...} or {@code PlayerSaveExporter --users <username>...}
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerSaveExporter {
+
+    /**
+     * The argument that selects loading saves by username.
+     */
+    private static final String USERS = "--users";
+
+    /**
+     * Prints each argued save as JSON.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || (args[0].equals(USERS) && args.length == 1)) {
+            System.err.println("Usage: PlayerSaveExporter <path to .bin file>...");
+            System.err.println("       PlayerSaveExporter " + USERS + " <username>...");
+            System.exit(1);
+        }
+
+        if (args[0].equals(USERS)) {
+            exportUsers(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            for (String arg : args) {
+                Path path = Paths.get(arg);
+                print(PlayerSaveFormat.read(path));
+            }
+        }
+    }
+
+    /**
+     * Prints the save of each of {@code usernames}, loaded from the configured storage.
+     */
+    private static void exportUsers(String[] usernames) throws Exception {
+        PlayerStorage storage = LunaConstants.PLAYER_STORAGE.newStorage();
+        storage.open();
+        try {
+            for (String username : usernames) {
+                PlayerData data = storage.load(username);
+                if (data == null) {
+                    System.err.println(username + " has no save.");
+                } else {
+                    print(data);
+                }
+            }
+        } finally {
+            storage.close();
+        }
+    }
+
+    /**
+     * Prints {@code data} as JSON.
+     */
+    private static void print(PlayerData data) {
+        System.out.println(GsonUtils.GSON.toJson(PlayerSaveFormat.toJson(data)));
+    }
+
+    /**
+     * A private constructor to discourage external instantiation.
+     */
+    private PlayerSaveExporter() {
+    }
+}
@@ -0,0 +1,483 @@
+package io.luna.game.model.mobile;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.luna.game.model.item.IndexedItem;
+import io.luna.game.model.item.Item;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.luna.util.GsonUtils.getAsType;
+import static io.luna.util.GsonUtils.toJsonTree;
+
+/**
+ * A utility class that converts {@link PlayerData} to and from the binary save format, and to and from the legacy
+ * JSON save format.
+ * <p>
+ * Binary saves start with a magic number, a version, and the last {@link PlayerJournal} sequence reflected in the
+ * save, followed by the data in a fixed order. Integers are written as variable length quantities, container items
+ * as the gap since the previous index followed by the identifier and amount, skills as an array of levels followed
+ * by an array of experience, and attributes as a name, a type tag, and a value.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerSaveFormat {
+
+    /**
+     * The magic number binary saves start with, {@code "LUNA"}.
+     */
+    public static final int MAGIC = 0x4C554E41;
+
+    /**
+     * The current version of the binary save format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The tag for {@code Boolean} attributes.
+     */
+    private static final int TAG_BOOLEAN = 0;
+
+    /**
+     * The tag for {@code Integer} attributes.
+     */
+    private static final int TAG_INTEGER = 1;
+
+    /**
+     * The tag for {@code Long} attributes.
+     */
+    private static final int TAG_LONG = 2;
+
+    /**
+     * The tag for {@code Double} attributes.
+     */
+    private static final int TAG_DOUBLE = 3;
+
+    /**
+     * The tag for {@code String} attributes.
+     */
+    private static final int TAG_STRING = 4;
+
+    /**
+     * Encodes {@code data} in the binary save format. Ownership of the returned buffer passes to the caller.
+     */
+    public static ByteBuf encode(PlayerData data) {
+        ByteBuf buf = Unpooled.buffer(512);
+        buf.writeInt(MAGIC);
+        buf.writeByte(VERSION);
+        writeVarLong(buf, data.getJournalSequence());
+
+        writeString(buf, data.getPassword());
+        writeVarInt(buf, data.getX());
+        writeVarInt(buf, data.getY());
+        writeVarInt(buf, zigZag(data.getZ()));
+        writeString(buf, data.getRights().name());
+        buf.writeBoolean(data.isRunning());
+
+        int[] appearance = data.getAppearance();
+        writeVarInt(buf, appearance.length);
+        for (int value : appearance) {
+            writeVarInt(buf, value);
+        }
+
+        writeItems(buf, data.getInventory());
+        writeItems(buf, data.getBank());
+        writeItems(buf, data.getEquipment());
+
+        int[] levels = data.getLevels();
+        double[] experience = data.getExperience();
+        writeVarInt(buf, levels.length);
+        for (int level : levels) {
+            writeVarInt(buf, level);
+        }
+        for (double value : experience) {
+            buf.writeDouble(value);
+        }
+
+        Map<String, Object> attributes = data.getAttributes();
+        writeVarInt(buf, attributes.size());
+        for (Entry<String, Object> it : attributes.entrySet()) {
+            writeString(buf, it.getKey());
+            writeAttribute(buf, it.getValue());
+        }
+        return buf;
+    }
+
+    /**
+     * Decodes data in the binary save format.
+     */
+    public static PlayerData decode(ByteBuf buf) {
+        checkState(buf.readInt() == MAGIC, "not a binary player save");
+        int version = buf.readUnsignedByte();
+        checkState(version <= VERSION, "unsupported save version " + version);
+
+        PlayerData data = new PlayerData();
+        data.setJournalSequence(readVarLong(buf));
+        data.setPassword(readString(buf));
+        data.setPosition(readVarInt(buf), readVarInt(buf), unZigZag(readVarInt(buf)));
+        data.setRights(PlayerRights.valueOf(readString(buf)));
+        data.setRunning(buf.readBoolean());
+
+        int[] appearance = new int[readVarInt(buf)];
+        for (int index = 0; index < appearance.length; index++) {
+            appearance[index] = readVarInt(buf);
+        }
+        data.setAppearance(appearance);
+
+        data.setInventory(readItems(buf));
+        data.setBank(readItems(buf));
+        data.setEquipment(readItems(buf));
+
+        int count = readVarInt(buf);
+        int[] levels = new int[count];
+        double[] experience = new double[count];
+        for (int index = 0; index < count; index++) {
+            levels[index] = readVarInt(buf);
+        }
+        for (int index = 0; index < count; index++) {
+            experience[index] = buf.readDouble();
+        }
+        data.setSkills(levels, experience);
+
+        count = readVarInt(buf);
+        for (int index = 0; index < count; index++) {
+            String name = readString(buf).intern();
+            data.getAttributes().put(name, readAttribute(buf));
+        }
+        return data;
+    }
+
+    /**
+     * Converts {@code data} to the legacy JSON save format.
+     */
+    public static JsonObject toJson(PlayerData data) {
+        JsonObject tokens = new JsonObject();
+        tokens.addProperty("password", data.getPassword());
+
+        JsonObject position = new JsonObject();
+        position.addProperty("x", data.getX());
+        position.addProperty("y", data.getY());
+        position.addProperty("z", data.getZ());
+        tokens.add("position", position);
+
+        tokens.addProperty("rights", data.getRights().name());
+        tokens.addProperty("running", data.isRunning());
+        tokens.add("appearance", toJsonTree(data.getAppearance()));
+        tokens.add("inventory", toJsonTree(data.getInventory()));
+        tokens.add("bank", toJsonTree(data.getBank()));
+        tokens.add("equipment", toJsonTree(data.getEquipment()));
+
+        JsonArray skills = new JsonArray();
+        int[] levels = data.getLevels();
+        double[] experience = data.getExperience();
+        for (int index = 0; index < levels.length; index++) {
+            JsonObject skill = new JsonObject();
+            skill.addProperty("level", levels[index]);
+            skill.addProperty("experience", experience[index]);
+            skills.add(skill);
+        }
+        tokens.add("skills", skills);
+
+        JsonObject attributes = new JsonObject();
+        for (Entry<String, Object> it : data.getAttributes().entrySet()) {
+            JsonObject attribute = new JsonObject();
+            attribute.addProperty("type", it.getValue().getClass().getName());
+            attribute.add("value", toJsonTree(it.getValue()));
+            attributes.add(it.getKey(), attribute);
+        }
+        tokens.add("attributes", attributes);
+        return tokens;
+    }
+
+    /**
+     * Converts data in the legacy JSON save format.
+     */
+    public static PlayerData fromJson(JsonObject tokens) {
+        PlayerData data = new PlayerData();
+        data.setPassword(tokens.get("password").getAsString());
+
+        JsonObject position = tokens.get("position").getAsJsonObject();
+        data.setPosition(position.get("x").getAsInt(), position.get("y").getAsInt(), position.get("z").getAsInt());
+
+        data.setRights(PlayerRights.valueOf(tokens.get("rights").getAsString()));
+        data.setRunning(tokens.get("running").getAsBoolean());
+        data.setAppearance(getAsType(tokens.get("appearance"), int[].class));
+        data.setInventory(getAsType(tokens.get("inventory"), IndexedItem[].class));
+        data.setBank(getAsType(tokens.get("bank"), IndexedItem[].class));
+        data.setEquipment(getAsType(tokens.get("equipment"), IndexedItem[].class));
+
+        JsonArray skills = tokens.get("skills").getAsJsonArray();
+        int[] levels = new int[skills.size()];
+        double[] experience = new double[skills.size()];
+        for (int index = 0; index < levels.length; index++) {
+            JsonObject skill = skills.get(index).getAsJsonObject();
+            levels[index] = skill.get("level").getAsInt();
+            experience[index] = skill.get("experience").getAsDouble();
+        }
+        data.setSkills(levels, experience);
+
+        for (Entry<String, JsonElement> it : tokens.get("attributes").getAsJsonObject().entrySet()) {
+            JsonObject attribute = it.getValue().getAsJsonObject();
+            String type = attribute.get("type").getAsString();
+            data.getAttributes().put(it.getKey().intern(), parseAttribute(type, attribute.get("value")));
+        }
+        return data;
+    }
+
+    /**
+     * Reads and decodes a binary save from {@code path}.
+     */
+    public static PlayerData read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) {
+                    throw new EOFException(path.toString());
+                }
+            }
+            return decode(Unpooled.wrappedBuffer(buffer.array()));
+        }
+    }
+
+    /**
+     * Encodes and writes {@code data} as a binary save to {@code path}, replacing any existing file. The save is
+     * written to a temporary file and forced to disk first, then moved over the existing file, so a crash never
+     * leaves a partially written save behind.
+     */
+    public static void write(PlayerData data, Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuf buf = encode(data);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = buf.nioBuffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } finally {
+            buf.release();
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes container items, skipping empty indexes.
+     */
+    private static void writeItems(ByteBuf buf, IndexedItem[] items) {
+        writeVarInt(buf, items.length);
+
+        int last = -1;
+        for (IndexedItem item : items) {
+            writeVarInt(buf, item.getIndex() - last - 1);
+            writeVarInt(buf, item.getId());
+            writeVarInt(buf, item.getAmount());
+            last = item.getIndex();
+        }
+    }
+
+    /**
+     * Reads container items written by {@link #writeItems(ByteBuf, IndexedItem[])}.
+     */
+    private static IndexedItem[] readItems(ByteBuf buf) {
+        IndexedItem[] items = new IndexedItem[readVarInt(buf)];
+
+        int last = -1;
+        for (int index = 0; index < items.length; index++) {
+            last += readVarInt(buf) + 1;
+            int id = readVarInt(buf);
+            int amount = readVarInt(buf);
+            items[index] = new IndexedItem(last, new Item(id, amount));
+        }
+        return items;
+    }
+
+    /**
+     * Writes a tagged attribute value.
+     */
+    static void writeAttribute(ByteBuf buf, Object value) {
+        if (value instanceof Boolean) {
+            buf.writeByte(TAG_BOOLEAN);
+            buf.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            buf.writeByte(TAG_INTEGER);
+            writeVarInt(buf, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            buf.writeByte(TAG_LONG);
+            writeVarLong(buf, zigZag((Long) value));
+        } else if (value instanceof Double) {
+            buf.writeByte(TAG_DOUBLE);
+            buf.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            buf.writeByte(TAG_STRING);
+            writeString(buf, (String) value);
+        } else {
+            throw new IllegalArgumentException("unsupported attribute type " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads a tagged attribute value.
+     */
+    static Object readAttribute(ByteBuf buf) {
+        int tag = buf.readUnsignedByte();
+        switch (tag) {
+        case TAG_BOOLEAN:
+            return buf.readBoolean();
+        case TAG_INTEGER:
+            return unZigZag(readVarInt(buf));
+        case TAG_LONG:
+            return unZigZag(readVarLong(buf));
+        case TAG_DOUBLE:
+            return buf.readDouble();
+        case TAG_STRING:
+            return readString(buf);
+        default:
+            throw new IllegalStateException("unknown attribute tag " + tag);
+        }
+    }
+
+    /**
+     * Parses a legacy JSON attribute value of the fully-qualified {@code type}.
+     */
+    private static Object parseAttribute(String type, JsonElement value) {
+        switch (type) {
+        case "java.lang.Boolean":
+            return value.getAsBoolean();
+        case "java.lang.Integer":
+            return value.getAsInt();
+        case "java.lang.Long":
+            return value.getAsLong();
+        case "java.lang.Double":
+            return value.getAsDouble();
+        case "java.lang.String":
+            return value.getAsString();
+        default:
+            throw new IllegalStateException("unsupported attribute type " + type);
+        }
+    }
+
+    /**
+     * Writes a length prefixed UTF-8 string.
+     */
+    static void writeString(ByteBuf buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buf, bytes.length);
+        buf.writeBytes(bytes);
+    }
+
+    /**
+     * Reads a length prefixed UTF-8 string.
+     */
+    static String readString(ByteBuf buf) {
+        int length = readVarInt(buf);
+        String value = buf.toString(buf.readerIndex(), length, StandardCharsets.UTF_8);
+        buf.skipBytes(length);
+        return value;
+    }
+
+    /**
+     * Writes an unsigned variable length {@code int}, 7 bits per byte.
+     */
+    static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & ~0x7f) != 0) {
+            buf.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    /**
+     * Reads an unsigned variable length {@code int}.
+     */
+    static int readVarInt(ByteBuf buf) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int next = buf.readUnsignedByte();
+            value |= (next & 0x7f) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed variable length int");
+    }
+
+    /**
+     * Writes an unsigned variable length {@code long}, 7 bits per byte.
+     */
+    static void writeVarLong(ByteBuf buf, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buf.writeByte((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte((int) value);
+    }
+
+    /**
+     * Reads an unsigned variable length {@code long}.
+     */
+    static long readVarLong(ByteBuf buf) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int next = buf.readUnsignedByte();
+            value |= (long) (next & 0x7f) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed variable length long");
+    }
+
+    /**
+     * Maps a signed {@code int} to an unsigned one, so small negative values stay small.
+     */
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Reverses {@link #zigZag(int)}.
+     */
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Maps a signed {@code long} to an unsigned one, so small negative values stay small.
+     */
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigZag(long)}.
+     */
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * A private constructor to discourage external instantiation.
+     */
+    private PlayerSaveFormat() {
+    }
+}
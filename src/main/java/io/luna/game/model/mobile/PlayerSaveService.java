@@ -0,0 +1,340 @@
+package io.luna.game.model.mobile;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.luna.LunaConstants;
+import io.luna.game.profile.RollingHistogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A model that writes player saves behind the game thread, on a small pool of save threads. Each player is always
+ * written by the same thread, and a save submitted while an older one is still waiting replaces it, so a player is
+ * written at most once per batch no matter how often they're saved.
+ * <p>
+ * Saves that don't fit within the queue are written on the submitting thread instead of being dropped.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerSaveService implements PlayerSaveServiceMXBean {
+
+    /**
+     * A save that hasn't been written yet.
+     */
+    private static final class PendingSave {
+
+        /**
+         * The data to write.
+         */
+        private final PlayerData data;
+
+        /**
+         * When the save was submitted.
+         */
+        private final long submittedAt = System.nanoTime();
+
+        /**
+         * Creates a new {@link PendingSave}.
+         *
+         * @param data The data to write.
+         */
+        private PendingSave(PlayerData data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * A save thread, writing the players queued to it in batches.
+     */
+    private final class Writer implements Runnable {
+
+        /**
+         * The usernames of players waiting to be written.
+         */
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(LunaConstants.SAVE_QUEUE_SIZE);
+
+        /**
+         * The batch being written.
+         */
+        private final List<String> batch = new ArrayList<>(BATCH_SIZE);
+
+        @Override
+        public void run() {
+            for (; ; ) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    for (String username : batch) {
+                        write(username);
+                    }
+                    batches.incrementAndGet();
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The amount of recent save latencies kept.
+     */
+    private static final int WINDOW = 1000;
+
+    /**
+     * The most players a save thread writes before checking for new ones.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * How long to wait for pending saves to be written when the server shuts down.
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /**
+     * The saves that haven't been written yet, by username.
+     */
+    private final ConcurrentHashMap<String, PendingSave> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The save threads.
+     */
+    private final Writer[] writers = new Writer[LunaConstants.SAVE_THREADS];
+
+    /**
+     * Notified whenever the last pending save is written.
+     */
+    private final Object barrier = new Object();
+
+    /**
+     * The recent save latencies.
+     */
+    private final RollingHistogram latency = new RollingHistogram(WINDOW);
+
+    /**
+     * The amount of saves written.
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * The amount of saves merged into an older save.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * The amount of saves written on the submitting thread.
+     */
+    private final AtomicLong overflowed = new AtomicLong();
+
+    /**
+     * The amount of saves that failed.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * The amount of batches written.
+     */
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * The journal, told about every save written.
+     */
+    private final PlayerJournal journal;
+
+    /**
+     * The storage saves are written to.
+     */
+    private final PlayerStorage storage;
+
+    /**
+     * Creates a new {@link PlayerSaveService} and starts its save threads.
+     *
+     * @param journal The journal, told about every save written.
+     * @param storage The storage saves are written to.
+     */
+    public PlayerSaveService(PlayerJournal journal, PlayerStorage storage) {
+        this.journal = journal;
+        this.storage = storage;
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("LunaSaveThread").setDaemon(true)
+            .build();
+        for (int index = 0; index < writers.length; index++) {
+            writers[index] = new Writer();
+            threadFactory.newThread(writers[index]).start();
+        }
+    }
+
+    /**
+     * Registers this service with the platform MBean server.
+     */
+    public void registerMBean() throws Exception {
+        ManagementFactory.getPlatformMBeanServer()
+            .registerMBean(this, new ObjectName("io.luna:type=PlayerSaveService"));
+    }
+
+    /**
+     * Adds a shutdown hook that waits for pending saves to be written, and the journal to catch up, then closes the
+     * storage before the server exits.
+     */
+    public void addShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (!flush(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOGGER.fatal("{} player saves were not written before shutting down.", pending.size());
+                }
+                journal.close();
+                storage.close();
+            } catch (InterruptedException | IOException e) {
+                LOGGER.catching(e);
+            }
+        }, "LunaSaveShutdownThread"));
+    }
+
+    /**
+     * Queues {@code data} to be written for {@code username}, replacing any save of theirs that is still waiting.
+     */
+    public void submit(String username, PlayerData data) {
+        if (pending.put(username, new PendingSave(data)) != null) {
+            coalesced.incrementAndGet();
+            return;
+        }
+
+        Writer writer = writers[Math.floorMod(username.hashCode(), writers.length)];
+        if (!writer.queue.offer(username)) {
+            overflowed.incrementAndGet();
+            write(username);
+        }
+    }
+
+    /**
+     * Returns the save of {@code username} that hasn't been written yet, or {@code null} if there is none. Anything
+     * loading a player should prefer this over what is on disk.
+     */
+    public PlayerData getPending(String username) {
+        PendingSave save = pending.get(username);
+        return save == null ? null : save.data;
+    }
+
+    /**
+     * Waits until every pending save has been written, for at most {@code timeout}. Returns {@code false} if saves
+     * were still pending when it expired.
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (barrier) {
+            while (!pending.isEmpty()) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                barrier.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the pending save of {@code username}, and any that replace it while it's being written.
+     */
+    private void write(String username) {
+        PendingSave save = pending.get(username);
+        while (save != null) {
+            try {
+                storage.save(username, save.data);
+                journal.saved(username, save.data.getJournalSequence());
+                latency.record(System.nanoTime() - save.submittedAt);
+                written.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                LOGGER.catching(e);
+            }
+
+            if (pending.remove(username, save)) {
+                break;
+            }
+            save = pending.get(username);
+        }
+
+        if (pending.isEmpty()) {
+            synchronized (barrier) {
+                barrier.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public int getQueued() {
+        int queued = 0;
+        for (Writer writer : writers) {
+            queued += writer.queue.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public int getPending() {
+        return pending.size();
+    }
+
+    @Override
+    public long getWritten() {
+        return written.get();
+    }
+
+    @Override
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    @Override
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getP95Nanos() {
+        return latency.percentile(95);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.max();
+    }
+}
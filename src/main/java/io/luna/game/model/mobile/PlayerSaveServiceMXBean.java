@@ -0,0 +1,65 @@
+package io.luna.game.model.mobile;
+
+/**
+ * The management interface for player save metrics. Latencies are in nanoseconds, from a save being submitted to
+ * it being written, over the most recent saves.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface PlayerSaveServiceMXBean {
+
+    /**
+     * @return The amount of players waiting for a save thread.
+     */
+    int getQueued();
+
+    /**
+     * @return The amount of players with a save that hasn't been written yet.
+     */
+    int getPending();
+
+    /**
+     * @return The amount of saves written.
+     */
+    long getWritten();
+
+    /**
+     * @return The amount of saves merged into a save of the same player that hadn't been written yet.
+     */
+    long getCoalesced();
+
+    /**
+     * @return The amount of saves written on the submitting thread because the queue was full.
+     */
+    long getOverflowed();
+
+    /**
+     * @return The amount of saves that failed with an exception.
+     */
+    long getFailed();
+
+    /**
+     * @return The amount of batches written.
+     */
+    long getBatches();
+
+    /**
+     * @return The median save latency.
+     */
+    long getP50Nanos();
+
+    /**
+     * @return The 95th percentile of save latency.
+     */
+    long getP95Nanos();
+
+    /**
+     * @return The 99th percentile of save latency.
+     */
+    long getP99Nanos();
+
+    /**
+     * @return The largest save latency.
+     */
+    long getMaxNanos();
+}
@@ -1,32 +1,24 @@
 package io.luna.game.model.mobile;
 
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import io.luna.game.GameService;
 import io.luna.game.model.Position;
-import io.luna.game.model.item.IndexedItem;
 import io.luna.game.model.mobile.attr.AttributeKey;
 import io.luna.game.model.mobile.attr.AttributeValue;
 import io.luna.net.codec.login.LoginResponse;
-import io.luna.util.GsonUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.FileReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map.Entry;
-import java.util.concurrent.Callable;
-
-import static io.luna.util.GsonUtils.getAsType;
-import static io.luna.util.GsonUtils.toJsonTree;
 
 /**
- * A model containing functions that allow for synchronous and asynchronous player serialization.
+ * A model containing functions that allow for synchronous and asynchronous player serialization. Players are saved
+ * to the configured {@link PlayerStorage}, and legacy JSON saves are migrated to it the first time they're loaded.
  *
  * @author lare96 <http://github.org/lare96>
  */
@@ -38,7 +30,7 @@ public final class PlayerSerializer {
     private static final Logger LOGGER = LogManager.getLogger();
 
     /**
-     * The path to serialized player files.
+     * The path to legacy JSON serialized player files.
      */
     private static final Path FILE_DIR = Paths.get("./data/saved_players");
 
@@ -48,9 +40,14 @@ public final class PlayerSerializer {
     private final Player player;
 
     /**
-     * The path to the serialized file.
+     * The storage player saves are kept in.
+     */
+    private final PlayerStorage storage;
+
+    /**
+     * The path to the legacy JSON serialized file.
      */
-    private final Path path;
+    private final Path legacyPath;
 
     /**
      * Creates a new {@link PlayerSerializer}.
@@ -59,122 +56,160 @@ public final class PlayerSerializer {
      */
     public PlayerSerializer(Player player) {
         this.player = player;
-        path = FILE_DIR.resolve(player.getUsername() + ".json");
-    }
-
-    static { /* Initialize serialization directory. */
-        try {
-            if (Files.notExists(FILE_DIR)) {
-                Files.createDirectory(FILE_DIR);
-            }
-        } catch (Exception e) {
-            throw new ExceptionInInitializerError(e);
-        }
+        storage = player.getContext().getStorage();
+        legacyPath = FILE_DIR.resolve(player.getUsername() + ".json");
     }
 
     /**
-     * Serializes all persistent data.
+     * Takes a snapshot of all persistent data. Sections unchanged since the last snapshot are shared with it instead
+     * of being copied again. Must be called on the game thread.
      */
-    public void save() {
+    public PlayerData snapshot() {
+        PlayerData last = player.getLastSnapshot();
+        int dirty = last == null ? SaveSection.ALL : player.getDirtySections();
+
+        PlayerData data = new PlayerData();
+        data.setJournalSequence(player.getContext().getJournal().getSequence());
+        data.setPassword(player.getPassword());
+        data.setRights(player.getRights());
+        data.setRunning(player.getWalkingQueue().isRunning());
+        data.setAppearance(player.getAppearance().toArray());
+
+        if (SaveSection.POSITION.isSet(dirty)) {
+            Position position = player.getPosition();
+            data.setPosition(position.getX(), position.getY(), position.getZ());
+        } else {
+            data.setPosition(last.getX(), last.getY(), last.getZ());
+        }
 
-        /* Cache all main token tables. */
-        JsonObject tokens = new JsonObject();
-        tokens.addProperty("password", player.getPassword());
-        tokens.add("position", toJsonTree(player.getPosition()));
-        tokens.addProperty("rights", player.getRights().name());
-        tokens.addProperty("running", player.getWalkingQueue().isRunning());
-        tokens.add("appearance", toJsonTree(player.getAppearance().toArray()));
-        tokens.add("inventory", toJsonTree(player.getInventory().toIndexedArray()));
-        tokens.add("bank", toJsonTree(player.getBank().toIndexedArray()));
-        tokens.add("equipment", toJsonTree(player.getEquipment().toIndexedArray()));
-        tokens.add("skills", toJsonTree(player.getSkills().toArray()));
-
-        /* Cache all attribute tokens. */
-        JsonObject attributeTokens = new JsonObject();
-        for (Entry<String, AttributeValue<?>> it : player.getAttributes()) {
-            AttributeKey<?> key = AttributeKey.ALIASES.get(it.getKey());
-            AttributeValue<?> value = it.getValue();
-
-            if (key.isPersistent()) {
-                JsonObject attributeElementTokens = new JsonObject();
-                attributeElementTokens.addProperty("type", key.getTypeName());
-                attributeElementTokens.add("value", toJsonTree(value.get()));
-
-                attributeTokens.add(key.getName(), attributeElementTokens);
+        data.setInventory(SaveSection.INVENTORY.isSet(dirty) ? player.getInventory().toIndexedArray() :
+            last.getInventory());
+        data.setBank(SaveSection.BANK.isSet(dirty) ? player.getBank().toIndexedArray() : last.getBank());
+        data.setEquipment(SaveSection.EQUIPMENT.isSet(dirty) ? player.getEquipment().toIndexedArray() :
+            last.getEquipment());
+
+        if (SaveSection.SKILLS.isSet(dirty)) {
+            SkillSet skills = player.getSkills();
+            int[] levels = new int[SkillSet.size()];
+            double[] experience = new double[SkillSet.size()];
+            for (int index = 0; index < levels.length; index++) {
+                Skill skill = skills.getSkill(index);
+                levels[index] = skill.getLevel();
+                experience[index] = skill.getExperience();
             }
+            data.setSkills(levels, experience);
+        } else {
+            data.setSkills(last.getLevels(), last.getExperience());
         }
 
-        /* Serialize all tokens. */
-        tokens.add("attributes", attributeTokens);
-        try {
-            GsonUtils.writeJson(tokens, path.toFile());
-        } catch (Exception e) {
-            LOGGER.catching(e);
+        if (SaveSection.ATTRIBUTES.isSet(dirty)) {
+            for (Entry<String, AttributeValue<?>> it : player.getAttributes()) {
+                AttributeKey<?> key = AttributeKey.ALIASES.get(it.getKey());
+                if (key.isPersistent()) {
+                    data.getAttributes().put(key.getName(), it.getValue().get());
+                }
+            }
+        } else {
+            data.getAttributes().putAll(last.getAttributes());
         }
+
+        player.setLastSnapshot(data);
+        return data;
     }
 
     /**
-     * Asynchronously serializes all persistent data.
+     * Applies a snapshot of persistent data to the player.
      */
-    public ListenableFuture<Void> asyncSave(GameService service) {
-        return service.submit((Callable<Void>) () -> {
-            save();
-            return null;
-        });
+    public void apply(PlayerData data) {
+        player.setPosition(new Position(data.getX(), data.getY(), data.getZ()));
+        player.setRights(data.getRights());
+        player.getWalkingQueue().setRunning(data.isRunning());
+        player.getAppearance().setValues(data.getAppearance());
+        player.getInventory().setItems(data.getInventory());
+        player.getBank().setItems(data.getBank());
+        player.getEquipment().setItems(data.getEquipment());
+        player.getSkills().setSkills(data.getLevels(), data.getExperience());
+
+        for (Entry<String, Object> it : data.getAttributes().entrySet()) {
+            if (AttributeKey.ALIASES.containsKey(it.getKey())) {
+                player.getAttributes().get(it.getKey()).set(it.getValue());
+            } else {
+                LOGGER.warn("{} has an unknown attribute {}, discarding it.", player, it.getKey());
+            }
+        }
+        player.setLastSnapshot(data);
     }
 
     /**
-     * Deserializes all persistent data and verifies the password.
+     * Serializes all persistent data.
      */
-    public LoginResponse load(String expectedPassword) {
-        if (!Files.exists(path)) {
-            return LoginResponse.NORMAL;
-        }
+    public void save() {
+        write(snapshot());
+    }
 
-        try (Reader reader = new FileReader(path.toFile())) {
-            JsonObject jsonReader = (JsonObject) new JsonParser().parse(reader);
+    /**
+     * Queues all persistent data to be serialized by {@code service}. The snapshot is taken on the calling thread.
+     */
+    public void asyncSave(PlayerSaveService service) {
+        service.submit(player.getUsername(), snapshot());
+    }
 
-            String password = jsonReader.get("password").getAsString();
-            if (!expectedPassword.equals(password)) {
-                return LoginResponse.INVALID_CREDENTIALS;
+    /**
+     * Deserializes all persistent data and verifies the password. A save still waiting in {@code service} is used
+     * over the stored one. Legacy JSON saves are moved into storage, then deleted.
+     */
+    public LoginResponse load(PlayerSaveService service, String expectedPassword) {
+        boolean legacy = false;
+        PlayerData data;
+        try {
+            data = service.getPending(player.getUsername());
+            if (data == null) {
+                data = storage.load(player.getUsername());
             }
-
-            Position position = getAsType(jsonReader.get("position"), Position.class);
-            player.setPosition(position);
-
-            PlayerRights rights = PlayerRights.valueOf(jsonReader.get("rights").getAsString());
-            player.setRights(rights);
-
-            boolean running = jsonReader.get("running").getAsBoolean();
-            player.getWalkingQueue().setRunning(running);
-
-            int[] appearance = getAsType(jsonReader.get("appearance"), int[].class);
-            player.getAppearance().setValues(appearance);
-
-            IndexedItem[] inventory = getAsType(jsonReader.get("inventory"), IndexedItem[].class);
-            player.getInventory().setItems(inventory);
-
-            IndexedItem[] bank = getAsType(jsonReader.get("bank"), IndexedItem[].class);
-            player.getBank().setItems(bank);
-
-            IndexedItem[] equipment = getAsType(jsonReader.get("equipment"), IndexedItem[].class);
-            player.getEquipment().setItems(equipment);
-
-            Skill[] skills = getAsType(jsonReader.get("skills"), Skill[].class);
-            player.getSkills().setSkills(skills);
-
-            JsonObject attr = jsonReader.get("attributes").getAsJsonObject();
-            for (Entry<String, JsonElement> it : attr.entrySet()) {
-                JsonObject attrReader = it.getValue().getAsJsonObject();
-
-                Class<?> type = Class.forName(attrReader.get("type").getAsString());
-                Object data = getAsType(attrReader.get("value"), type);
-                player.getAttributes().get(it.getKey()).set(data);
+            if (data == null) {
+                if (!Files.exists(legacyPath)) {
+                    return LoginResponse.NORMAL;
+                }
+                legacy = true;
+                data = readLegacy();
             }
+            if (!expectedPassword.equals(data.getPassword())) {
+                return LoginResponse.INVALID_CREDENTIALS;
+            }
+            apply(data);
         } catch (Exception e) {
             LOGGER.catching(e);
             return LoginResponse.COULD_NOT_COMPLETE_LOGIN;
         }
+
+        if (legacy) {
+            try {
+                storage.save(player.getUsername(), data);
+                Files.delete(legacyPath);
+            } catch (Exception e) {
+                LOGGER.catching(e);
+            }
+        }
         return LoginResponse.NORMAL;
     }
+
+    /**
+     * Writes a snapshot of persistent data, logging any errors.
+     */
+    private void write(PlayerData data) {
+        try {
+            storage.save(player.getUsername(), data);
+        } catch (Exception e) {
+            LOGGER.catching(e);
+        }
+    }
+
+    /**
+     * Reads the legacy JSON serialized file.
+     */
+    private PlayerData readLegacy() throws Exception {
+        try (Reader reader = Files.newBufferedReader(legacyPath, StandardCharsets.UTF_8)) {
+            return PlayerSaveFormat.fromJson((JsonObject) new JsonParser().parse(reader));
+        }
+    }
 }
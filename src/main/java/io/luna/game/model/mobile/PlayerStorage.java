@@ -0,0 +1,39 @@
+package io.luna.game.model.mobile;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * A backend that player saves are read from and written to. Implementations must be safe to use from the login
+ * threads, save threads, and plugins at the same time.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface PlayerStorage {
+
+    /**
+     * Prepares this backend for use. Invoked once on startup, before anything is loaded or saved.
+     */
+    void open() throws IOException;
+
+    /**
+     * Loads the save of {@code username}, or returns {@code null} if they have none.
+     */
+    PlayerData load(String username) throws IOException;
+
+    /**
+     * Saves {@code data} for {@code username}, replacing any previous save.
+     */
+    void save(String username, PlayerData data) throws IOException;
+
+    /**
+     * Invokes {@code action} with the username and save of every player. Saves written during the scan may or may
+     * not be seen.
+     */
+    void forEach(BiConsumer<String, PlayerData> action) throws IOException;
+
+    /**
+     * Releases everything held by this backend. Invoked once on shutdown, after every save has been written.
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,42 @@
+package io.luna.game.model.mobile;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * An enumerated type whose elements represent the backends player saves can be kept in.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public enum PlayerStorageType {
+
+    /**
+     * One file per player, simple to inspect and edit by hand.
+     */
+    FILES {
+        @Override
+        public PlayerStorage newStorage() {
+            return new FilePlayerStorage(DIRECTORY);
+        }
+    },
+
+    /**
+     * A single append-only file with an in-memory index, for servers with a large amount of accounts.
+     */
+    STORE {
+        @Override
+        public PlayerStorage newStorage() {
+            return new StorePlayerStorage(DIRECTORY);
+        }
+    };
+
+    /**
+     * The directory player saves are kept in.
+     */
+    private static final Path DIRECTORY = Paths.get("./data/saved_players");
+
+    /**
+     * Creates a new, unopened backend of this type.
+     */
+    public abstract PlayerStorage newStorage();
+}
@@ -0,0 +1,40 @@
+package io.luna.game.model.mobile;
+
+/**
+ * An enumerated type whose elements represent the sections of a player's persistent data that are tracked for
+ * changes. Only sections changed since the last save are copied again when a player is saved.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public enum SaveSection {
+    POSITION,
+    INVENTORY,
+    BANK,
+    EQUIPMENT,
+    SKILLS,
+    ATTRIBUTES;
+
+    /**
+     * A mask with the bit of every section set.
+     */
+    public static final int ALL = (1 << values().length) - 1;
+
+    /**
+     * The bit of this section within a mask.
+     */
+    private final int mask = 1 << ordinal();
+
+    /**
+     * @return The bit of this section within a mask.
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Determines if this section is set in {@code mask}.
+     */
+    public boolean isSet(int mask) {
+        return (mask & this.mask) != 0;
+    }
+}
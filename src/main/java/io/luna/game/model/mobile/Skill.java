@@ -3,6 +3,7 @@ package io.luna.game.model.mobile;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.luna.game.event.impl.SkillChangeEvent;
+import io.luna.game.model.EntityType;
 import io.luna.game.plugin.PluginManager;
 
 import java.util.HashMap;
@@ -235,6 +236,18 @@ public final class Skill {
         plugins.post(evt);
     }
 
+    /**
+     * Marks the skills of a player as changed since their last save, and journals the change.
+     */
+    private void markDirty() {
+        Mob mob = skills.getMob();
+        if (mob.getType() == EntityType.PLAYER) {
+            Player player = (Player) mob;
+            player.markDirty(SaveSection.SKILLS);
+            player.getContext().getJournal().skillChanged(player, this);
+        }
+    }
+
     /**
      * Retrieves the name of this skill.
      */
@@ -281,6 +294,7 @@ public final class Skill {
         if (oldLevel == level) {
             return;
         }
+        markDirty();
 
         notifyListeners(experience, oldStaticLevel, oldLevel);
     }
@@ -345,6 +359,7 @@ public final class Skill {
         if (oldExperience == newExperience) {
             return;
         }
+        markDirty();
         notifyListeners(oldExperience, oldStaticLevel, level);
     }
 }
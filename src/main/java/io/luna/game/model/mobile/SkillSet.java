@@ -176,6 +176,28 @@ public final class SkillSet implements Iterable<Skill> {
         }
     }
 
+    /**
+     * Sets the dynamic level and experience of every skill. The argued arrays must have a length equal to that of
+     * the backing array.
+     */
+    public void setSkills(int[] levels, double[] experience) {
+        checkState(levels.length == skills.length && experience.length == skills.length,
+            "incompatible skill arrays");
+
+        firingEvents = false;
+        try {
+            for (int index = 0; index < skills.length; index++) {
+                Skill skill = new Skill(index, this);
+                skill.setExperience(experience[index]);
+                skill.setLevel(levels[index]);
+
+                skills[index] = skill;
+            }
+        } finally {
+            firingEvents = true;
+        }
+    }
+
     /**
      * @return The mob.
      */
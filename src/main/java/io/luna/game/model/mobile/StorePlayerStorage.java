@@ -0,0 +1,885 @@
+package io.luna.game.model.mobile;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.luna.util.StringUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link PlayerStorage} that keeps every save in a single append-only file. Saving appends a new record, and an
+ * off-heap hash table keyed by username hash points to the latest record of each player, so loading is one lookup
+ * and one read. The table is rebuilt by scanning the file on startup, and the file is compacted in the background
+ * once most of it is made up of replaced records.
+ * <p>
+ * Saves only hold the index lock long enough to reserve space at the end of the file, so they're written and forced
+ * concurrently. A save returns once every record before it has been written and forced too, so a crash can only
+ * cut off records that were never acknowledged. If a record fails to be written, its space is filled with a padding
+ * record instead, and if that fails too, every later save fails.
+ * <p>
+ * Scans step over records that have a bad checksum but a sensible length, so one damaged record doesn't cut off
+ * every record after it.
+ * <p>
+ * Players are identified by {@link PlayerCredentials#getUsernameHash()}, the same as they are in the world, so
+ * usernames that only differ in case or symbols share a save.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class StorePlayerStorage implements PlayerStorage {
+
+    /**
+     * An open addressing hash table stored outside of the heap, mapping username hashes to record positions.
+     */
+    static final class OffHeapIndex {
+
+        /**
+         * The size of a slot, the key followed by the record offset plus one and the record size.
+         */
+        private static final int SLOT_SIZE = 20;
+
+        /**
+         * The slots.
+         */
+        private ByteBuffer table;
+
+        /**
+         * The amount of slots, always a power of two.
+         */
+        private int capacity;
+
+        /**
+         * The amount of used slots.
+         */
+        private int size;
+
+        /**
+         * Creates a new {@link OffHeapIndex}.
+         *
+         * @param capacity The initial amount of slots, must be a power of two.
+         */
+        OffHeapIndex(int capacity) {
+            this.capacity = capacity;
+            table = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        }
+
+        /**
+         * Returns the slot of {@code key}, or {@code -1} if it isn't present.
+         */
+        int find(long key) {
+            int slot = hash(key);
+            for (; ; ) {
+                int position = slot * SLOT_SIZE;
+                if (table.getLong(position + 8) == 0) {
+                    return -1;
+                }
+                if (table.getLong(position) == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+        }
+
+        /**
+         * Points {@code key} at the record on {@code offset}. Returns the size of the record it pointed at before,
+         * or {@code 0} if it wasn't present.
+         */
+        int put(long key, long offset, int recordSize) {
+            if ((size + 1) * 2 > capacity) {
+                resize();
+            }
+
+            int slot = hash(key);
+            for (; ; ) {
+                int position = slot * SLOT_SIZE;
+                boolean empty = table.getLong(position + 8) == 0;
+                if (empty || table.getLong(position) == key) {
+                    int oldSize = empty ? 0 : table.getInt(position + 16);
+                    if (empty) {
+                        size++;
+                    }
+                    table.putLong(position, key);
+                    table.putLong(position + 8, offset + 1);
+                    table.putInt(position + 16, recordSize);
+                    return oldSize;
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+        }
+
+        /**
+         * @return The record offset in {@code slot}.
+         */
+        long offset(int slot) {
+            return table.getLong(slot * SLOT_SIZE + 8) - 1;
+        }
+
+        /**
+         * @return The record size in {@code slot}.
+         */
+        int recordSize(int slot) {
+            return table.getInt(slot * SLOT_SIZE + 16);
+        }
+
+        /**
+         * @return The amount of keys.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return The amount of slots.
+         */
+        int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Doubles the amount of slots.
+         */
+        private void resize() {
+            ByteBuffer oldTable = table;
+            int oldCapacity = capacity;
+
+            capacity *= 2;
+            size = 0;
+            table = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                int position = slot * SLOT_SIZE;
+                long offset = oldTable.getLong(position + 8);
+                if (offset != 0) {
+                    put(oldTable.getLong(position), offset - 1, oldTable.getInt(position + 16));
+                }
+            }
+        }
+
+        /**
+         * Returns the first slot to probe for {@code key}.
+         */
+        private int hash(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32)) & (capacity - 1);
+        }
+    }
+
+    /**
+     * Reads records in order, in large chunks.
+     */
+    private static final class RecordReader {
+
+        /**
+         * The channel being read.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The position to stop reading at.
+         */
+        private final long end;
+
+        /**
+         * The bytes read but not yet returned.
+         */
+        private final ByteBuf chunk = Unpooled.buffer(CHUNK_SIZE);
+
+        /**
+         * The checksum of records being read.
+         */
+        private final CRC32 checksum = new CRC32();
+
+        /**
+         * The position of the next byte to read from the channel.
+         */
+        private long readPosition;
+
+        /**
+         * The position of the last record returned, or of where reading stopped.
+         */
+        private long recordPosition;
+
+        /**
+         * The amount of bytes taken by damaged records that were stepped over.
+         */
+        private long skipped;
+
+        /**
+         * Creates a new {@link RecordReader}.
+         *
+         * @param channel The channel being read.
+         * @param start The position to start reading at.
+         * @param end The position to stop reading at.
+         */
+        private RecordReader(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.end = end;
+            readPosition = start;
+        }
+
+        /**
+         * Reads the next record, including its header. The record is only valid until this is invoked again.
+         * Records with a bad checksum are stepped over. Returns {@code null} if there are no more records, or if
+         * the next one was never completely written.
+         */
+        private ByteBuf next() throws IOException {
+            for (; ; ) {
+                recordPosition = readPosition - chunk.readableBytes();
+                if (!fill(HEADER_SIZE)) {
+                    return null;
+                }
+
+                int start = chunk.readerIndex();
+                int length = chunk.getInt(start);
+                if (length < MIN_PAYLOAD_SIZE || length > end - recordPosition - HEADER_SIZE ||
+                    !fill(HEADER_SIZE + length)) {
+                    return null;
+                }
+
+                start = chunk.readerIndex();
+                checksum.reset();
+                checksum.update(chunk.nioBuffer(start + HEADER_SIZE, length));
+                if ((int) checksum.getValue() != chunk.getInt(start + 4)) {
+                    chunk.skipBytes(HEADER_SIZE + length);
+                    skipped += HEADER_SIZE + length;
+                    continue;
+                }
+                return chunk.readSlice(HEADER_SIZE + length);
+            }
+        }
+
+        /**
+         * Reads from the channel until at least {@code amount} bytes are buffered. Returns {@code false} if the end
+         * was reached first.
+         */
+        private boolean fill(int amount) throws IOException {
+            while (chunk.readableBytes() < amount) {
+                if (readPosition >= end) {
+                    return false;
+                }
+                chunk.discardReadBytes();
+                chunk.ensureWritable(amount - chunk.readableBytes());
+
+                int length = (int) Math.min(chunk.writableBytes(), end - readPosition);
+                int read = chunk.writeBytes(channel, readPosition, length);
+                if (read == -1) {
+                    throw new EOFException();
+                }
+                readPosition += read;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The name of the data file.
+     */
+    private static final String FILE_NAME = "players.dat";
+
+    /**
+     * The size of a record header, the payload length followed by the payload checksum.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The smallest possible payload, a username hash followed by an empty username.
+     */
+    private static final int MIN_PAYLOAD_SIZE = 9;
+
+    /**
+     * The username hash of padding records, which no username encodes to.
+     */
+    private static final long PADDING_KEY = 0;
+
+    /**
+     * The size of the chunks records are scanned in.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The initial amount of index slots.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * The amount of minutes between checks for whether the data file should be compacted.
+     */
+    private static final long COMPACT_INTERVAL_MINUTES = 5;
+
+    /**
+     * The least amount of replaced record bytes that makes the data file worth compacting.
+     */
+    private static final long COMPACT_THRESHOLD = 64L * 1024 * 1024;
+
+    /**
+     * The directory containing the data file.
+     */
+    private final Path directory;
+
+    /**
+     * The data file.
+     */
+    private final Path path;
+
+    /**
+     * Held to use the data file, and held exclusively to replace it.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The data file channel.
+     */
+    private FileChannel channel;
+
+    /**
+     * The position of the latest record of each player. Guarded by {@code this}.
+     */
+    private OffHeapIndex index = new OffHeapIndex(INITIAL_CAPACITY);
+
+    /**
+     * The end of the data file, including space reserved for records still being written. Guarded by {@code this}.
+     */
+    private long end;
+
+    /**
+     * The end of the records that have been completely written, with no gaps before it. Guarded by {@code this}.
+     */
+    private long writtenEnd;
+
+    /**
+     * The end of the records known to have been forced to disk. Guarded by {@code this}.
+     */
+    private long forcedEnd;
+
+    /**
+     * The sizes of records that have been written past {@code writtenEnd}, by position. Guarded by {@code this}.
+     */
+    private final Map<Long, Integer> writtenAhead = new HashMap<>();
+
+    /**
+     * The amount of bytes taken by replaced records. Guarded by {@code this}.
+     */
+    private long garbage;
+
+    /**
+     * If player files are being imported, in which case appends aren't forced individually. Guarded by {@code
+     * this}.
+     */
+    private boolean importing;
+
+    /**
+     * Why the data file can no longer be appended to, {@code null} if it still can. Guarded by {@code this}.
+     */
+    private IOException failure;
+
+    /**
+     * The position of the record that could neither be written nor padded. Guarded by {@code this}.
+     */
+    private long failedPosition;
+
+    /**
+     * The executor that compacts the data file, {@code null} if it isn't open.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a new {@link StorePlayerStorage}.
+     *
+     * @param directory The directory containing the data file.
+     */
+    public StorePlayerStorage(Path directory) {
+        this.directory = directory;
+        path = directory.resolve(FILE_NAME);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If there is no data file yet, one is created from the save files of {@link FilePlayerStorage} in the same
+     * directory, which are left in place.
+     */
+    @Override
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        if (Files.exists(path)) {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            rebuild();
+        } else {
+            importFiles();
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("LunaStoreCompactionThread").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                if (shouldCompact()) {
+                    compact();
+                }
+            } catch (Exception e) {
+                LOGGER.catching(e);
+            }
+        }, COMPACT_INTERVAL_MINUTES, COMPACT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public PlayerData load(String username) throws IOException {
+        long key = StringUtils.encodeToBase37(username);
+        lock.readLock().lock();
+        try {
+            long offset;
+            int recordSize;
+            synchronized (this) {
+                int slot = index.find(key);
+                if (slot == -1) {
+                    return null;
+                }
+                offset = index.offset(slot);
+                recordSize = index.recordSize(slot);
+            }
+
+            ByteBuf record = Unpooled.buffer(recordSize);
+            try {
+                while (record.isWritable()) {
+                    if (record.writeBytes(channel, offset + record.writerIndex(), record.writableBytes()) == -1) {
+                        throw new EOFException(path.toString());
+                    }
+                }
+                record.skipBytes(HEADER_SIZE + 8);
+                PlayerSaveFormat.readString(record);
+                return PlayerSaveFormat.decode(record);
+            } finally {
+                record.release();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(String username, PlayerData data) throws IOException {
+        long key = StringUtils.encodeToBase37(username);
+        ByteBuf record = encode(key, username, data);
+        int recordSize = record.readableBytes();
+        lock.readLock().lock();
+        try {
+            long position;
+            boolean forcing;
+            synchronized (this) {
+                if (failure != null) {
+                    throw new IOException("unable to append to " + path, failure);
+                }
+                position = end;
+                end += recordSize;
+                forcing = !importing;
+            }
+
+            try {
+                write(record, channel, position);
+            } catch (IOException e) {
+                pad(position, recordSize);
+                throw e;
+            } finally {
+                written(position, recordSize);
+            }
+            awaitWritten(position + recordSize);
+            if (forcing) {
+                force(position + recordSize);
+            }
+            publish(key, position, recordSize);
+        } finally {
+            lock.readLock().unlock();
+            record.release();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for a running compaction to finish first.
+     */
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            executor = null;
+        }
+
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The data file is read in order, skipping replaced records. Players saved during the scan are loaded
+     * individually afterwards.
+     */
+    @Override
+    public void forEach(BiConsumer<String, PlayerData> action) throws IOException {
+        Set<String> saved = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            long scanEnd;
+            synchronized (this) {
+                scanEnd = writtenEnd;
+            }
+
+            RecordReader reader = new RecordReader(channel, 0, scanEnd);
+            ByteBuf record;
+            while ((record = reader.next()) != null) {
+                long key = record.getLong(HEADER_SIZE);
+                long offset = currentOffset(key);
+                if (offset == reader.recordPosition || offset >= scanEnd) {
+                    record.skipBytes(HEADER_SIZE + 8);
+                    String username = PlayerSaveFormat.readString(record);
+                    if (offset == reader.recordPosition) {
+                        action.accept(username, PlayerSaveFormat.decode(record));
+                    } else {
+                        saved.add(username);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (String username : saved) {
+            action.accept(username, load(username));
+        }
+    }
+
+    /**
+     * @return The amount of players with a save.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Determines if enough of the data file is made up of replaced records to compact it.
+     */
+    synchronized boolean shouldCompact() {
+        return garbage >= COMPACT_THRESHOLD && garbage * 2 >= end;
+    }
+
+    /**
+     * Rewrites the data file with only the latest record of each player. Records are copied while saves continue,
+     * then saves are paused while the records appended in the meantime are copied and the files are swapped.
+     */
+    void compact() throws IOException {
+        Path compacting = path.resolveSibling(FILE_NAME + ".compact");
+        FileChannel newChannel = FileChannel.open(compacting, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean swapped = false;
+        try {
+            OffHeapIndex newIndex;
+            long copyEnd;
+            long newEnd = 0;
+            long newGarbage = 0;
+
+            lock.readLock().lock();
+            try {
+                synchronized (this) {
+                    newIndex = new OffHeapIndex(index.capacity());
+                    copyEnd = writtenEnd;
+                }
+
+                // Records newer than the indexed one are still being saved, and will be indexed once they are.
+                RecordReader reader = new RecordReader(channel, 0, copyEnd);
+                ByteBuf record;
+                while ((record = reader.next()) != null) {
+                    long key = record.getLong(HEADER_SIZE);
+                    if (key != PADDING_KEY && currentOffset(key) <= reader.recordPosition) {
+                        newGarbage += newIndex.put(key, newEnd, record.readableBytes());
+                        newEnd += write(record, newChannel, newEnd);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            lock.writeLock().lock();
+            try {
+                RecordReader reader = new RecordReader(channel, copyEnd, end);
+                ByteBuf record;
+                while ((record = reader.next()) != null) {
+                    long key = record.getLong(HEADER_SIZE);
+                    if (key != PADDING_KEY) {
+                        newGarbage += newIndex.put(key, newEnd, record.readableBytes());
+                        newEnd += write(record, newChannel, newEnd);
+                    }
+                }
+
+                // A damaged record can only be dropped if the player has a newer one, otherwise their save is lost.
+                int lost = size() - newIndex.size();
+                if (lost > 0) {
+                    throw new IOException("unable to compact " + path + ", the saves of " + lost +
+                        " players are damaged");
+                }
+                newChannel.force(true);
+                move(compacting, path);
+
+                synchronized (this) {
+                    LOGGER.info("Compacted {} from {} to {} bytes.", path, end, newEnd);
+                    channel.close();
+                    channel = newChannel;
+                    index = newIndex;
+                    end = newEnd;
+                    writtenEnd = newEnd;
+                    forcedEnd = newEnd;
+                    garbage = newGarbage;
+                }
+                swapped = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            if (!swapped) {
+                newChannel.close();
+                Files.deleteIfExists(compacting);
+            }
+        }
+    }
+
+    /**
+     * Records that the record on {@code position} has been written, or failed to be, and advances {@code writtenEnd}
+     * past every record written without a gap.
+     */
+    private synchronized void written(long position, int recordSize) {
+        if (position != writtenEnd) {
+            writtenAhead.put(position, recordSize);
+            return;
+        }
+
+        writtenEnd += recordSize;
+        Integer next;
+        while ((next = writtenAhead.remove(writtenEnd)) != null) {
+            writtenEnd += next;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Waits until every record before {@code position} has been written. Fails if one of them could neither be
+     * written nor padded, as the record ending on {@code position} would be cut off when the data file is scanned.
+     */
+    private synchronized void awaitWritten(long position) throws IOException {
+        while (writtenEnd < position) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        if (failure != null && failedPosition < position) {
+            throw new IOException("unable to append to " + path, failure);
+        }
+    }
+
+    /**
+     * Fills the space reserved for a record that failed to be written with a padding record, so scans step over it.
+     * If that fails too, the data file can no longer be appended to.
+     */
+    private void pad(long position, int recordSize) {
+        ByteBuf padding = Unpooled.buffer(recordSize);
+        try {
+            int length = recordSize - HEADER_SIZE;
+            padding.writeZero(recordSize);
+            padding.setLong(HEADER_SIZE, PADDING_KEY);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(padding.nioBuffer(HEADER_SIZE, length));
+            padding.setInt(0, length);
+            padding.setInt(4, (int) checksum.getValue());
+            write(padding, channel, position);
+        } catch (IOException e) {
+            LOGGER.catching(e);
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                    failedPosition = position;
+                }
+            }
+        } finally {
+            padding.release();
+        }
+    }
+
+    /**
+     * Forces the data file to disk, unless another save already forced it past {@code position}.
+     */
+    private void force(long position) throws IOException {
+        long forcing;
+        synchronized (this) {
+            if (forcedEnd >= position) {
+                return;
+            }
+            forcing = writtenEnd;
+        }
+
+        channel.force(false);
+        synchronized (this) {
+            forcedEnd = Math.max(forcedEnd, forcing);
+        }
+    }
+
+    /**
+     * Points the index at the record on {@code position}, unless a newer save of the same player was indexed first.
+     */
+    private synchronized void publish(long key, long position, int recordSize) {
+        int slot = index.find(key);
+        if (slot != -1 && index.offset(slot) > position) {
+            garbage += recordSize;
+        } else {
+            garbage += index.put(key, position, recordSize);
+        }
+    }
+
+    /**
+     * Returns the offset of the latest record of {@code key}, or {@code -1} if there is none.
+     */
+    private synchronized long currentOffset(long key) {
+        int slot = index.find(key);
+        return slot == -1 ? -1 : index.offset(slot);
+    }
+
+    /**
+     * Scans the data file to rebuild the index, cutting off any record that was never completely written.
+     */
+    private void rebuild() throws IOException {
+        long size = channel.size();
+        RecordReader reader = new RecordReader(channel, 0, size);
+        ByteBuf record;
+        long skipped = 0;
+        synchronized (this) {
+            while ((record = reader.next()) != null) {
+                long key = record.getLong(HEADER_SIZE);
+                int recordSize = record.readableBytes();
+                garbage += key == PADDING_KEY ? recordSize : index.put(key, reader.recordPosition, recordSize);
+                end = reader.recordPosition + recordSize;
+                skipped = reader.skipped;
+            }
+            garbage += skipped;
+            writtenEnd = end;
+            forcedEnd = end;
+        }
+
+        if (skipped > 0) {
+            LOGGER.warn("Skipped {} bytes of damaged records in {}.", skipped, path);
+        }
+        if (end < size) {
+            LOGGER.warn("Truncating {} bytes of incomplete records from {}.", size - end, path);
+            channel.truncate(end);
+        }
+        LOGGER.info("Loaded {} player saves from {}.", index.size(), path);
+    }
+
+    /**
+     * Creates the data file from the save files in the same directory. The data file is only moved into place once
+     * every save has been imported.
+     */
+    private void importFiles() throws IOException {
+        Path importing = path.resolveSibling(FILE_NAME + ".import");
+        channel = FileChannel.open(importing, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        synchronized (this) {
+            this.importing = true;
+        }
+        int imported = new FilePlayerStorage(directory).copyTo(this);
+
+        channel.force(true);
+        synchronized (this) {
+            this.importing = false;
+            forcedEnd = writtenEnd;
+        }
+
+        move(importing, path);
+        LOGGER.info("Imported {} player files into {}.", imported, path);
+    }
+
+    /**
+     * Encodes a record containing {@code data}.
+     */
+    private static ByteBuf encode(long key, String username, PlayerData data) {
+        ByteBuf save = PlayerSaveFormat.encode(data);
+        try {
+            ByteBuf record = Unpooled.buffer(HEADER_SIZE + 8 + username.length() + 1 + save.readableBytes());
+            record.writeZero(HEADER_SIZE);
+            record.writeLong(key);
+            PlayerSaveFormat.writeString(record, username);
+            record.writeBytes(save);
+
+            int length = record.readableBytes() - HEADER_SIZE;
+            CRC32 checksum = new CRC32();
+            checksum.update(record.nioBuffer(HEADER_SIZE, length));
+            record.setInt(0, length);
+            record.setInt(4, (int) checksum.getValue());
+            return record;
+        } finally {
+            save.release();
+        }
+    }
+
+    /**
+     * Writes the readable bytes of {@code record} to {@code channel} on {@code position}, without changing its
+     * reader index. Returns the amount of bytes written.
+     */
+    private static int write(ByteBuf record, FileChannel channel, long position) throws IOException {
+        int start = record.readerIndex();
+        int length = record.readableBytes();
+        int written = 0;
+        while (written < length) {
+            written += record.getBytes(start + written, channel, position + written, length - written);
+        }
+        return length;
+    }
+
+    /**
+     * Moves {@code source} over {@code target}, atomically if the file system supports it.
+     */
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
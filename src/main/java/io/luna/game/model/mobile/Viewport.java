@@ -0,0 +1,312 @@
+package io.luna.game.model.mobile;
+
+import io.luna.LunaConstants;
+import io.luna.game.model.EntityState;
+import io.luna.game.model.EntityType;
+import io.luna.game.model.Position;
+import io.luna.game.model.World;
+import io.luna.game.model.region.EntityVisitor;
+import io.luna.game.model.region.RegionManager;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * A model representing the mobs of one type that are local to a player. Membership is tracked in a bitset keyed by
+ * mob index, while the order the client knows the mobs in is kept in flat arrays.
+ * <p>
+ * Rather than rescanning surrounding regions every tick, {@link #refresh(Player)} only looks for new mobs when the
+ * player has moved, when a region in view has changed, or when the previous scan was cut short by the addition
+ * limits. It then precomputes which local mobs are leaving and which mobs are entering, for update writers to
+ * consume before calling {@link #apply()}.
+ *
+ * @param <E> The type of mobs in this viewport.
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class Viewport<E extends Mob> {
+
+    /**
+     * The maximum amount of local mobs.
+     */
+    public static final int MAXIMUM_SIZE = 255;
+
+    /**
+     * The maximum amount of mobs that can enter per tick.
+     */
+    public static final int MAXIMUM_ENTERING = 15;
+
+    /**
+     * The type of mobs in this viewport.
+     */
+    private final EntityType type;
+
+    /**
+     * A bitset of local mob indexes.
+     */
+    private final long[] members;
+
+    /**
+     * A bitset of local mob indexes that are leaving this tick.
+     */
+    private final long[] leavers;
+
+    /**
+     * The indexes of local mobs, in order.
+     */
+    private final int[] indexes = new int[MAXIMUM_SIZE];
+
+    /**
+     * The local mobs, in order.
+     */
+    private final Mob[] mobs = new Mob[MAXIMUM_SIZE];
+
+    /**
+     * The amount of local mobs.
+     */
+    private int size;
+
+    /**
+     * The amount of local mobs leaving this tick.
+     */
+    private int leavingSize;
+
+    /**
+     * The mobs entering this tick, in order.
+     */
+    private final Mob[] entering = new Mob[MAXIMUM_ENTERING];
+
+    /**
+     * The amount of mobs entering this tick.
+     */
+    private int enteringSize;
+
+    /**
+     * The visitor used to scan for entering mobs.
+     */
+    private final EntityVisitor<E> scanner = this::visit;
+
+    /**
+     * The amount of mobs that can enter during the current refresh.
+     */
+    private int enteringLimit = MAXIMUM_ENTERING;
+
+    /**
+     * The player this viewport is being refreshed for.
+     */
+    private Player viewer;
+
+    /**
+     * The position of the player during the last scan.
+     */
+    private Position lastScanPosition;
+
+    /**
+     * The combined region version during the last scan.
+     */
+    private int lastScanVersion;
+
+    /**
+     * If the last scan was cut short by the addition limits.
+     */
+    private boolean saturated;
+
+    /**
+     * Creates a new {@link Viewport}.
+     *
+     * @param type The type of mobs in this viewport.
+     * @param capacity The capacity of the mob list backing {@code type}.
+     */
+    public Viewport(EntityType type, int capacity) {
+        this.type = type;
+        members = new long[(capacity >> 6) + 1];
+        leavers = new long[members.length];
+    }
+
+    /**
+     * Collects mobs entering this viewport during a scan.
+     */
+    private boolean visit(E mob) {
+        if (mob == viewer || mob.getState() != EntityState.ACTIVE) {
+            return true;
+        }
+        int index = mob.getIndex();
+        if (get(members, index) && !get(leavers, index)) {
+            return true;
+        }
+        if (enteringSize >= enteringLimit || size - leavingSize + enteringSize >= MAXIMUM_SIZE) {
+            saturated = true;
+            return false;
+        }
+        entering[enteringSize++] = mob;
+        return true;
+    }
+
+    /**
+     * Determines which local mobs are leaving and which mobs are entering the view of {@code player}.
+     */
+    public void refresh(Player player) {
+        if (leavingSize > 0 || enteringSize > 0) {
+            discard();
+        }
+        for (int slot = 0; slot < size; slot++) {
+            Mob mob = mobs[slot];
+            if (!isRetained(player, mob)) {
+                set(leavers, indexes[slot]);
+                leavingSize++;
+            }
+        }
+
+        World world = player.getWorld();
+        RegionManager regions = world.getRegions();
+        enteringLimit = world.getLoadMonitor().getLoadLevel().getEnteringLimit();
+        Position position = player.getPosition();
+        int version = regions.computeVersion(position);
+        if (saturated || leavingSize > 0 || position != lastScanPosition || version != lastScanVersion) {
+            lastScanPosition = position;
+            lastScanVersion = version;
+            saturated = false;
+            scan(player, regions);
+        }
+    }
+
+    /**
+     * Removes mobs that have left and appends mobs that have entered. Must be called once the update writer is
+     * done consuming this viewport.
+     */
+    public void apply() {
+        if (leavingSize > 0) {
+            int retained = 0;
+            for (int slot = 0; slot < size; slot++) {
+                int index = indexes[slot];
+                if (get(leavers, index)) {
+                    clear(leavers, index);
+                    clear(members, index);
+                } else {
+                    indexes[retained] = index;
+                    mobs[retained++] = mobs[slot];
+                }
+            }
+            Arrays.fill(mobs, retained, size, null);
+            size = retained;
+            leavingSize = 0;
+        }
+
+        for (int slot = 0; slot < enteringSize; slot++) {
+            Mob mob = entering[slot];
+            indexes[size] = mob.getIndex();
+            mobs[size++] = mob;
+            set(members, mob.getIndex());
+            entering[slot] = null;
+        }
+        enteringSize = 0;
+    }
+
+    /**
+     * Discards a refresh that was never applied, most likely because writing the update failed.
+     */
+    private void discard() {
+        Arrays.fill(leavers, 0L);
+        Arrays.fill(entering, null);
+        leavingSize = 0;
+        enteringSize = 0;
+        saturated = true;
+    }
+
+    /**
+     * Scans the surrounding regions for mobs entering the view of {@code player}.
+     */
+    @SuppressWarnings("unchecked")
+    private void scan(Player player, RegionManager regions) {
+        viewer = player;
+        try {
+            if (LunaConstants.STAGGERED_UPDATING) {
+                Set<E> surrounding = (Set<E>) (type == EntityType.PLAYER ? regions.getSurroundingPlayers(player) :
+                    regions.getSurroundingNpcs(player));
+                for (E mob : surrounding) {
+                    if (!visit(mob)) {
+                        break;
+                    }
+                }
+            } else {
+                regions.visitViewable(player.getPosition(), type, scanner);
+            }
+        } finally {
+            viewer = null;
+        }
+    }
+
+    /**
+     * Determines if {@code mob} can remain in the view of {@code player}.
+     */
+    private boolean isRetained(Player player, Mob mob) {
+        if (mob.getState() != EntityState.ACTIVE || !mob.isViewable(player)) {
+            return false;
+        }
+        return type != EntityType.PLAYER || !((Player) mob).isRegionChanged();
+    }
+
+    /**
+     * Determines if {@code mob} is local.
+     */
+    public boolean contains(E mob) {
+        return mob.getIndex() != -1 && get(members, mob.getIndex());
+    }
+
+    /**
+     * Returns the local mob in {@code slot}.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int slot) {
+        return (E) mobs[slot];
+    }
+
+    /**
+     * Determines if the local mob in {@code slot} is leaving this tick.
+     */
+    public boolean isLeaving(int slot) {
+        return get(leavers, indexes[slot]);
+    }
+
+    /**
+     * Returns the mob in {@code slot} of the entering list.
+     */
+    @SuppressWarnings("unchecked")
+    public E getEntering(int slot) {
+        return (E) entering[slot];
+    }
+
+    /**
+     * Returns the amount of local mobs, including those leaving this tick.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of mobs entering this tick.
+     */
+    public int enteringSize() {
+        return enteringSize;
+    }
+
+    /**
+     * Returns the bit for {@code index}.
+     */
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * Sets the bit for {@code index}.
+     */
+    private static void set(long[] bits, int index) {
+        bits[index >> 6] |= 1L << index;
+    }
+
+    /**
+     * Clears the bit for {@code index}.
+     */
+    private static void clear(long[] bits, int index) {
+        bits[index >> 6] &= ~(1L << index);
+    }
+}
@@ -175,15 +175,17 @@ public final class WalkingQueue {
             }
         }
 
-        if (restoreEnergy) {
+        if (restoreEnergy && mob.getType() == EntityType.PLAYER) {
             incrementRunEnergy();
         }
 
         mob.setWalkingDirection(walkingDirection);
         mob.setRunningDirection(runningDirection);
 
-        Position newPosition = new Position(current.getX(), current.getY(), mob.getPosition().getZ());
-        mob.setPosition(newPosition);
+        if (walkingDirection != Direction.NONE) {
+            Position newPosition = new Position(current.getX(), current.getY(), mob.getPosition().getZ());
+            mob.setPosition(newPosition);
+        }
     }
 
     /**
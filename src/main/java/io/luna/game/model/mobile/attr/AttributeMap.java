@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -23,6 +24,12 @@ public final class AttributeMap implements Iterable<Entry<String, AttributeValue
      */
     private final Map<String, AttributeValue<?>> attributes = new IdentityHashMap<>(AttributeKey.ALIASES.size());
 
+    /**
+     * Invoked with the name and new value whenever a persistent attribute changes, {@code null} if nothing is
+     * listening.
+     */
+    private BiConsumer<String, Object> persistentListener;
+
     /**
      * The last key.
      */
@@ -50,9 +57,11 @@ public final class AttributeMap implements Iterable<Entry<String, AttributeValue
         checkState(alias != null, "attributes need to be aliased in the AttributeKey class");
 
         try {
+            BiConsumer<String, Object> listener = alias.isPersistent() ? persistentListener : null;
             lastKey = alias.getName();
             lastValue = attributes
-                .computeIfAbsent(alias.getName(), it -> new AttributeValue<>(alias.getInitialValue()));
+                .computeIfAbsent(alias.getName(), it -> new AttributeValue<>(alias.getInitialValue(),
+                    listener != null ? newValue -> listener.accept(it, newValue) : null));
 
             return lastValue;
         } catch (ClassCastException e) {
@@ -60,6 +69,14 @@ public final class AttributeMap implements Iterable<Entry<String, AttributeValue
         }
     }
 
+    /**
+     * Sets the listener invoked whenever a persistent attribute changes. Only applies to attributes retrieved for
+     * the first time afterwards.
+     */
+    public void setPersistentListener(BiConsumer<String, Object> persistentListener) {
+        this.persistentListener = persistentListener;
+    }
+
     @Override
     public Iterator<Entry<String, AttributeValue<?>>> iterator() {
         return Iterators.unmodifiableIterator(attributes.entrySet().iterator());
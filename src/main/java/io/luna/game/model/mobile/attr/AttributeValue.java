@@ -1,6 +1,7 @@
 package io.luna.game.model.mobile.attr;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A model representing a value within an attribute.
@@ -15,13 +16,29 @@ public final class AttributeValue<T> {
      */
     private T value;
 
+    /**
+     * Invoked with the new value whenever the value changes, {@code null} if nothing is listening.
+     */
+    private final Consumer<T> listener;
+
     /**
      * Creates a new {@link AttributeValue}.
      *
      * @param value The value.
+     * @param listener Invoked with the new value whenever the value changes, {@code null} if nothing is listening.
      */
-    public AttributeValue(T value) {
+    public AttributeValue(T value, Consumer<T> listener) {
         this.value = value;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates a new {@link AttributeValue} that nothing is listening to.
+     *
+     * @param value The value.
+     */
+    public AttributeValue(T value) {
+        this(value, null);
     }
 
     @Override
@@ -52,6 +69,10 @@ public final class AttributeValue<T> {
      * Sets the value.
      */
     public void set(T value) {
+        T oldValue = this.value;
         this.value = value;
+        if (listener != null && !Objects.equals(oldValue, value)) {
+            listener.accept(value);
+        }
     }
 }
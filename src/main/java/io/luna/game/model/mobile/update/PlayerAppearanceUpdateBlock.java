@@ -27,35 +27,55 @@ public final class PlayerAppearanceUpdateBlock extends PlayerUpdateBlock {
 
     @Override
     public void write(Player mob, ByteMessage msg) {
-        ByteMessage buf = ByteMessage.message();
-        PlayerAppearance appearance = mob.getAppearance();
-
-        int gender = appearance.get(PlayerAppearance.GENDER);
-        PrayerIcon prayer = mob.getPrayerIcon();
-        SkullIcon skull = mob.getSkullIcon();
-
-        buf.put(gender);
-        buf.put(prayer.getId());
-        buf.put(skull.getId());
-
-        OptionalInt transformId = mob.getTransformId();
-        if (transformId.isPresent()) {
-            buf.putShort(-1);
-            buf.putShort(transformId.getAsInt());
-        } else {
-            encodeModels(buf, mob);
+        ByteMessage appearance = mob.getCachedAppearance();
+        if (appearance == null) {
+            ByteMessage buf = encodeAppearance(mob);
+            try {
+                appearance = mob.setCachedAppearance(buf);
+            } finally {
+                buf.release();
+            }
         }
-        encodeModelColors(buf, mob);
-        encodeAnimations(buf, mob);
 
-        buf.putLong(mob.getUsernameHash());
-        buf.put(mob.getCombatLevel());
-        buf.putShort(0); /* Skill level, used for Burthrope games' room. */
+        msg.put(appearance.getBuffer().writerIndex(), ByteTransform.C);
+        msg.putBytes(appearance);
+    }
 
-        int currentIndex = buf.getBuffer().writerIndex();
-        msg.put(currentIndex, ByteTransform.C);
-        msg.putBytes(buf);
-        buf.release();
+    /**
+     * Encodes the appearance block of {@code mob} into a new buffer. The result is cached by the player until the
+     * appearance is flagged again, so this only runs when the appearance actually changes.
+     */
+    private ByteMessage encodeAppearance(Player mob) {
+        ByteMessage buf = ByteMessage.message();
+        try {
+            PlayerAppearance appearance = mob.getAppearance();
+
+            int gender = appearance.get(PlayerAppearance.GENDER);
+            PrayerIcon prayer = mob.getPrayerIcon();
+            SkullIcon skull = mob.getSkullIcon();
+
+            buf.put(gender);
+            buf.put(prayer.getId());
+            buf.put(skull.getId());
+
+            OptionalInt transformId = mob.getTransformId();
+            if (transformId.isPresent()) {
+                buf.putShort(-1);
+                buf.putShort(transformId.getAsInt());
+            } else {
+                encodeModels(buf, mob);
+            }
+            encodeModelColors(buf, mob);
+            encodeAnimations(buf, mob);
+
+            buf.putLong(mob.getUsernameHash());
+            buf.put(mob.getCombatLevel());
+            buf.putShort(0); /* Skill level, used for Burthrope games' room. */
+        } catch (Exception e) {
+            buf.release();
+            throw e;
+        }
+        return buf;
     }
 
     /**
@@ -5,8 +5,10 @@ import io.luna.game.model.mobile.Mob;
 import io.luna.game.model.mobile.Npc;
 import io.luna.game.model.mobile.Player;
 import io.luna.game.model.mobile.update.UpdateFlagSet.UpdateFlag;
+import io.luna.game.profile.TrafficProfiler;
 import io.luna.net.codec.ByteMessage;
 import io.luna.net.codec.ByteOrder;
+import io.netty.buffer.ByteBuf;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -66,50 +68,58 @@ public final class UpdateBlockSet<E extends Mob> {
     }
 
     /**
-     * Encodes update blocks for a player or NPC.
+     * Encodes update blocks for a player or NPC. Blocks for the {@code UPDATE_LOCAL} and {@code ADD_LOCAL} states
+     * are identical for every viewer, so they are encoded once per tick and cached within the mob until {@link
+     * Mob#clearCachedBlocks()} is called.
      */
     public void encodeUpdateBlocks(E forMob, ByteMessage msg, UpdateState state) {
-        if (forMob.getUpdateFlags().isEmpty() && state != UpdateState.ADD_LOCAL) {
-            return;
+        if (forMob.getType() != EntityType.PLAYER && forMob.getType() != EntityType.NPC) {
+            throw new IllegalStateException("forMob.getType() must be PLAYER or NPC");
         }
 
-        if (forMob.getType() == EntityType.PLAYER) {
-            encodePlayerBlocks(forMob, msg, state);
-        } else if (forMob.getType() == EntityType.NPC) {
-            encodeNpcBlocks(forMob, msg, state);
-        } else {
-            throw new IllegalStateException("forMob.getType() must be PLAYER or NPC");
+        boolean forceAppearance = state == UpdateState.ADD_LOCAL && forMob.getType() == EntityType.PLAYER;
+        if (forMob.getUpdateFlags().isEmpty() && !forceAppearance) {
+            return;
         }
-    }
 
-    /**
-     * Encodes update blocks for a player, specifically.
-     */
-    private void encodePlayerBlocks(E forMob, ByteMessage msg, UpdateState state) {
-        Player player = (Player) forMob;
-        boolean cacheBlocks = (state != UpdateState.ADD_LOCAL && state != UpdateState.UPDATE_SELF);
+        if (state == UpdateState.UPDATE_SELF) {
+            ByteMessage encodedBlocks = encodeBlocks(forMob, state);
+            try {
+                msg.putBytes(encodedBlocks);
+            } finally {
+                encodedBlocks.release();
+            }
+            return;
+        }
 
-        if (player.getCachedBlock() != null && cacheBlocks) {
-            msg.putBytes(player.getCachedBlock());
+        ByteMessage cachedBlock = forMob.getCachedBlock(state);
+        if (cachedBlock != null) {
+            forMob.getWorld().getTrafficProfiler().cachedUpdateBlocks(forMob.getType(),
+                cachedBlock.getBuffer().readableBytes());
+            msg.putBytes(cachedBlock);
             return;
         }
 
         ByteMessage encodedBlocks = encodeBlocks(forMob, state);
-        msg.putBytes(encodedBlocks);
-        if (cacheBlocks) {
-            player.setCachedBlock(encodedBlocks);
+        try {
+            msg.putBytes(forMob.setCachedBlock(state, encodedBlocks));
+        } finally {
+            encodedBlocks.release();
         }
-        encodedBlocks.release();
     }
 
     /**
-     * Encodes update blocks specifically for an NPC, specifically.
+     * Determines if {@code updateBlock} should be written for {@code forMob} in {@code state}.
      */
-    private void encodeNpcBlocks(E forMob, ByteMessage msg, UpdateState state) {
-        ByteMessage encodedBlocks = encodeBlocks(forMob, state);
-        msg.putBytes(encodedBlocks);
-
-        encodedBlocks.release();
+    private boolean isWritable(UpdateBlock<E> updateBlock, E forMob, UpdateState state) {
+        UpdateFlag flag = updateBlock.getFlag();
+        if (state == UpdateState.ADD_LOCAL && flag == UpdateFlag.APPEARANCE) {
+            return true;
+        }
+        if (state == UpdateState.UPDATE_SELF && flag == UpdateFlag.CHAT) {
+            return false;
+        }
+        return forMob.getUpdateFlags().get(flag);
     }
 
     /**
@@ -118,34 +128,36 @@ public final class UpdateBlockSet<E extends Mob> {
     private ByteMessage encodeBlocks(E forMob, UpdateState state) {
         ByteMessage encodedBlock = ByteMessage.message();
 
-        int mask = 0;
-        Set<UpdateBlock<E>> writeBlocks = new LinkedHashSet<>();
-
-        for (UpdateBlock<E> updateBlock : updateBlocks) {
-            if (state == UpdateState.ADD_LOCAL && updateBlock.getFlag() == UpdateFlag.APPEARANCE) {
-                mask |= updateBlock.getMask();
-                writeBlocks.add(updateBlock);
-                continue;
-            }
-            if (state == UpdateState.UPDATE_SELF && updateBlock.getFlag() == UpdateFlag.CHAT) {
-                continue;
-            }
-            if (!forMob.getUpdateFlags().get(updateBlock.getFlag())) {
-                continue;
+        try {
+            int mask = 0;
+            for (UpdateBlock<E> updateBlock : updateBlocks) {
+                if (isWritable(updateBlock, forMob, state)) {
+                    mask |= updateBlock.getMask();
+                }
             }
 
-            mask |= updateBlock.getMask();
-            writeBlocks.add(updateBlock);
-        }
+            if (mask >= 0x100) {
+                mask |= 0x40;
+                encodedBlock.putShort(mask, ByteOrder.LITTLE);
+            } else {
+                encodedBlock.put(mask);
+            }
 
-        if (mask >= 0x100) {
-            mask |= 0x40;
-            encodedBlock.putShort(mask, ByteOrder.LITTLE);
-        } else {
-            encodedBlock.put(mask);
+            TrafficProfiler trafficProfiler = forMob.getWorld().getTrafficProfiler();
+            ByteBuf buf = encodedBlock.getBuffer();
+            for (UpdateBlock<E> updateBlock : updateBlocks) {
+                if (isWritable(updateBlock, forMob, state)) {
+                    long start = System.nanoTime();
+                    int startIndex = buf.writerIndex();
+                    updateBlock.write(forMob, encodedBlock);
+                    trafficProfiler.updateBlock(forMob.getType(), updateBlock.getFlag(),
+                        buf.writerIndex() - startIndex, System.nanoTime() - start);
+                }
+            }
+        } catch (Exception e) {
+            encodedBlock.release();
+            throw e;
         }
-
-        writeBlocks.forEach(it -> it.write(forMob, encodedBlock));
         return encodedBlock;
     }
 }
@@ -0,0 +1,18 @@
+package io.luna.game.model.region;
+
+import io.luna.game.model.Entity;
+
+/**
+ * A callback used to traverse entities within regions without collecting them.
+ *
+ * @param <E> The type of entity being visited.
+ * @author lare96 <http://github.org/lare96>
+ */
+@FunctionalInterface
+public interface EntityVisitor<E extends Entity> {
+
+    /**
+     * Visits {@code entity}. Returns {@code false} to stop visiting any further entities.
+     */
+    boolean visit(E entity);
+}
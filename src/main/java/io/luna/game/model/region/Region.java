@@ -1,32 +1,50 @@
 package io.luna.game.model.region;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
 import io.luna.game.model.Entity;
 import io.luna.game.model.EntityType;
+import io.luna.game.model.Position;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 /**
- * A model representing a location on the map {@code 32x32} in size.
+ * A model representing a location on the map {@code 32x32} in size. Entities are stored in a flat array per entity
+ * type so that they can be visited without creating any garbage.
+ * <p>
+ * Regions are only modified on the game thread, and may be read concurrently while no entities are being moved
+ * (during synchronization, for example).
  *
  * @author lare96 <http://github.org/lare96>
  */
 public final class Region {
 
+    /**
+     * The initial capacity of each entity array.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
     /**
      * The coordinates.
      */
     private final RegionCoordinates coordinates;
 
     /**
-     * A set of entities within this region.
+     * The entities within this region, indexed by {@link EntityType} ordinal.
+     */
+    private final Entity[][] entities = new Entity[EntityType.values().length][];
+
+    /**
+     * The amount of entities within this region, indexed by {@link EntityType} ordinal.
      */
-    private final Set<Entity> entities = Sets.newConcurrentHashSet();
+    private final int[] sizes = new int[EntityType.values().length];
+
+    /**
+     * A counter incremented whenever an entity enters, leaves, or moves within this region.
+     */
+    private int version;
 
     /**
      * Creates a new {@link Region}.
@@ -35,6 +53,10 @@ public final class Region {
      */
     Region(RegionCoordinates coordinates) {
         this.coordinates = coordinates;
+
+        for (int index = 0; index < entities.length; index++) {
+            entities[index] = new Entity[INITIAL_CAPACITY];
+        }
     }
 
     @Override
@@ -57,15 +79,69 @@ public final class Region {
     /**
      * Adds an entity to this region.
      */
-    public void addEntity(Entity e) {
-        entities.add(e);
+    void addEntity(Entity e) {
+        int type = e.getType().ordinal();
+        Entity[] typeEntities = entities[type];
+        int size = sizes[type];
+
+        if (size == typeEntities.length) {
+            typeEntities = Arrays.copyOf(typeEntities, size * 2);
+            entities[type] = typeEntities;
+        }
+        typeEntities[size] = e;
+        sizes[type] = size + 1;
+        version++;
+    }
+
+    /**
+     * Removes an entity from this region. The last entity of the same type takes its place.
+     */
+    void removeEntity(Entity e) {
+        int type = e.getType().ordinal();
+        Entity[] typeEntities = entities[type];
+        int last = sizes[type] - 1;
+
+        for (int index = last; index >= 0; index--) {
+            if (typeEntities[index] == e) {
+                typeEntities[index] = typeEntities[last];
+                typeEntities[last] = null;
+                sizes[type] = last;
+                version++;
+                return;
+            }
+        }
     }
 
     /**
-     * Removes an entity from this region.
+     * Records that an entity has moved within this region.
      */
-    public void removeEntity(Entity e) {
-        entities.remove(e);
+    void entityMoved() {
+        version++;
+    }
+
+    /**
+     * Visits all entities of the argued type viewable from {@code position}. Returns {@code false} if the visitor
+     * requested that visiting stop.
+     */
+    @SuppressWarnings("unchecked")
+    <E extends Entity> boolean visitViewable(EntityType type, Position position, EntityVisitor<E> visitor) {
+        Entity[] typeEntities = entities[type.ordinal()];
+        int size = sizes[type.ordinal()];
+
+        for (int index = 0; index < size; index++) {
+            Entity inRegion = typeEntities[index];
+            if (inRegion.getPosition().isViewable(position) && !visitor.visit((E) inRegion)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of entities of the argued type.
+     */
+    public int size(EntityType type) {
+        return sizes[type.ordinal()];
     }
 
     /**
@@ -73,23 +149,46 @@ public final class Region {
      */
     @SuppressWarnings("unchecked")
     public <E extends Entity> List<E> getEntities(EntityType type) {
-        List<E> filtered = new ArrayList<>();
-        entities.stream().filter(it -> it.getType() == type).forEach(it -> filtered.add((E) it));
+        Entity[] typeEntities = entities[type.ordinal()];
+        int size = sizes[type.ordinal()];
+
+        List<E> filtered = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            filtered.add((E) typeEntities[index]);
+        }
         return filtered;
     }
 
     /**
-     * Returns a shallow and immutable copy of the backing set.
+     * Returns a shallow and immutable copy of all entities.
      */
     public ImmutableList<Entity> toList() {
-        return ImmutableList.copyOf(entities);
+        return ImmutableList.copyOf(toArray());
     }
 
     /**
-     * Returns a shallow copy of the backing set.
+     * Returns a shallow copy of all entities.
      */
     public Entity[] toArray() {
-        return Iterables.toArray(entities, Entity.class);
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+
+        Entity[] all = new Entity[total];
+        int offset = 0;
+        for (int type = 0; type < entities.length; type++) {
+            System.arraycopy(entities[type], 0, all, offset, sizes[type]);
+            offset += sizes[type];
+        }
+        return all;
+    }
+
+    /**
+     * @return A counter incremented whenever an entity enters, leaves, or moves within this region.
+     */
+    public int getVersion() {
+        return version;
     }
 
     /**
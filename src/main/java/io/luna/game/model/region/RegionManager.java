@@ -2,22 +2,25 @@ package io.luna.game.model.region;
 
 import io.luna.LunaConstants;
 import io.luna.game.model.Entity;
+import io.luna.game.model.EntityConstants;
 import io.luna.game.model.EntityType;
 import io.luna.game.model.Position;
 import io.luna.game.model.mobile.Mob;
 import io.luna.game.model.mobile.Npc;
 import io.luna.game.model.mobile.Player;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
 
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * A model that manages regions occupied by entities.
+ * A model that manages regions occupied by entities. Regions act as the cells of a spatial index, keyed by their
+ * packed coordinates, that only contains {@code ACTIVE} entities.
+ * <p>
+ * The index is only modified on the game thread through {@link Entity#setState} and {@link Entity#setPosition}.
+ * Viewport queries never modify it and may be run concurrently while entities aren't being moved.
  *
  * @author lare96 <http://github.org/lare96>
  * @author Graham
@@ -25,55 +28,139 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class RegionManager {
 
     /**
-     * A map of regions currently or previously occupied by entities.
+     * A map of regions currently or previously occupied by entities, keyed by packed coordinates.
      */
-    private final Map<RegionCoordinates, Region> regions = new ConcurrentHashMap<>();
+    private final IntObjectMap<Region> regions = new IntObjectHashMap<>();
+
+    /**
+     * Packs region coordinates into a single key.
+     */
+    private static int key(int x, int y) {
+        return x << 16 | y;
+    }
 
     /**
      * Returns or constructs a region based on the argued coordinates.
      */
     public Region getRegion(int x, int y) {
-        return getRegion(new RegionCoordinates(x, y));
+        int key = key(x, y);
+        Region region = regions.get(key);
+        if (region == null) {
+            region = new Region(new RegionCoordinates(x, y));
+            regions.put(key, region);
+        }
+        return region;
     }
 
     /**
      * Returns or constructs a region based on the argued position.
      */
     public Region getRegion(Position pos) {
-        return getRegion(RegionCoordinates.create(pos));
+        return getRegion(pos.getX() / 32, pos.getY() / 32);
     }
 
     /**
      * Returns or constructs a region based on the argued region coordinates.
      */
     public Region getRegion(RegionCoordinates coordinates) {
-        return regions.computeIfAbsent(coordinates, Region::new);
+        return getRegion(coordinates.getX(), coordinates.getY());
     }
 
     /**
      * Determines if a cached region exists for a position.
      */
     public boolean exists(Position pos) {
-        return regions.containsKey(RegionCoordinates.create(pos));
+        return regions.containsKey(key(pos.getX() / 32, pos.getY() / 32));
     }
 
     /**
-     * Computes a set of entities within a region viewable from the argued position.
+     * Adds an entity that has become {@code ACTIVE} to the index and returns its region.
      */
-    @SuppressWarnings("unchecked")
-    public <E extends Entity> Set<E> getViewableEntities(Position position, EntityType type) {
-        List<Region> allRegions = getSurroundingRegions(position);
-        Set<E> entities = new HashSet<>();
+    public Region add(Entity entity) {
+        Region region = getRegion(entity.getPosition());
+        region.addEntity(entity);
+        return region;
+    }
+
+    /**
+     * Removes an entity that is no longer {@code ACTIVE} from the index.
+     */
+    public void remove(Entity entity, Region region) {
+        region.removeEntity(entity);
+    }
+
+    /**
+     * Moves an {@code ACTIVE} entity from {@code region} to the region containing {@code newPosition} and returns
+     * the new region.
+     */
+    public Region move(Entity entity, Region region, Position newPosition) {
+        RegionCoordinates coordinates = region.getCoordinates();
+        int x = newPosition.getX() / 32;
+        int y = newPosition.getY() / 32;
+        if (coordinates.getX() == x && coordinates.getY() == y) {
+            region.entityMoved();
+            return region;
+        }
 
-        for (Region region : allRegions) {
-            List<E> regionEntities = region.getEntities(type);
+        Region next = getRegion(x, y);
+        region.removeEntity(entity);
+        next.addEntity(entity);
+        return next;
+    }
 
-            for (Entity inRegion : regionEntities) {
-                if (inRegion.getPosition().isViewable(position)) {
-                    entities.add((E) inRegion);
+    /**
+     * Visits all entities of {@code type} viewable from {@code position}, stopping early if the visitor returns
+     * {@code false}. No regions are constructed and nothing is allocated.
+     */
+    public <E extends Entity> void visitViewable(Position position, EntityType type, EntityVisitor<E> visitor) {
+        int distance = EntityConstants.VIEWING_DISTANCE;
+        int minX = Math.max(position.getX() - distance, 0) / 32;
+        int minY = Math.max(position.getY() - distance, 0) / 32;
+        int maxX = (position.getX() + distance) / 32;
+        int maxY = (position.getY() + distance) / 32;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                Region region = regions.get(key(x, y));
+                if (region != null && !region.visitViewable(type, position, visitor)) {
+                    return;
                 }
             }
         }
+    }
+
+    /**
+     * Computes the combined version of all regions viewable from {@code position}. Because region versions only
+     * ever increase, a different result means an entity has entered, left, or moved within view.
+     */
+    public int computeVersion(Position position) {
+        int distance = EntityConstants.VIEWING_DISTANCE;
+        int minX = Math.max(position.getX() - distance, 0) / 32;
+        int minY = Math.max(position.getY() - distance, 0) / 32;
+        int maxX = (position.getX() + distance) / 32;
+        int maxY = (position.getY() + distance) / 32;
+
+        int version = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                Region region = regions.get(key(x, y));
+                if (region != null) {
+                    version += region.getVersion();
+                }
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Computes a set of entities within a region viewable from the argued position.
+     */
+    public <E extends Entity> Set<E> getViewableEntities(Position position, EntityType type) {
+        Set<E> entities = new HashSet<>();
+        this.<E>visitViewable(position, type, it -> {
+            entities.add(it);
+            return true;
+        });
         return entities;
     }
 
@@ -81,18 +168,11 @@ public final class RegionManager {
      * Computes a set of viewable players, potentially ordered using the region update comparator.
      */
     public Set<Player> getSurroundingPlayers(Player player) {
-        List<Region> allRegions = getSurroundingRegions(player.getPosition());
         Set<Player> localPlayers = getBackingSet(player);
-
-        for (Region region : allRegions) {
-            List<Player> regionPlayers = region.getEntities(EntityType.PLAYER);
-
-            for (Player inRegion : regionPlayers) {
-                if (inRegion.isViewable(player)) {
-                    localPlayers.add(inRegion);
-                }
-            }
-        }
+        this.<Player>visitViewable(player.getPosition(), EntityType.PLAYER, it -> {
+            localPlayers.add(it);
+            return true;
+        });
         return localPlayers;
     }
 
@@ -100,18 +180,11 @@ public final class RegionManager {
      * Computes a set of viewable NPCs, potentially ordered using the region update comparator.
      */
     public Set<Npc> getSurroundingNpcs(Player player) {
-        List<Region> allRegions = getSurroundingRegions(player.getPosition());
         Set<Npc> localNpcs = getBackingSet(player);
-
-        for (Region region : allRegions) {
-            List<Npc> regionNpcs = region.getEntities(EntityType.NPC);
-
-            for (Npc inRegion : regionNpcs) {
-                if (inRegion.isViewable(player)) {
-                    localNpcs.add(inRegion);
-                }
-            }
-        }
+        this.<Npc>visitViewable(player.getPosition(), EntityType.NPC, it -> {
+            localNpcs.add(it);
+            return true;
+        });
         return localNpcs;
     }
 
@@ -122,75 +195,4 @@ public final class RegionManager {
         return LunaConstants.STAGGERED_UPDATING ? new TreeSet<>(new RegionUpdateComparator(player)) :
             new HashSet<>();
     }
-
-    /**
-     * Computes a list of regions surrounding a position.
-     */
-    private List<Region> getSurroundingRegions(Position pos) {
-        RegionCoordinates coordinates = RegionCoordinates.create(pos);
-
-        int regionX = coordinates.getX();
-        int regionY = coordinates.getY();
-
-        List<Region> regions = new LinkedList<>();
-        regions.add(getRegion(coordinates)); // Initial region.
-
-        int x = pos.getX() % 32;
-        int y = pos.getY() % 32;
-
-        if (y == 15 || y == 16) {
-            // Middle of region.
-
-            if (x > 16) {
-
-                // Middle-right part of region.
-                regions.add(getRegion(regionX + 1, regionY));
-            } else if (x < 15) {
-
-                // Middle-left part of region.
-                regions.add(getRegion(regionX - 1, regionY));
-            }
-        } else if (y > 16) {
-            // Top part of region.
-
-            if (x > 16) {
-
-                // Top-right part of region.
-                regions.add(getRegion(regionX, regionY + 1));
-                regions.add(getRegion(regionX + 1, regionY));
-                regions.add(getRegion(regionX + 1, regionY + 1));
-            } else if (x < 15) {
-
-                // Top-left part of region.
-                regions.add(getRegion(regionX, regionY + 1));
-                regions.add(getRegion(regionX - 1, regionY));
-                regions.add(getRegion(regionX - 1, regionY + 1));
-            } else if (x == 15 || x == 16) {
-
-                // Top-middle part of region.
-                regions.add(getRegion(regionX, regionY + 1));
-            }
-        } else if (y < 15) {
-            // Bottom part of region.
-
-            if (x > 16) {
-
-                // Bottom-right part of region.
-                regions.add(getRegion(regionX, regionY - 1));
-                regions.add(getRegion(regionX + 1, regionY));
-                regions.add(getRegion(regionX + 1, regionY - 1));
-            } else if (x < 15) {
-
-                // Bottom-left part of region.
-                regions.add(getRegion(regionX, regionY - 1));
-                regions.add(getRegion(regionX - 1, regionY));
-                regions.add(getRegion(regionX - 1, regionY - 1));
-            } else if (x == 15 || x == 16) {
-
-                // Bottom-middle part of region.
-                regions.add(getRegion(regionX, regionY - 1));
-            }
-        }
-        return regions;
-    }
 }
@@ -0,0 +1,74 @@
+package io.luna.game.profile;
+
+import io.luna.LunaConstants;
+
+/**
+ * An enumerated type whose elements represent the stages of load shedding. What each stage does is configured in
+ * the {@code load_shedding} section of {@code luna.toml}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public enum LoadLevel {
+
+    /**
+     * Ticks are finishing on time, nothing is shed.
+     */
+    NORMAL,
+
+    /**
+     * Ticks are running close to their length, by default fewer logins are admitted.
+     */
+    ELEVATED,
+
+    /**
+     * Ticks are at their length, by default deferrable tasks are paused and fewer mobs enter viewports.
+     */
+    HIGH,
+
+    /**
+     * Ticks are overrunning, by default logins and viewports are throttled hard and flooding channels are paused.
+     */
+    CRITICAL;
+
+    /**
+     * @return The measures taken during this stage.
+     */
+    public LoadLevelPolicy getPolicy() {
+        return LunaConstants.LOAD_SHEDDING.get(this);
+    }
+
+    /**
+     * Returns the load, as a fraction of the tick length, at which this stage starts.
+     */
+    public double getThreshold() {
+        return getPolicy().getThreshold();
+    }
+
+    /**
+     * @return The amount of players that can login per tick.
+     */
+    public int getLoginThreshold() {
+        return getPolicy().getLoginThreshold();
+    }
+
+    /**
+     * @return The amount of mobs that can enter a viewport per tick.
+     */
+    public int getEnteringLimit() {
+        return getPolicy().getEnteringLimit();
+    }
+
+    /**
+     * @return {@code true} if deferrable tasks should be paused.
+     */
+    public boolean isDeferringTasks() {
+        return getPolicy().isDeferringTasks();
+    }
+
+    /**
+     * @return {@code true} if reading from flooding channels should be paused.
+     */
+    public boolean isPausingFloods() {
+        return getPolicy().isPausingFloods();
+    }
+}
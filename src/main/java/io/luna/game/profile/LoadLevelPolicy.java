@@ -0,0 +1,87 @@
+package io.luna.game.profile;
+
+/**
+ * The measures taken during a {@link LoadLevel}, read from the {@code load_shedding} section of {@code luna.toml}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoadLevelPolicy {
+
+    /**
+     * The load, as a fraction of the tick length, at which the stage starts.
+     */
+    private final double threshold;
+
+    /**
+     * The amount of players that can login per tick.
+     */
+    private final int loginThreshold;
+
+    /**
+     * The amount of mobs that can enter a viewport per tick.
+     */
+    private final int enteringLimit;
+
+    /**
+     * If deferrable tasks should be paused.
+     */
+    private final boolean deferringTasks;
+
+    /**
+     * If reading from flooding channels should be paused.
+     */
+    private final boolean pausingFloods;
+
+    /**
+     * Creates a new {@link LoadLevelPolicy}.
+     *
+     * @param threshold The load, as a fraction of the tick length, at which the stage starts.
+     * @param loginThreshold The amount of players that can login per tick.
+     * @param enteringLimit The amount of mobs that can enter a viewport per tick.
+     * @param deferringTasks If deferrable tasks should be paused.
+     * @param pausingFloods If reading from flooding channels should be paused.
+     */
+    public LoadLevelPolicy(double threshold, int loginThreshold, int enteringLimit, boolean deferringTasks,
+                           boolean pausingFloods) {
+        this.threshold = threshold;
+        this.loginThreshold = loginThreshold;
+        this.enteringLimit = enteringLimit;
+        this.deferringTasks = deferringTasks;
+        this.pausingFloods = pausingFloods;
+    }
+
+    /**
+     * @return The load, as a fraction of the tick length, at which the stage starts.
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return The amount of players that can login per tick.
+     */
+    public int getLoginThreshold() {
+        return loginThreshold;
+    }
+
+    /**
+     * @return The amount of mobs that can enter a viewport per tick.
+     */
+    public int getEnteringLimit() {
+        return enteringLimit;
+    }
+
+    /**
+     * @return {@code true} if deferrable tasks should be paused.
+     */
+    public boolean isDeferringTasks() {
+        return deferringTasks;
+    }
+
+    /**
+     * @return {@code true} if reading from flooding channels should be paused.
+     */
+    public boolean isPausingFloods() {
+        return pausingFloods;
+    }
+}
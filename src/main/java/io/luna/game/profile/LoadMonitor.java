@@ -0,0 +1,167 @@
+package io.luna.game.profile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * A model that tracks a smoothed measure of how much of each tick is being used, and selects the {@link LoadLevel}
+ * the game should be running at. Load is sampled on the game thread at the end of every tick.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoadMonitor implements LoadMonitorMXBean {
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The weight of the most recent tick in the smoothed load.
+     */
+    private static final double SMOOTHING = 0.25;
+
+    /**
+     * The fraction of a stage's threshold the load must drop below before leaving that stage.
+     */
+    private static final double HYSTERESIS = 0.9;
+
+    /**
+     * The load levels.
+     */
+    private static final LoadLevel[] LEVELS = LoadLevel.values();
+
+    /**
+     * The current load level.
+     */
+    private volatile LoadLevel level = LoadLevel.NORMAL;
+
+    /**
+     * The smoothed load.
+     */
+    private volatile double load;
+
+    /**
+     * How late the last tick started.
+     */
+    private volatile long tickDebt;
+
+    /**
+     * The amount of times the load level has changed.
+     */
+    private volatile long levelChanges;
+
+    /**
+     * The amount of ticks logins were throttled.
+     */
+    private volatile long throttledLoginTicks;
+
+    /**
+     * The amount of task executions deferred.
+     */
+    private volatile long deferredTasks;
+
+    /**
+     * The amount of times reading from a flooding channel was paused.
+     */
+    private volatile long pausedReads;
+
+    /**
+     * Registers this monitor with the platform MBean server.
+     */
+    public void registerMBean() throws Exception {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("io.luna:type=LoadMonitor"));
+    }
+
+    /**
+     * Samples the load of a tick that took {@code tickNanos} and started {@code debtNanos} late, then selects the
+     * load level for the next tick.
+     */
+    public void update(long tickNanos, long debtNanos) {
+        double sample = (double) (tickNanos + debtNanos) / TickProfiler.TICK_NANOS;
+        load = load + SMOOTHING * (sample - load);
+        tickDebt = debtNanos;
+
+        LoadLevel next = LoadLevel.NORMAL;
+        for (LoadLevel stage : LEVELS) {
+            double threshold = stage.getThreshold();
+            if (stage.ordinal() <= level.ordinal()) {
+                threshold *= HYSTERESIS;
+            }
+            if (load >= threshold) {
+                next = stage;
+            }
+        }
+        if (next != level) {
+            LOGGER.warn("Load level changed from {} to {} (load {}).", level, next, String.format("%.2f", load));
+            level = next;
+            levelChanges++;
+        }
+    }
+
+    /**
+     * Records that logins were throttled this tick.
+     */
+    public void loginsThrottled() {
+        throttledLoginTicks++;
+    }
+
+    /**
+     * Records that {@code amount} task executions were deferred this tick.
+     */
+    public void tasksDeferred(int amount) {
+        deferredTasks += amount;
+    }
+
+    /**
+     * Records that reading from a flooding channel was paused.
+     */
+    public void readPaused() {
+        pausedReads++;
+    }
+
+    /**
+     * @return The current load level.
+     */
+    public LoadLevel getLoadLevel() {
+        return level;
+    }
+
+    @Override
+    public String getLevel() {
+        return level.name();
+    }
+
+    @Override
+    public double getLoad() {
+        return load;
+    }
+
+    @Override
+    public long getTickDebtNanos() {
+        return tickDebt;
+    }
+
+    @Override
+    public long getLevelChanges() {
+        return levelChanges;
+    }
+
+    @Override
+    public long getThrottledLoginTicks() {
+        return throttledLoginTicks;
+    }
+
+    @Override
+    public long getDeferredTasks() {
+        return deferredTasks;
+    }
+
+    @Override
+    public long getPausedReads() {
+        return pausedReads;
+    }
+}
@@ -0,0 +1,44 @@
+package io.luna.game.profile;
+
+/**
+ * The management interface for load shedding metrics.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface LoadMonitorMXBean {
+
+    /**
+     * @return The name of the current {@link LoadLevel}.
+     */
+    String getLevel();
+
+    /**
+     * @return The smoothed load, as a fraction of the tick length.
+     */
+    double getLoad();
+
+    /**
+     * @return How late the last tick started, in nanoseconds.
+     */
+    long getTickDebtNanos();
+
+    /**
+     * @return The amount of times the load level has changed.
+     */
+    long getLevelChanges();
+
+    /**
+     * @return The amount of ticks logins were throttled.
+     */
+    long getThrottledLoginTicks();
+
+    /**
+     * @return The amount of task executions deferred.
+     */
+    long getDeferredTasks();
+
+    /**
+     * @return The amount of times reading from a flooding channel was paused.
+     */
+    long getPausedReads();
+}
@@ -0,0 +1,60 @@
+package io.luna.game.profile;
+
+/**
+ * A {@link PhaseProfileMXBean} implementation backed by a {@link RollingHistogram}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PhaseProfile implements PhaseProfileMXBean {
+
+    /**
+     * The timings.
+     */
+    private final RollingHistogram histogram;
+
+    /**
+     * Creates a new {@link PhaseProfile}.
+     *
+     * @param window The amount of recent ticks to keep.
+     */
+    PhaseProfile(int window) {
+        histogram = new RollingHistogram(window);
+    }
+
+    /**
+     * Records the time taken during a tick.
+     */
+    void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    @Override
+    public long getLastNanos() {
+        return histogram.last();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return histogram.mean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return histogram.percentile(50);
+    }
+
+    @Override
+    public long getP95Nanos() {
+        return histogram.percentile(95);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return histogram.percentile(99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return histogram.max();
+    }
+}
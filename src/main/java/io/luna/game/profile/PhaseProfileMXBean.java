@@ -0,0 +1,40 @@
+package io.luna.game.profile;
+
+/**
+ * The management interface for the timings of a single {@link TickPhase}. All times are in nanoseconds over the
+ * rolling window.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface PhaseProfileMXBean {
+
+    /**
+     * @return The time taken during the last tick.
+     */
+    long getLastNanos();
+
+    /**
+     * @return The mean time taken.
+     */
+    double getMeanNanos();
+
+    /**
+     * @return The median time taken.
+     */
+    long getP50Nanos();
+
+    /**
+     * @return The 95th percentile of time taken.
+     */
+    long getP95Nanos();
+
+    /**
+     * @return The 99th percentile of time taken.
+     */
+    long getP99Nanos();
+
+    /**
+     * @return The largest time taken.
+     */
+    long getMaxNanos();
+}
@@ -0,0 +1,101 @@
+package io.luna.game.profile;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size window of the most recent samples, used to compute rolling percentiles. Samples may be recorded and
+ * read from any thread.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class RollingHistogram {
+
+    /**
+     * The samples, in a ring.
+     */
+    private final long[] samples;
+
+    /**
+     * The total amount of samples recorded.
+     */
+    private long count;
+
+    /**
+     * Creates a new {@link RollingHistogram}.
+     *
+     * @param window The amount of recent samples to keep.
+     */
+    public RollingHistogram(int window) {
+        samples = new long[window];
+    }
+
+    /**
+     * Records a new sample, replacing the oldest one if the window is full.
+     */
+    public synchronized void record(long value) {
+        samples[(int) (count++ % samples.length)] = value;
+    }
+
+    /**
+     * Returns the sample at {@code percentile} (between {@code 0} and {@code 100}) of the window, or {@code 0} if
+     * nothing has been recorded.
+     */
+    public synchronized long percentile(double percentile) {
+        int size = size();
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+
+    /**
+     * Returns the mean of the window, or {@code 0} if nothing has been recorded.
+     */
+    public synchronized double mean() {
+        int size = size();
+        if (size == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int index = 0; index < size; index++) {
+            total += samples[index];
+        }
+        return (double) total / size;
+    }
+
+    /**
+     * Returns the largest sample in the window.
+     */
+    public synchronized long max() {
+        long max = 0;
+        for (int index = 0; index < size(); index++) {
+            max = Math.max(max, samples[index]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the most recent sample.
+     */
+    public synchronized long last() {
+        return count == 0 ? 0 : samples[(int) ((count - 1) % samples.length)];
+    }
+
+    /**
+     * Returns the total amount of samples recorded.
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * Returns the amount of samples in the window.
+     */
+    private int size() {
+        return (int) Math.min(count, samples.length);
+    }
+}
@@ -0,0 +1,17 @@
+package io.luna.game.profile;
+
+/**
+ * An enumerated type whose elements represent the phases of a single game tick, in the order they run.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public enum TickPhase {
+    SYNC_TASKS,
+    LOGINS,
+    TASKS,
+    PRE_SYNCHRONIZE,
+    SYNCHRONIZE,
+    POST_SYNCHRONIZE,
+    LOGOUTS,
+    AUTOSAVE
+}
@@ -0,0 +1,246 @@
+package io.luna.game.profile;
+
+import io.luna.LunaConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A model that times each {@link TickPhase} of every game tick, keeps rolling percentiles of those timings, and
+ * logs a per-phase breakdown of any tick that exceeds {@link LunaConstants#TICK_OVERRUN_THRESHOLD} of the tick
+ * length. Timings are recorded on the game thread and exposed through JMX.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class TickProfiler implements TickProfilerMXBean {
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The length of a tick, in nanoseconds.
+     */
+    public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(600);
+
+    /**
+     * The amount of recent ticks percentiles are computed over, one minute's worth.
+     */
+    private static final int WINDOW = 100;
+
+    /**
+     * The JMX object name of this profiler.
+     */
+    public static final String OBJECT_NAME = "io.luna:type=TickProfiler";
+
+    /**
+     * The tick phases.
+     */
+    private static final TickPhase[] PHASES = TickPhase.values();
+
+    /**
+     * The timings of each phase, indexed by ordinal.
+     */
+    private final PhaseProfile[] profiles = new PhaseProfile[PHASES.length];
+
+    /**
+     * The timings of each phase during the current tick, indexed by ordinal.
+     */
+    private final long[] phaseNanos = new long[PHASES.length];
+
+    /**
+     * The timings of whole ticks.
+     */
+    private final RollingHistogram ticks = new RollingHistogram(WINDOW);
+
+    /**
+     * The time the current tick started.
+     */
+    private long tickStart;
+
+    /**
+     * The time the current phase started.
+     */
+    private long phaseStart;
+
+    /**
+     * The amount of inbound messages handled during the current tick.
+     */
+    private int messages;
+
+    /**
+     * The amount of ticks that exceeded the overrun threshold.
+     */
+    private volatile long overrunCount;
+
+    /**
+     * The amount of players during the last tick.
+     */
+    private volatile int playerCount;
+
+    /**
+     * The amount of npcs during the last tick.
+     */
+    private volatile int npcCount;
+
+    /**
+     * The amount of scheduled tasks during the last tick.
+     */
+    private volatile int taskCount;
+
+    /**
+     * The amount of inbound messages handled during the last tick.
+     */
+    private volatile int messageCount;
+
+    /**
+     * Creates a new {@link TickProfiler}.
+     */
+    public TickProfiler() {
+        for (int index = 0; index < profiles.length; index++) {
+            profiles[index] = new PhaseProfile(WINDOW);
+        }
+    }
+
+    /**
+     * Registers this profiler and the profile of each phase with the platform MBean server.
+     */
+    public void registerMBeans() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        for (TickPhase phase : PHASES) {
+            server.registerMBean(profiles[phase.ordinal()], new ObjectName(OBJECT_NAME + ",phase=" + phase));
+        }
+    }
+
+    /**
+     * Marks the start of a tick.
+     */
+    public void startTick() {
+        tickStart = System.nanoTime();
+        phaseStart = tickStart;
+        messages = 0;
+        for (int index = 0; index < phaseNanos.length; index++) {
+            phaseNanos[index] = 0;
+        }
+    }
+
+    /**
+     * Marks the end of {@code phase}, which is timed from the end of the previous phase.
+     */
+    public void endPhase(TickPhase phase) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] = now - phaseStart;
+        phaseStart = now;
+    }
+
+    /**
+     * Adds to the amount of inbound messages handled during the current tick.
+     */
+    public void addMessages(int amount) {
+        messages += amount;
+    }
+
+    /**
+     * Marks the end of a tick, recording all timings and logging a breakdown if the tick overran.
+     */
+    public void endTick(int players, int npcs, int tasks) {
+        long tickNanos = System.nanoTime() - tickStart;
+        ticks.record(tickNanos);
+        for (int index = 0; index < profiles.length; index++) {
+            profiles[index].record(phaseNanos[index]);
+        }
+        playerCount = players;
+        npcCount = npcs;
+        taskCount = tasks;
+        messageCount = messages;
+
+        if (tickNanos > TICK_NANOS * LunaConstants.TICK_OVERRUN_THRESHOLD) {
+            overrunCount++;
+            logOverrun(tickNanos);
+        }
+    }
+
+    /**
+     * Logs a per-phase breakdown of an overrunning tick.
+     */
+    private void logOverrun(long tickNanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tick took ").append(toMillis(tickNanos)).append("ms [");
+        for (TickPhase phase : PHASES) {
+            sb.append(phase).append('=').append(toMillis(phaseNanos[phase.ordinal()])).append("ms, ");
+        }
+        sb.append("players=").append(playerCount).append(", npcs=").append(npcCount).append(", tasks=")
+            .append(taskCount).append(", messages=").append(messageCount).append(']');
+        LOGGER.warn(sb.toString());
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds, with two decimal places.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 10_000 / 100.0;
+    }
+
+    @Override
+    public long getTickCount() {
+        return ticks.count();
+    }
+
+    @Override
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    @Override
+    public int getNpcCount() {
+        return npcCount;
+    }
+
+    @Override
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    @Override
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    @Override
+    public long getLastTickNanos() {
+        return ticks.last();
+    }
+
+    @Override
+    public long getP50TickNanos() {
+        return ticks.percentile(50);
+    }
+
+    @Override
+    public long getP99TickNanos() {
+        return ticks.percentile(99);
+    }
+
+    @Override
+    public long getMaxTickNanos() {
+        return ticks.max();
+    }
+
+    /**
+     * Returns the timings of {@code phase}.
+     */
+    public PhaseProfile getProfile(TickPhase phase) {
+        return profiles[phase.ordinal()];
+    }
+}
@@ -0,0 +1,60 @@
+package io.luna.game.profile;
+
+/**
+ * The management interface for whole-tick timings and counts. Per-phase timings are exposed through
+ * {@link PhaseProfileMXBean}s.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface TickProfilerMXBean {
+
+    /**
+     * @return The amount of ticks profiled.
+     */
+    long getTickCount();
+
+    /**
+     * @return The amount of ticks that exceeded the overrun threshold.
+     */
+    long getOverrunCount();
+
+    /**
+     * @return The amount of players during the last tick.
+     */
+    int getPlayerCount();
+
+    /**
+     * @return The amount of npcs during the last tick.
+     */
+    int getNpcCount();
+
+    /**
+     * @return The amount of scheduled tasks during the last tick.
+     */
+    int getTaskCount();
+
+    /**
+     * @return The amount of inbound messages handled during the last tick.
+     */
+    int getMessageCount();
+
+    /**
+     * @return The time taken by the last tick, in nanoseconds.
+     */
+    long getLastTickNanos();
+
+    /**
+     * @return The median time taken per tick, in nanoseconds.
+     */
+    long getP50TickNanos();
+
+    /**
+     * @return The 99th percentile of time taken per tick, in nanoseconds.
+     */
+    long getP99TickNanos();
+
+    /**
+     * @return The largest time taken per tick, in nanoseconds.
+     */
+    long getMaxTickNanos();
+}
@@ -0,0 +1,84 @@
+package io.luna.game.profile;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A model that counts one kind of traffic: how often it happened, its total bytes and time, and a histogram of its
+ * sizes. Counters are striped so any amount of threads can record without contending on a lock.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+final class TrafficCounter {
+
+    /**
+     * The amount of size buckets. Bucket {@code n} holds sizes in {@code [2^(n-1), 2^n)}, so the last bucket holds
+     * every size of at least {@code 32768}.
+     */
+    static final int BUCKETS = 17;
+
+    /**
+     * The amount of times this was recorded.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The total bytes.
+     */
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * The total time, in nanoseconds.
+     */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * The size histogram.
+     */
+    private final LongAdder[] sizes = new LongAdder[BUCKETS];
+
+    /**
+     * Creates a new {@link TrafficCounter}.
+     */
+    TrafficCounter() {
+        for (int index = 0; index < sizes.length; index++) {
+            sizes[index] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records {@code amount} bytes that took {@code time} nanoseconds.
+     */
+    void record(int amount, long time) {
+        count.increment();
+        bytes.add(amount);
+        nanos.add(time);
+        sizes[Math.min(BUCKETS - 1, Integer.SIZE - Integer.numberOfLeadingZeros(amount))].increment();
+    }
+
+    /**
+     * Returns the current totals as {@code name}, or {@code null} if nothing was recorded.
+     */
+    TrafficStatistics snapshot(String name) {
+        long currentCount = count.sum();
+        if (currentCount == 0) {
+            return null;
+        }
+        long[] histogram = new long[BUCKETS];
+        for (int index = 0; index < histogram.length; index++) {
+            histogram[index] = sizes[index].sum();
+        }
+        return new TrafficStatistics(name, currentCount, bytes.sum(), nanos.sum(), histogram);
+    }
+
+    /**
+     * Resets every total to {@code 0}. Records made while resetting may be partly lost.
+     */
+    void reset() {
+        count.reset();
+        bytes.reset();
+        nanos.reset();
+        for (LongAdder size : sizes) {
+            size.reset();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.luna.game.profile;
+
+import io.luna.game.model.EntityType;
+import io.luna.game.model.mobile.update.UpdateFlagSet.UpdateFlag;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link TrafficProfilerMXBean} implementation that accounts for bandwidth and encoding time by inbound opcode,
+ * outbound opcode, message writer, and update block. Recording never locks, and is safe from any thread.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class TrafficProfiler implements TrafficProfilerMXBean {
+
+    /**
+     * The amount of opcodes.
+     */
+    private static final int OPCODES = 256;
+
+    /**
+     * The amount of update flags.
+     */
+    private static final int FLAGS = UpdateFlag.values().length;
+
+    /**
+     * Orders statistics by total bytes, largest first.
+     */
+    private static final Comparator<TrafficStatistics> ORDER = Comparator
+        .comparingLong(TrafficStatistics::getBytes).reversed();
+
+    /**
+     * The messages read from clients, indexed by opcode.
+     */
+    private final TrafficCounter[] inbound = newCounters(OPCODES);
+
+    /**
+     * The messages written to clients, indexed by opcode.
+     */
+    private final TrafficCounter[] outbound = newCounters(OPCODES);
+
+    /**
+     * The player update blocks, indexed by update flag.
+     */
+    private final TrafficCounter[] playerBlocks = newCounters(FLAGS);
+
+    /**
+     * The npc update blocks, indexed by update flag.
+     */
+    private final TrafficCounter[] npcBlocks = newCounters(FLAGS);
+
+    /**
+     * The cached player update blocks copied for other viewers.
+     */
+    private final TrafficCounter cachedPlayerBlocks = new TrafficCounter();
+
+    /**
+     * The cached npc update blocks copied for other viewers.
+     */
+    private final TrafficCounter cachedNpcBlocks = new TrafficCounter();
+
+    /**
+     * The messages written by each message writer type.
+     */
+    private final ConcurrentMap<Class<?>, TrafficCounter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * Registers this profiler with the platform MBean server.
+     */
+    public void registerMBean() throws Exception {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("io.luna:type=TrafficProfiler"));
+    }
+
+    /**
+     * Records a message of {@code bytes}, including its header, read from a client.
+     */
+    public void inbound(int opcode, int bytes) {
+        inbound[opcode].record(bytes, 0);
+    }
+
+    /**
+     * Records a message of {@code bytes}, including its header, that a {@code writer} took {@code nanos} to write.
+     */
+    public void outbound(Class<?> writer, int opcode, int bytes, long nanos) {
+        outbound[opcode].record(bytes, nanos);
+
+        TrafficCounter counter = writers.get(writer);
+        if (counter == null) {
+            counter = writers.computeIfAbsent(writer, key -> new TrafficCounter());
+        }
+        counter.record(bytes, nanos);
+    }
+
+    /**
+     * Records an update block of {@code bytes} that took {@code nanos} to encode.
+     */
+    public void updateBlock(EntityType type, UpdateFlag flag, int bytes, long nanos) {
+        TrafficCounter[] blocks = type == EntityType.PLAYER ? playerBlocks : npcBlocks;
+        blocks[flag.ordinal()].record(bytes, nanos);
+    }
+
+    /**
+     * Records cached update blocks of {@code bytes} being copied for another viewer.
+     */
+    public void cachedUpdateBlocks(EntityType type, int bytes) {
+        TrafficCounter counter = type == EntityType.PLAYER ? cachedPlayerBlocks : cachedNpcBlocks;
+        counter.record(bytes, 0);
+    }
+
+    @Override
+    public List<TrafficStatistics> getInbound() {
+        return snapshotOpcodes(inbound);
+    }
+
+    @Override
+    public List<TrafficStatistics> getOutbound() {
+        return snapshotOpcodes(outbound);
+    }
+
+    @Override
+    public List<TrafficStatistics> getWriters() {
+        List<TrafficStatistics> statistics = new ArrayList<>();
+        for (Entry<Class<?>, TrafficCounter> entry : writers.entrySet()) {
+            add(statistics, entry.getValue(), entry.getKey().getSimpleName());
+        }
+        statistics.sort(ORDER);
+        return statistics;
+    }
+
+    @Override
+    public List<TrafficStatistics> getUpdateBlocks() {
+        List<TrafficStatistics> statistics = new ArrayList<>();
+        for (UpdateFlag flag : UpdateFlag.values()) {
+            add(statistics, playerBlocks[flag.ordinal()], "PLAYER_" + flag);
+            add(statistics, npcBlocks[flag.ordinal()], "NPC_" + flag);
+        }
+        add(statistics, cachedPlayerBlocks, "PLAYER_CACHED");
+        add(statistics, cachedNpcBlocks, "NPC_CACHED");
+        statistics.sort(ORDER);
+        return statistics;
+    }
+
+    @Override
+    public void reset() {
+        for (TrafficCounter[] counters : new TrafficCounter[][] { inbound, outbound, playerBlocks, npcBlocks }) {
+            for (TrafficCounter counter : counters) {
+                counter.reset();
+            }
+        }
+        cachedPlayerBlocks.reset();
+        cachedNpcBlocks.reset();
+        writers.values().forEach(TrafficCounter::reset);
+    }
+
+    /**
+     * Returns the statistics of every opcode that was recorded.
+     */
+    private List<TrafficStatistics> snapshotOpcodes(TrafficCounter[] counters) {
+        List<TrafficStatistics> statistics = new ArrayList<>();
+        for (int opcode = 0; opcode < counters.length; opcode++) {
+            add(statistics, counters[opcode], Integer.toString(opcode));
+        }
+        statistics.sort(ORDER);
+        return statistics;
+    }
+
+    /**
+     * Adds a snapshot of {@code counter} to {@code statistics}, if anything was recorded.
+     */
+    private void add(List<TrafficStatistics> statistics, TrafficCounter counter, String name) {
+        TrafficStatistics snapshot = counter.snapshot(name);
+        if (snapshot != null) {
+            statistics.add(snapshot);
+        }
+    }
+
+    /**
+     * Creates {@code amount} new counters.
+     */
+    private static TrafficCounter[] newCounters(int amount) {
+        TrafficCounter[] counters = new TrafficCounter[amount];
+        for (int index = 0; index < amount; index++) {
+            counters[index] = new TrafficCounter();
+        }
+        return counters;
+    }
+}
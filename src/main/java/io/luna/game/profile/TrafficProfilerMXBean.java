@@ -0,0 +1,38 @@
+package io.luna.game.profile;
+
+import java.util.List;
+
+/**
+ * The management interface for traffic accounting. Every list is sorted by total bytes, largest first, and leaves
+ * out anything that hasn't happened yet.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface TrafficProfilerMXBean {
+
+    /**
+     * @return The messages read from clients, by opcode.
+     */
+    List<TrafficStatistics> getInbound();
+
+    /**
+     * @return The messages written to clients, by opcode.
+     */
+    List<TrafficStatistics> getOutbound();
+
+    /**
+     * @return The time spent and bytes written by each {@code MessageWriter} type.
+     */
+    List<TrafficStatistics> getWriters();
+
+    /**
+     * @return The time spent and bytes written encoding each update block, by mob type and update flag. Cached blocks
+     * copied for other viewers are counted separately, by mob type.
+     */
+    List<TrafficStatistics> getUpdateBlocks();
+
+    /**
+     * Resets every count to {@code 0}.
+     */
+    void reset();
+}
@@ -0,0 +1,89 @@
+package io.luna.game.profile;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * An immutable snapshot of a {@link TrafficCounter}, exposed through {@link TrafficProfilerMXBean}.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class TrafficStatistics {
+
+    /**
+     * What was counted, such as an opcode or update block.
+     */
+    private final String name;
+
+    /**
+     * The amount of times it happened.
+     */
+    private final long count;
+
+    /**
+     * The total bytes.
+     */
+    private final long bytes;
+
+    /**
+     * The total time, in nanoseconds.
+     */
+    private final long nanos;
+
+    /**
+     * The size histogram, where bucket {@code n} counts sizes in {@code [2^(n-1), 2^n)}.
+     */
+    private final long[] sizeHistogram;
+
+    /**
+     * Creates a new {@link TrafficStatistics}.
+     *
+     * @param name What was counted.
+     * @param count The amount of times it happened.
+     * @param bytes The total bytes.
+     * @param nanos The total time, in nanoseconds.
+     * @param sizeHistogram The size histogram.
+     */
+    @ConstructorProperties({ "name", "count", "bytes", "nanos", "sizeHistogram" })
+    public TrafficStatistics(String name, long count, long bytes, long nanos, long[] sizeHistogram) {
+        this.name = name;
+        this.count = count;
+        this.bytes = bytes;
+        this.nanos = nanos;
+        this.sizeHistogram = sizeHistogram;
+    }
+
+    /**
+     * @return What was counted.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The amount of times it happened.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The total bytes.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return The total time, in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return The size histogram.
+     */
+    public long[] getSizeHistogram() {
+        return sizeHistogram.clone();
+    }
+}
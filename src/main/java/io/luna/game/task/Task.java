@@ -36,6 +36,11 @@ public abstract class Task {
      */
     private Optional<Object> key = Optional.empty();
 
+    /**
+     * If this task can be paused while the server is under heavy load.
+     */
+    private boolean deferrable;
+
     /**
      * Creates a new {@link Task}.
      *
@@ -120,6 +125,21 @@ public abstract class Task {
         return this;
     }
 
+    /**
+     * Sets if this task can be paused while the server is under heavy load.
+     */
+    public Task setDeferrable(boolean newDeferrable) {
+        deferrable = newDeferrable;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if this task can be paused while the server is under heavy load.
+     */
+    public boolean isDeferrable() {
+        return deferrable;
+    }
+
     /**
      * @return {@code true} if execution happens instantly upon being scheduled.
      */
@@ -49,9 +49,11 @@ public final class TaskManager {
     }
 
     /**
-     * A function that runs an iteration of task processing.
+     * A function that runs an iteration of task processing. If {@code deferring}, deferrable tasks are paused for
+     * this iteration. Returns the amount of tasks that were paused.
      */
-    public void runTaskIteration() {
+    public int runTaskIteration(boolean deferring) {
+        int deferred = 0;
         Iterator<Task> iterator = awaitingExecution.iterator();
         while (iterator.hasNext()) {
             Task it = iterator.next();
@@ -60,6 +62,10 @@ public final class TaskManager {
                 iterator.remove();
                 continue;
             }
+            if (deferring && it.isDeferrable()) {
+                deferred++;
+                continue;
+            }
             it.onLoop();
             if (it.canExecute()) {
                 executionQueue.add(it);
@@ -79,6 +85,14 @@ public final class TaskManager {
                 LOGGER.catching(e);
             }
         }
+        return deferred;
+    }
+
+    /**
+     * Returns the amount of tasks awaiting execution.
+     */
+    public int size() {
+        return awaitingExecution.size();
     }
 
     /**
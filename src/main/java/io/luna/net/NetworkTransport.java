@@ -0,0 +1,121 @@
+package io.luna.net;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An enumerated type whose elements represent the transports Netty can use to accept and serve connections.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public enum NetworkTransport {
+
+    /**
+     * Use {@link #EPOLL} if the native library can be loaded, otherwise {@link #NIO}.
+     */
+    AUTO {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return resolve().newEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannel() {
+            return resolve().getServerChannel();
+        }
+
+        @Override
+        public Class<? extends Channel> getClientChannel() {
+            return resolve().getClientChannel();
+        }
+    },
+
+    /**
+     * The native Linux transport, which uses edge-triggered epoll and produces less garbage than {@link #NIO}.
+     */
+    EPOLL {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannel() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> getClientChannel() {
+            return EpollSocketChannel.class;
+        }
+    },
+
+    /**
+     * The portable transport built on {@code java.nio}, available on every platform.
+     */
+    NIO {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new NioEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannel() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> getClientChannel() {
+            return NioSocketChannel.class;
+        }
+    };
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Determines the transport that will actually be used. {@link #AUTO} and an unavailable {@link #EPOLL} both
+     * fall back to {@link #NIO}.
+     */
+    public NetworkTransport resolve() {
+        if (this == NIO) {
+            return NIO;
+        }
+        if (Epoll.isAvailable()) {
+            return EPOLL;
+        }
+        if (this == EPOLL) {
+            LOGGER.warn("Native epoll transport unavailable, falling back to NIO.", Epoll.unavailabilityCause());
+        }
+        return NIO;
+    }
+
+    /**
+     * Creates a new event loop group for this transport. A thread count of {@code 0} uses Netty's default.
+     */
+    public abstract EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory);
+
+    /**
+     * Returns the server channel type for this transport.
+     */
+    public abstract Class<? extends ServerChannel> getServerChannel();
+
+    /**
+     * Returns the client channel type for this transport, used by tools that connect to the server.
+     */
+    public abstract Class<? extends Channel> getClientChannel();
+}
@@ -5,6 +5,7 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.DefaultByteBufHolder;
 import io.netty.buffer.PooledByteBufAllocator;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 /**
@@ -19,11 +20,6 @@ public final class ByteMessage extends DefaultByteBufHolder {
      */
     public static final ByteBufAllocator ALLOC = PooledByteBufAllocator.DEFAULT;
 
-    /**
-     * An array of bit masks.
-     */
-    private static final int[] BIT_MASK = new int[32];
-
     /**
      * Creates a {@link ByteMessage} used to read and write raw messages.
      */
@@ -52,6 +48,13 @@ public final class ByteMessage extends DefaultByteBufHolder {
         return new ByteMessage(buf, -1, MessageType.RAW);
     }
 
+    /**
+     * Creates a game {@link ByteMessage} that writes to the end of the specified {@link ByteBuf}.
+     */
+    public static ByteMessage wrap(ByteBuf buf, int opcode, MessageType type) {
+        return new ByteMessage(buf, opcode, type);
+    }
+
     /**
      * The backing byte buffer.
      */
@@ -68,15 +71,14 @@ public final class ByteMessage extends DefaultByteBufHolder {
     private final MessageType type;
 
     /**
-     * The current bit index.
+     * Bits written in bit access mode that have not been flushed to the buffer yet.
      */
-    private int bitIndex = -1;
+    private long bitBuffer;
 
-    static { /* Initialize bit masks. */
-        for (int i = 0; i < BIT_MASK.length; i++) {
-            BIT_MASK[i] = (1 << i) - 1;
-        }
-    }
+    /**
+     * The amount of pending bits in {@link #bitBuffer}, {@code -1} if not in bit access mode.
+     */
+    private int bitCount = -1;
 
     /**
      * Creates a new {@link ByteMessage}.
@@ -96,28 +98,43 @@ public final class ByteMessage extends DefaultByteBufHolder {
      * Prepares the buffer for writing bits.
      */
     public void startBitAccess() {
-        checkState(bitIndex == -1, "this ByteMessage instance is already in bit access mode");
+        checkState(bitCount == -1, "this ByteMessage instance is already in bit access mode");
 
-        bitIndex = buf.writerIndex() << 3;
+        bitBuffer = 0;
+        bitCount = 0;
+    }
+
+    /**
+     * Prepares the buffer for writing bits, reserving enough space for {@code expectedBits} up front.
+     */
+    public void startBitAccess(int expectedBits) {
+        startBitAccess();
+        buf.ensureWritable((expectedBits + 7) >> 3);
     }
 
     /**
      * Prepares the buffer for writing bytes.
      */
     public void endBitAccess() {
-        checkState(bitIndex != -1, "this ByteMessage instance is not in bit access mode");
+        checkState(bitCount != -1, "this ByteMessage instance is not in bit access mode");
 
-        buf.writerIndex((bitIndex + 7) >> 3);
-        bitIndex = -1;
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            buf.writeByte((int) (bitBuffer >>> bitCount));
+        }
+        if (bitCount > 0) {
+            buf.writeByte((int) (bitBuffer << (8 - bitCount)));
+        }
+        bitBuffer = 0;
+        bitCount = -1;
     }
 
     /**
-     * Writes bytes from the argued buffer into this buffer.
+     * Writes bytes from the argued buffer into this buffer in bulk. Only absolute indexes of {@code from} are read,
+     * so shared buffers may be spliced from several threads at once.
      */
     public ByteMessage putBytes(ByteBuf from) {
-        for (int i = 0; i < from.writerIndex(); i++) {
-            put(from.getByte(i));
-        }
+        buf.writeBytes(from, 0, from.writerIndex());
         return this;
     }
 
@@ -147,38 +164,21 @@ public final class ByteMessage extends DefaultByteBufHolder {
     }
 
     /**
-     * Writes the value as a variable amount of bits.
+     * Writes the value as a variable amount of bits. Bits are packed into a 64-bit accumulator and flushed to the
+     * buffer a word at a time.
      *
      * @throws IllegalArgumentException If the number of bits is not between {@code 1} and {@code 32} inclusive.
      */
     public ByteMessage putBits(int amount, int value) {
-        checkState(amount >= 1 || amount <= 32, "Number of bits must be between 1 and 32 inclusive.");
-
-        int bytePos = bitIndex >> 3;
-        int bitOffset = 8 - (bitIndex & 7);
-        bitIndex = bitIndex + amount;
-        int requiredSpace = bytePos - buf.writerIndex() + 1;
-        requiredSpace += (amount + 7) / 8;
-        if (buf.writableBytes() < requiredSpace) {
-            buf.capacity(buf.capacity() + requiredSpace);
-        }
-        for (; amount > bitOffset; bitOffset = 8) {
-            byte tmp = buf.getByte(bytePos);
-            tmp &= ~BIT_MASK[bitOffset];
-            tmp |= (value >> (amount - bitOffset)) & BIT_MASK[bitOffset];
-            buf.setByte(bytePos++, tmp);
-            amount -= bitOffset;
-        }
-        if (amount == bitOffset) {
-            byte tmp = buf.getByte(bytePos);
-            tmp &= ~BIT_MASK[bitOffset];
-            tmp |= value & BIT_MASK[bitOffset];
-            buf.setByte(bytePos, tmp);
-        } else {
-            byte tmp = buf.getByte(bytePos);
-            tmp &= ~(BIT_MASK[amount] << (bitOffset - amount));
-            tmp |= (value & BIT_MASK[amount]) << (bitOffset - amount);
-            buf.setByte(bytePos, tmp);
+        checkArgument(amount >= 1 && amount <= 32, "Number of bits must be between 1 and 32 inclusive.");
+        checkState(bitCount != -1, "this ByteMessage instance is not in bit access mode");
+
+        /* At most 31 bits are pending, so the accumulator can never overflow. */
+        bitBuffer = (bitBuffer << amount) | (value & (0xFFFFFFFFL >>> (32 - amount)));
+        bitCount += amount;
+        if (bitCount >= 32) {
+            bitCount -= 32;
+            buf.writeInt((int) (bitBuffer >>> bitCount));
         }
         return this;
     }
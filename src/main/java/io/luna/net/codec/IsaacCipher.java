@@ -1,5 +1,7 @@
 package io.luna.net.codec;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * <p> An implementation of the <a href="http://www.burtleburtle.net/bob/rand/isaacafa.html">ISAAC</a> psuedorandom number
  * generator. </p> <p>
@@ -279,4 +281,46 @@ public final class IsaacCipher {
         return results[count];
     }
 
+    /**
+     * Encrypts the opcodes at the first {@code amount} indexes in {@code offsets} of {@code buf}, in order. The
+     * result is the same as adding {@link #nextInt()} to each opcode one at a time, but keys are taken straight from
+     * the current block of results.
+     */
+    public void encryptOpcodes(ByteBuf buf, int[] offsets, int amount) {
+        if (buf.hasArray()) {
+            encryptOpcodes(buf.array(), buf.arrayOffset(), offsets, amount);
+            return;
+        }
+
+        int index = 0;
+        while (index < amount) {
+            if (count == 0) {
+                isaac();
+                count = SIZE;
+            }
+            int end = index + Math.min(count, amount - index);
+            while (index < end) {
+                int offset = offsets[index++];
+                buf.setByte(offset, buf.getByte(offset) + results[--count]);
+            }
+        }
+    }
+
+    /**
+     * Encrypts the opcodes at the first {@code amount} indexes in {@code offsets} of {@code array}, starting from
+     * {@code base}.
+     */
+    private void encryptOpcodes(byte[] array, int base, int[] offsets, int amount) {
+        int index = 0;
+        while (index < amount) {
+            if (count == 0) {
+                isaac();
+                count = SIZE;
+            }
+            int end = index + Math.min(count, amount - index);
+            while (index < end) {
+                array[base + offsets[index++]] += results[--count];
+            }
+        }
+    }
 }
\ No newline at end of file
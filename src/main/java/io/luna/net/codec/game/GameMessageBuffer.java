@@ -0,0 +1,180 @@
+package io.luna.net.codec.game;
+
+import io.luna.net.codec.ByteMessage;
+import io.luna.net.codec.IsaacCipher;
+import io.luna.net.codec.MessageType;
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A model that accumulates a session's outbound game messages for a tick into one growable buffer. Each message is
+ * written directly after the last, and its header is encoded in place once the message is finished, so the whole
+ * tick can be written to the channel as a single buffer. Opcodes are encrypted together when the buffer is taken.
+ * <p>
+ * Instances are not thread safe, but may be handed between threads as long as only one uses them at a time.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class GameMessageBuffer {
+
+    /**
+     * The smallest capacity a new buffer is allocated with.
+     */
+    private static final int MINIMUM_CAPACITY = 256;
+
+    /**
+     * The encryptor.
+     */
+    private final IsaacCipher encryptor;
+
+    /**
+     * The messages written so far, or {@code null} if none have been.
+     */
+    private ByteBuf buf;
+
+    /**
+     * The size of the last buffer taken, used to size the next one.
+     */
+    private int lastSize = MINIMUM_CAPACITY;
+
+    /**
+     * The indexes of the opcodes of finished messages.
+     */
+    private int[] opcodeIndexes = new int[32];
+
+    /**
+     * The amount of finished messages.
+     */
+    private int opcodeCount;
+
+    /**
+     * The index of the header of the message being written, {@code -1} if none is being written.
+     */
+    private int messageStart = -1;
+
+    /**
+     * Creates a new {@link GameMessageBuffer}.
+     *
+     * @param encryptor The encryptor.
+     */
+    public GameMessageBuffer(IsaacCipher encryptor) {
+        this.encryptor = encryptor;
+    }
+
+    /**
+     * Starts a new message, reserving space for its header. The returned {@link ByteMessage} writes directly into
+     * this buffer and must not be released.
+     */
+    public ByteMessage start(int opcode, MessageType type) {
+        checkArgument(opcode >= 0, "opcode < 0");
+        checkArgument(type != MessageType.RAW, "type == MessageType.RAW");
+        checkState(messageStart == -1, "a message is already being written");
+
+        if (buf == null) {
+            buf = ByteMessage.ALLOC.buffer(lastSize);
+        }
+        messageStart = buf.writerIndex();
+        buf.writeZero(headerSize(type));
+        return ByteMessage.wrap(buf, opcode, type);
+    }
+
+    /**
+     * Finishes a message. If it was returned by {@link #start(int, MessageType)} its opcode and size are filled in,
+     * otherwise it was built in its own buffer and is copied into this one, then released. Returns the size of the
+     * message, including its header.
+     */
+    public int finish(ByteMessage msg) {
+        if (msg.getBuffer() != buf) {
+            return append(msg);
+        }
+        checkState(messageStart != -1, "no message is being written");
+
+        MessageType type = msg.getType();
+        int size = buf.writerIndex() - messageStart - headerSize(type);
+        buf.setByte(messageStart, msg.getOpcode());
+        if (type == MessageType.VAR) {
+            checkState(size <= 255, "size > 255");
+            buf.setByte(messageStart + 1, size);
+        } else if (type == MessageType.VAR_SHORT) {
+            checkState(size <= 65535, "size > 65535");
+            buf.setShort(messageStart + 1, size);
+        }
+
+        if (opcodeCount == opcodeIndexes.length) {
+            opcodeIndexes = Arrays.copyOf(opcodeIndexes, opcodeCount * 2);
+        }
+        opcodeIndexes[opcodeCount++] = messageStart;
+        messageStart = -1;
+        return buf.writerIndex() - opcodeIndexes[opcodeCount - 1];
+    }
+
+    /**
+     * Discards the message being written, if any.
+     */
+    public void abort() {
+        if (messageStart != -1) {
+            buf.writerIndex(messageStart);
+            messageStart = -1;
+        }
+    }
+
+    /**
+     * Encrypts and returns the messages written since the last call, or {@code null} if there are none. Ownership of
+     * the returned buffer passes to the caller.
+     */
+    public ByteBuf take() {
+        checkState(messageStart == -1, "a message is still being written");
+
+        ByteBuf taken = buf;
+        buf = null;
+        if (taken != null) {
+            encryptor.encryptOpcodes(taken, opcodeIndexes, opcodeCount);
+            lastSize = Math.max(MINIMUM_CAPACITY, taken.writerIndex());
+        }
+        opcodeCount = 0;
+        return taken;
+    }
+
+    /**
+     * Releases any messages that haven't been taken.
+     */
+    public void release() {
+        if (buf != null) {
+            buf.release();
+            buf = null;
+        }
+        opcodeCount = 0;
+        messageStart = -1;
+    }
+
+    /**
+     * Copies a message built in its own buffer into this buffer, then releases it. Returns the size of the copy.
+     */
+    private int append(ByteMessage msg) {
+        try {
+            ByteMessage copy = start(msg.getOpcode(), msg.getType());
+            copy.putBytes(msg);
+            return finish(copy);
+        } finally {
+            msg.release();
+        }
+    }
+
+    /**
+     * Returns the size of the header, including the opcode, for a message of {@code type}.
+     */
+    private int headerSize(MessageType type) {
+        switch (type) {
+        case VAR:
+            return 2;
+        case VAR_SHORT:
+            return 3;
+        default:
+            return 1;
+        }
+    }
+}
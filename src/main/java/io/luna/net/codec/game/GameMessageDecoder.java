@@ -1,10 +1,14 @@
 package io.luna.net.codec.game;
 
+import io.luna.game.profile.TrafficProfiler;
 import io.luna.net.codec.ByteMessage;
 import io.luna.net.codec.IsaacCipher;
 import io.luna.net.codec.MessageType;
 import io.luna.net.msg.GameMessage;
+import io.luna.net.msg.MessageRateLimiter;
 import io.luna.net.msg.MessageRepository;
+import io.luna.net.session.GameSession;
+import io.luna.net.session.GameSession.ReadPause;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
@@ -13,13 +17,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkState;
 import static org.apache.logging.log4j.util.Unbox.box;
 
 /**
- * A {@link ByteToMessageDecoder} implementation that decodes game messages.
+ * A {@link ByteToMessageDecoder} implementation that decodes game messages. Every complete message in the
+ * cumulation buffer is decoded on each call, and payloads are retained slices of it rather than copies.
  *
  * @author lare96 <http://github.org/lare96>
  */
@@ -41,17 +46,27 @@ public final class GameMessageDecoder extends ByteToMessageDecoder {
     private final MessageRepository messageRepository;
 
     /**
-     * The current state.
+     * The session messages are decoded for.
      */
-    private State state = State.OPCODE;
+    private final GameSession session;
 
     /**
-     * The current opcode.
+     * The rate limiter.
+     */
+    private final MessageRateLimiter rateLimiter;
+
+    /**
+     * The traffic profiler.
+     */
+    private final TrafficProfiler trafficProfiler;
+
+    /**
+     * The current opcode, {@code -1} if it hasn't been read yet.
      */
     private int opcode = -1;
 
     /**
-     * The current size.
+     * The current size, negative if it hasn't been read yet.
      */
     private int size = -1;
 
@@ -60,135 +75,125 @@ public final class GameMessageDecoder extends ByteToMessageDecoder {
      */
     private MessageType type = MessageType.RAW;
 
-    /**
-     * The decoded message.
-     */
-    private Optional<GameMessage> currentMessage = Optional.empty();
-
     /**
      * Creates a new {@link GameMessageDecoder}.
      *
      * @param decryptor The decryptor.
      * @param messageRepository The message repository.
+     * @param session The session messages are decoded for.
+     * @param trafficProfiler The traffic profiler.
      */
-    public GameMessageDecoder(IsaacCipher decryptor, MessageRepository messageRepository) {
+    public GameMessageDecoder(IsaacCipher decryptor, MessageRepository messageRepository, GameSession session,
+        TrafficProfiler trafficProfiler) {
         this.decryptor = decryptor;
         this.messageRepository = messageRepository;
+        this.session = session;
+        rateLimiter = session.getRateLimiter();
+        this.trafficProfiler = trafficProfiler;
     }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        switch (state) {
-        case OPCODE:
-            opcode(in);
-            break;
-        case SIZE:
-            size(in);
-            break;
-        case PAYLOAD:
-            payload(in);
-            break;
-        }
-        currentMessage.ifPresent(msg -> {
-            out.add(msg);
-            currentMessage = Optional.empty();
-        });
-    }
-
-    /**
-     * Decodes the opcode.
-     */
-    private void opcode(ByteBuf in) {
-        if (in.isReadable()) {
-            opcode = in.readUnsignedByte();
-            opcode = (opcode - decryptor.nextInt()) & 0xFF;
-            size = messageRepository.getSize(opcode);
-
-            if (size == -1) {
-                type = MessageType.VAR;
-            } else if (size == -2) {
-                type = MessageType.VAR_SHORT;
-            } else {
-                type = MessageType.FIXED;
+        for (; ; ) {
+            if (opcode == -1) {
+                if (!in.isReadable()) {
+                    return;
+                }
+                opcode(in);
             }
-
-            if (size == 0) {
-                queueMsg(Unpooled.EMPTY_BUFFER);
-                return;
+            if (size < 0) {
+                int bytes = type == MessageType.VAR ? Byte.BYTES : Short.BYTES;
+                if (!in.isReadable(bytes)) {
+                    return;
+                }
+                size = bytes == Byte.BYTES ? in.readUnsignedByte() : in.readUnsignedShort();
             }
-            state = size == -1 || size == -2 ? State.SIZE : State.PAYLOAD;
-        }
-    }
-
-    /**
-     * Decodes the size.
-     */
-    private void size(ByteBuf in) {
-        int bytes = size == -1 ? Byte.BYTES : Short.BYTES;
-
-        if (in.isReadable(bytes)) {
-            size = 0;
-
-            for (int i = 0; i < bytes; i++) {
-                size |= in.readUnsignedByte() << 8 * (bytes - 1 - i);
+            if (!in.isReadable(size)) {
+                return;
             }
-
-            state = State.PAYLOAD;
+            payload(ctx, in, out);
         }
     }
 
     /**
-     * Decodes the payload.
+     * Decodes the opcode.
      */
-    private void payload(ByteBuf in) {
-        if (in.isReadable(size)) {
-            ByteBuf newBuffer = in.readBytes(size);
-            try {
-                queueMsg(newBuffer);
-            } finally {
-                newBuffer.release();
-            }
+    private void opcode(ByteBuf in) {
+        opcode = (in.readUnsignedByte() - decryptor.nextInt()) & 0xFF;
+        size = messageRepository.getSize(opcode);
+
+        if (size == -1) {
+            type = MessageType.VAR;
+        } else if (size == -2) {
+            type = MessageType.VAR_SHORT;
+        } else {
+            type = MessageType.FIXED;
         }
     }
 
     /**
-     * Prepares a packet to be queued upstream.
+     * Decodes the payload as a slice of {@code in}, so it's never copied, and queues it upstream. Messages over
+     * their rate limit are skipped without ever being retained.
      */
-    private void queueMsg(ByteBuf payload) {
+    private void payload(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
         checkState(opcode >= 0, "opcode < 0");
         checkState(size >= 0, "size < 0");
         checkState(type != MessageType.RAW, "type == MessageType.RAW");
-        checkState(!currentMessage.isPresent(), "message already in queue");
 
+        trafficProfiler.inbound(opcode, headerSize() + size);
         try {
             if (messageRepository.getHandler(opcode) == null) {
                 LOGGER.debug("No InboundGameMessage assigned to [opcode={}]", box(opcode));
-                currentMessage = Optional.empty();
+                in.skipBytes(size);
                 return;
             }
 
-            payload.retain();
-            currentMessage = Optional.of(new GameMessage(opcode, type, ByteMessage.wrap(payload)));
+            switch (rateLimiter.acquire(opcode)) {
+            case DISCONNECT:
+                LOGGER.warn("Disconnecting {} for exceeding message rate limits.", ctx.channel().remoteAddress());
+                in.skipBytes(in.readableBytes());
+                ctx.close();
+                return;
+            case DELAY:
+                delay(ctx);
+                in.skipBytes(size);
+                return;
+            case DROP:
+                in.skipBytes(size);
+                return;
+            }
+
+            ByteBuf payload = size == 0 ? Unpooled.EMPTY_BUFFER : in.readRetainedSlice(size);
+            out.add(new GameMessage(opcode, type, ByteMessage.wrap(payload)));
         } finally {
-            resetState();
+            opcode = -1;
+            size = -1;
         }
     }
 
     /**
-     * Resets the decoder's state.
+     * Returns the size of the current message's header, including the opcode.
      */
-    private void resetState() {
-        opcode = -1;
-        size = -1;
-        state = State.OPCODE;
+    private int headerSize() {
+        switch (type) {
+        case VAR:
+            return 2;
+        case VAR_SHORT:
+            return 3;
+        default:
+            return 1;
+        }
     }
 
     /**
-     * An enum representing decoder states.
+     * Stops reading from the client until the current message's rate limit has a token again.
      */
-    private enum State {
-        OPCODE,
-        SIZE,
-        PAYLOAD
+    private void delay(ChannelHandlerContext ctx) {
+        if (session.isReadPaused(ReadPause.RATE_LIMIT)) {
+            return;
+        }
+        session.setReadPaused(ReadPause.RATE_LIMIT, true);
+        ctx.executor().schedule(() -> session.setReadPaused(ReadPause.RATE_LIMIT, false),
+            rateLimiter.nanosUntilAvailable(opcode), TimeUnit.NANOSECONDS);
     }
 }
@@ -1,8 +1,6 @@
 package io.luna.net.codec.login;
 
 import io.luna.LunaContext;
-import io.luna.net.codec.ByteMessage;
-import io.luna.net.codec.IsaacCipher;
 import io.luna.net.msg.MessageRepository;
 import io.luna.net.session.LoginSession;
 import io.luna.net.session.Session;
@@ -11,14 +9,11 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.util.Attribute;
 
-import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.List;
 import java.util.Random;
 
 import static com.google.common.base.Preconditions.checkState;
-import static io.luna.LunaConstants.RSA_EXPONENT;
-import static io.luna.LunaConstants.RSA_MODULUS;
 import static io.luna.net.LunaNetworkConstants.SESSION_KEY;
 
 /**
@@ -117,7 +112,7 @@ public final class LoginDecoder extends ByteToMessageDecoder {
     }
 
     /**
-     * Decodes the RSA block.
+     * Decodes the RSA block. Decryption is left to the login workers.
      */
     private void decodeRsaBlock(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
         if (in.readableBytes() >= rsaBlockSize) {
@@ -139,33 +134,7 @@ public final class LoginDecoder extends ByteToMessageDecoder {
             byte[] rsaBytes = new byte[rsaBlockSize - 41];
             in.readBytes(rsaBytes);
 
-            ByteBuf rsaBuffer = ctx.alloc().buffer();
-            rsaBuffer.writeBytes(new BigInteger(rsaBytes).modPow(RSA_EXPONENT, RSA_MODULUS).toByteArray());
-
-            int rsaOpcode = rsaBuffer.readUnsignedByte();
-            checkState(rsaOpcode == 10, "rsaOpcode != 10");
-
-            long clientHalf = rsaBuffer.readLong();
-            long serverHalf = rsaBuffer.readLong();
-
-            int[] isaacSeed = { (int) (clientHalf >> 32), (int) clientHalf, (int) (serverHalf >> 32),
-                (int) serverHalf };
-
-            IsaacCipher decryptor = new IsaacCipher(isaacSeed);
-            for (int i = 0; i < isaacSeed.length; i++) {
-                isaacSeed[i] += 50;
-            }
-            IsaacCipher encryptor = new IsaacCipher(isaacSeed);
-
-            @SuppressWarnings("unused") int uid = rsaBuffer.readInt();
-
-            ByteMessage msg = ByteMessage.wrap(rsaBuffer);
-            String username = msg.getString().toLowerCase();
-            String password = msg.getString().toLowerCase();
-
-            rsaBuffer.release();
-
-            out.add(new LoginCredentialsMessage(username, password, encryptor, decryptor, ctx.channel().pipeline()));
+            out.add(new LoginRequestMessage(rsaBytes, ctx.channel().pipeline()));
         }
     }
 
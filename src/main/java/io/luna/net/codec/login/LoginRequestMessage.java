@@ -0,0 +1,91 @@
+package io.luna.net.codec.login;
+
+import io.luna.net.codec.ByteMessage;
+import io.luna.net.codec.IsaacCipher;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelPipeline;
+
+import java.math.BigInteger;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.luna.LunaConstants.RSA_EXPONENT;
+import static io.luna.LunaConstants.RSA_MODULUS;
+
+/**
+ * A model representing a login request whose RSA block hasn't been decrypted yet. Decryption is expensive, so it's
+ * left to the login workers instead of being done on the event loop.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoginRequestMessage {
+
+    /**
+     * The encrypted RSA block.
+     */
+    private final byte[] rsaBlock;
+
+    /**
+     * The channel pipeline.
+     */
+    private final ChannelPipeline pipeline;
+
+    /**
+     * The time this request was received, in nanoseconds.
+     */
+    private final long receivedAt = System.nanoTime();
+
+    /**
+     * Creates a new {@link LoginRequestMessage}.
+     *
+     * @param rsaBlock The encrypted RSA block.
+     * @param pipeline The channel pipeline.
+     */
+    public LoginRequestMessage(byte[] rsaBlock, ChannelPipeline pipeline) {
+        this.rsaBlock = rsaBlock;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Decrypts the RSA block and decodes the login credentials within it.
+     */
+    public LoginCredentialsMessage decrypt() {
+        byte[] decrypted = new BigInteger(rsaBlock).modPow(RSA_EXPONENT, RSA_MODULUS).toByteArray();
+        ByteMessage msg = ByteMessage.wrap(Unpooled.wrappedBuffer(decrypted));
+
+        int rsaOpcode = msg.get(false);
+        checkState(rsaOpcode == 10, "rsaOpcode != 10");
+
+        long clientHalf = msg.getLong();
+        long serverHalf = msg.getLong();
+
+        int[] isaacSeed = { (int) (clientHalf >> 32), (int) clientHalf, (int) (serverHalf >> 32),
+            (int) serverHalf };
+
+        IsaacCipher decryptor = new IsaacCipher(isaacSeed);
+        for (int i = 0; i < isaacSeed.length; i++) {
+            isaacSeed[i] += 50;
+        }
+        IsaacCipher encryptor = new IsaacCipher(isaacSeed);
+
+        @SuppressWarnings("unused") int uid = msg.getInt();
+
+        String username = msg.getString().toLowerCase();
+        String password = msg.getString().toLowerCase();
+
+        return new LoginCredentialsMessage(username, password, encryptor, decryptor, pipeline);
+    }
+
+    /**
+     * @return The channel pipeline.
+     */
+    public ChannelPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return The time this request was received, in nanoseconds.
+     */
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+}
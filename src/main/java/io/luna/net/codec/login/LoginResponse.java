@@ -20,7 +20,8 @@ public enum LoginResponse {
     COULD_NOT_COMPLETE_LOGIN(13),
     SERVER_BEING_UPDATED(14),
     LOGIN_ATTEMPTS_EXCEEDED(16),
-    MEMBERS_ONLY_AREA(17);
+    MEMBERS_ONLY_AREA(17),
+    LOGIN_QUEUED(21);
 
     /**
      * The opcode.
@@ -24,6 +24,11 @@ public final class LoginResponseMessage {
      */
     private final boolean flagged;
 
+    /**
+     * The seconds the client should wait before retrying, only sent with {@code LOGIN_QUEUED}.
+     */
+    private final int waitSeconds;
+
     /**
      * Creates a new {@link LoginResponseMessage}.
      *
@@ -32,9 +37,31 @@ public final class LoginResponseMessage {
      * @param flagged If flagged.
      */
     public LoginResponseMessage(LoginResponse response, PlayerRights rights, boolean flagged) {
+        this(response, rights, flagged, 0);
+    }
+
+    /**
+     * Creates a {@link LoginResponseMessage} telling the client to wait {@code waitSeconds} before retrying.
+     *
+     * @param waitSeconds The seconds to wait, between {@code 0} and {@code 255}.
+     */
+    public LoginResponseMessage(int waitSeconds) {
+        this(LoginResponse.LOGIN_QUEUED, PlayerRights.PLAYER, false, waitSeconds);
+    }
+
+    /**
+     * Creates a new {@link LoginResponseMessage}.
+     *
+     * @param response The login response.
+     * @param rights The authority level.
+     * @param flagged If flagged.
+     * @param waitSeconds The seconds to wait before retrying.
+     */
+    private LoginResponseMessage(LoginResponse response, PlayerRights rights, boolean flagged, int waitSeconds) {
         this.response = response;
         this.rights = rights;
         this.flagged = flagged;
+        this.waitSeconds = waitSeconds;
     }
 
     /**
@@ -67,4 +94,11 @@ public final class LoginResponseMessage {
     public boolean isFlagged() {
         return flagged;
     }
+
+    /**
+     * @return The seconds the client should wait before retrying.
+     */
+    public int getWaitSeconds() {
+        return waitSeconds;
+    }
 }
@@ -0,0 +1,85 @@
+package io.luna.net.msg;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A model representing a token bucket limit shared by a class of incoming game packets. Each session gets its own
+ * bucket per limit, which holds up to {@code capacity} tokens and gains {@code perSecond} tokens every second.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class MessageRateLimit {
+
+    /**
+     * The identifier, unique within a repository.
+     */
+    private final int id;
+
+    /**
+     * The name.
+     */
+    private final String name;
+
+    /**
+     * The maximum amount of tokens, which is the largest burst of messages allowed.
+     */
+    private final int capacity;
+
+    /**
+     * The amount of tokens gained every nanosecond.
+     */
+    private final double perNano;
+
+    /**
+     * Creates a new {@link MessageRateLimit}.
+     *
+     * @param id The identifier.
+     * @param name The name.
+     * @param capacity The maximum amount of tokens.
+     * @param perSecond The amount of tokens gained every second.
+     */
+    MessageRateLimit(int id, String name, int capacity, double perSecond) {
+        checkArgument(capacity > 0, "capacity <= 0");
+        checkArgument(perSecond > 0, "perSecond <= 0");
+
+        this.id = id;
+        this.name = name;
+        this.capacity = capacity;
+        perNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * @return The identifier.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The maximum amount of tokens.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The amount of tokens gained every nanosecond.
+     */
+    public double getPerNano() {
+        return perNano;
+    }
+}
@@ -0,0 +1,176 @@
+package io.luna.net.msg;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A model holding a session's token buckets, one per {@link MessageRateLimit}. Messages that find their bucket
+ * empty are violations, and repeated violations escalate from dropping messages, to delaying reads, to
+ * disconnecting.
+ * <p>
+ * Buckets are only used on the session's event loop. Counters may be read from any thread, but may be slightly
+ * stale.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class MessageRateLimiter {
+
+    /**
+     * An enumerated type whose elements represent what should happen to a message.
+     */
+    public enum Action {
+
+        /**
+         * The message is within its limit.
+         */
+        ALLOW,
+
+        /**
+         * The message is dropped.
+         */
+        DROP,
+
+        /**
+         * The message is dropped and reading from the client is delayed.
+         */
+        DELAY,
+
+        /**
+         * The message is dropped and the client is disconnected.
+         */
+        DISCONNECT
+    }
+
+    /**
+     * The message repository.
+     */
+    private final MessageRepository repository;
+
+    /**
+     * The length of the window violations are counted over.
+     */
+    private final long windowNanos;
+
+    /**
+     * The tokens in each bucket, as of its last refill.
+     */
+    private final double[] tokens;
+
+    /**
+     * When each bucket was last refilled.
+     */
+    private final long[] lastRefill;
+
+    /**
+     * The amount of messages dropped for each bucket.
+     */
+    private final long[] dropped;
+
+    /**
+     * When the current violation window started.
+     */
+    private long windowStart;
+
+    /**
+     * The amount of violations within the current window.
+     */
+    private int windowViolations;
+
+    /**
+     * The amount of times reading was delayed.
+     */
+    private long delays;
+
+    /**
+     * Creates a new {@link MessageRateLimiter} with full buckets.
+     *
+     * @param repository The message repository.
+     */
+    public MessageRateLimiter(MessageRepository repository) {
+        this.repository = repository;
+        windowNanos = TimeUnit.SECONDS.toNanos(repository.getFloodWindowSeconds());
+
+        List<MessageRateLimit> limits = repository.getRateLimits();
+        tokens = new double[limits.size()];
+        lastRefill = new long[limits.size()];
+        dropped = new long[limits.size()];
+
+        long now = System.nanoTime();
+        for (MessageRateLimit limit : limits) {
+            tokens[limit.getId()] = limit.getCapacity();
+            lastRefill[limit.getId()] = now;
+        }
+        windowStart = now;
+    }
+
+    /**
+     * Takes a token for a message with {@code opcode}, and returns what should happen to the message.
+     */
+    public Action acquire(int opcode) {
+        MessageRateLimit limit = repository.getRateLimit(opcode);
+        if (limit == null) {
+            return Action.ALLOW;
+        }
+
+        int id = limit.getId();
+        long now = System.nanoTime();
+        double available = Math.min(limit.getCapacity(), tokens[id] + (now - lastRefill[id]) * limit.getPerNano());
+        lastRefill[id] = now;
+        if (available >= 1.0) {
+            tokens[id] = available - 1.0;
+            return Action.ALLOW;
+        }
+        tokens[id] = available;
+        dropped[id]++;
+
+        if (now - windowStart > windowNanos) {
+            windowStart = now;
+            windowViolations = 0;
+        }
+        windowViolations++;
+        if (windowViolations > repository.getFloodDisconnectThreshold()) {
+            return Action.DISCONNECT;
+        } else if (windowViolations > repository.getFloodDelayThreshold()) {
+            delays++;
+            return Action.DELAY;
+        }
+        return Action.DROP;
+    }
+
+    /**
+     * Returns how long until the bucket for {@code opcode} has a token again, in nanoseconds.
+     */
+    public long nanosUntilAvailable(int opcode) {
+        MessageRateLimit limit = repository.getRateLimit(opcode);
+        if (limit == null) {
+            return 0;
+        }
+        double missing = 1.0 - tokens[limit.getId()];
+        return missing <= 0.0 ? 0 : (long) Math.ceil(missing / limit.getPerNano());
+    }
+
+    /**
+     * Returns the amount of messages dropped for exceeding {@code limit}.
+     */
+    public long getDropped(MessageRateLimit limit) {
+        return dropped[limit.getId()];
+    }
+
+    /**
+     * Returns the amount of messages dropped for exceeding any limit.
+     */
+    public long getDropped() {
+        long total = 0;
+        for (long amount : dropped) {
+            total += amount;
+        }
+        return total;
+    }
+
+    /**
+     * @return The amount of times reading was delayed.
+     */
+    public long getDelays() {
+        return delays;
+    }
+}
@@ -4,6 +4,12 @@ import io.luna.game.event.Event;
 import io.luna.game.model.mobile.Player;
 import io.luna.util.ThreadUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * A model containing data describing incoming game packets.
  *
@@ -31,6 +37,32 @@ public final class MessageRepository {
      */
     private final MessageReader[] messageReaders = new MessageReader[257];
 
+    /**
+     * The incoming packet rate limits.
+     */
+    private final MessageRateLimit[] rateLimits = new MessageRateLimit[257];
+
+    /**
+     * The rate limits, in identifier order.
+     */
+    private final List<MessageRateLimit> rateLimitList = new ArrayList<>();
+
+    /**
+     * The seconds over which rate limit violations are counted before escalating.
+     */
+    private int floodWindowSeconds;
+
+    /**
+     * The rate limit violations within the window after which reading from a client is delayed, instead of only
+     * dropping the offending messages.
+     */
+    private int floodDelayThreshold;
+
+    /**
+     * The rate limit violations within the window after which a client is disconnected.
+     */
+    private int floodDisconnectThreshold;
+
     /**
      * Creates a new {@link MessageRepository}.
      */
@@ -54,6 +86,40 @@ public final class MessageRepository {
         }
     }
 
+    /**
+     * Adds a rate limit shared by {@code opcodes}. A default rate limit applies to every opcode not given another.
+     */
+    public void addRateLimit(String name, int capacity, double perSecond, int[] opcodes, boolean isDefault) {
+        ThreadUtils.ensureInitThread();
+
+        MessageRateLimit limit = new MessageRateLimit(rateLimitList.size(), name, capacity, perSecond);
+        rateLimitList.add(limit);
+
+        for (int opcode : opcodes) {
+            rateLimits[opcode] = limit;
+        }
+        if (isDefault) {
+            for (int opcode = 0; opcode < rateLimits.length; opcode++) {
+                if (rateLimits[opcode] == null) {
+                    rateLimits[opcode] = limit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets how rate limit violations escalate from dropping messages, to delaying reads, to disconnecting.
+     */
+    public void setFloodLimits(int windowSeconds, int delayThreshold, int disconnectThreshold) {
+        ThreadUtils.ensureInitThread();
+        checkArgument(windowSeconds > 0, "windowSeconds <= 0");
+        checkArgument(delayThreshold <= disconnectThreshold, "delayThreshold > disconnectThreshold");
+
+        floodWindowSeconds = windowSeconds;
+        floodDelayThreshold = delayThreshold;
+        floodDisconnectThreshold = disconnectThreshold;
+    }
+
     /**
      * Retrieves an incoming packet's size.
      */
@@ -67,4 +133,39 @@ public final class MessageRepository {
     public MessageReader getHandler(int opcode) {
         return messageReaders[opcode];
     }
+
+    /**
+     * Retrieves an incoming packet's rate limit, or {@code null} if it has none.
+     */
+    public MessageRateLimit getRateLimit(int opcode) {
+        return rateLimits[opcode];
+    }
+
+    /**
+     * Returns all rate limits, in identifier order.
+     */
+    public List<MessageRateLimit> getRateLimits() {
+        return Collections.unmodifiableList(rateLimitList);
+    }
+
+    /**
+     * @return The seconds over which rate limit violations are counted before escalating.
+     */
+    public int getFloodWindowSeconds() {
+        return floodWindowSeconds;
+    }
+
+    /**
+     * @return The rate limit violations within the window after which reading from a client is delayed.
+     */
+    public int getFloodDelayThreshold() {
+        return floodDelayThreshold;
+    }
+
+    /**
+     * @return The rate limit violations within the window after which a client is disconnected.
+     */
+    public int getFloodDisconnectThreshold() {
+        return floodDisconnectThreshold;
+    }
 }
@@ -2,6 +2,8 @@ package io.luna.net.msg;
 
 import io.luna.game.model.mobile.Player;
 import io.luna.net.codec.ByteMessage;
+import io.luna.net.codec.MessageType;
+import io.luna.net.session.GameSession;
 
 /**
  * An abstraction model representing an outbound message handler.
@@ -11,15 +13,24 @@ import io.luna.net.codec.ByteMessage;
 public abstract class MessageWriter {
 
     /**
-     * Builds a buffer containing the data for this message.
+     * Builds a buffer containing the data for this message. Implementations should start it with {@link
+     * GameSession#message(int, MessageType)} so it's written directly into the session's outbound buffer.
      */
     public abstract ByteMessage write(Player player);
 
     /**
-     * Converts the buffer returned by {@code write(Player)} to a game packet.
+     * Returns {@code false} if this message can be skipped while the session is backed up. Messages are essential by
+     * default.
      */
-    public GameMessage handleOutboundMessage(Player player) {
-        ByteMessage msg = write(player);
-        return new GameMessage(msg.getOpcode(), msg.getType(), msg);
+    public boolean isEssential() {
+        return true;
+    }
+
+    /**
+     * Returns a key for the client state this message completely refreshes, or {@code null} if it doesn't. While the
+     * session is backed up only the latest message for each key is kept, and it's sent once the session catches up.
+     */
+    public Object getRefreshKey() {
+        return null;
     }
 }
@@ -37,7 +37,7 @@ public final class AddGroundItemMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(44);
+        ByteMessage msg = player.getSession().message(44);
         msg.putShort(item.getId(), ByteTransform.A, ByteOrder.LITTLE);
         msg.putShort(item.getAmount());
         msg.put(offset);
@@ -13,6 +13,6 @@ public final class CloseWindowsMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        return ByteMessage.message(219);
+        return player.getSession().message(219);
     }
 }
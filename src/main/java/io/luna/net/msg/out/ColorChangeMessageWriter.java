@@ -36,7 +36,7 @@ public class ColorChangeMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(122);
+        ByteMessage msg = player.getSession().message(122);
         msg.putShort(id, ByteTransform.A, ByteOrder.LITTLE);
         msg.putShort(color, ByteTransform.A, ByteOrder.LITTLE);
         return msg;
@@ -35,14 +35,14 @@ public final class ConfigMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        return state <= Byte.MAX_VALUE ? writeByteConfig() : writeShortConfig();
+        return state <= Byte.MAX_VALUE ? writeByteConfig(player) : writeShortConfig(player);
     }
 
     /**
      * Returns a {@link ByteMessage} containing the {@code short} version of this message.
      */
-    private ByteMessage writeByteConfig() {
-        ByteMessage msg = ByteMessage.message(36);
+    private ByteMessage writeByteConfig(Player player) {
+        ByteMessage msg = player.getSession().message(36);
         msg.putShort(id, ByteOrder.LITTLE);
         msg.put(state);
         return msg;
@@ -51,8 +51,8 @@ public final class ConfigMessageWriter extends MessageWriter {
     /**
      * Returns a {@link ByteMessage} containing the {@code byte} version of this message.
      */
-    private ByteMessage writeShortConfig() {
-        ByteMessage msg = ByteMessage.message(87);
+    private ByteMessage writeShortConfig(Player player) {
+        ByteMessage msg = player.getSession().message(87);
         msg.putShort(id, ByteOrder.LITTLE);
         msg.putInt(state, ByteOrder.MIDDLE);
         return msg;
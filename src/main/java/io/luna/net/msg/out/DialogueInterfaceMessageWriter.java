@@ -28,7 +28,7 @@ public final class DialogueInterfaceMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(164);
+        ByteMessage msg = player.getSession().message(164);
         msg.putShort(id, ByteOrder.LITTLE);
         return msg;
     }
@@ -41,7 +41,7 @@ public final class ForceTabMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(106);
+        ByteMessage msg = player.getSession().message(106);
         msg.put(id, ByteTransform.C);
         return msg;
     }
@@ -28,7 +28,7 @@ public final class GameChatboxMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(253, MessageType.VAR);
+        ByteMessage msg = player.getSession().message(253, MessageType.VAR);
         msg.putString(message);
         return msg;
     }
@@ -27,7 +27,7 @@ public final class InterfaceMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(97);
+        ByteMessage msg = player.getSession().message(97);
         msg.putShort(id);
         return msg;
     }
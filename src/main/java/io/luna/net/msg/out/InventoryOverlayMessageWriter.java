@@ -35,7 +35,7 @@ public final class InventoryOverlayMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(248);
+        ByteMessage msg = player.getSession().message(248);
         msg.putShort(interfaceId, ByteTransform.A);
         msg.putShort(overlayInterfaceId);
         return msg;
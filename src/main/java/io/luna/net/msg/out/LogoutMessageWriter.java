@@ -13,6 +13,6 @@ public final class LogoutMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        return ByteMessage.message(109);
+        return player.getSession().message(109);
     }
 }
@@ -27,7 +27,7 @@ public final class MultiCombatMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(61);
+        ByteMessage msg = player.getSession().message(61);
         msg.put(display ? 1 : 0);
         return msg;
     }
@@ -28,7 +28,7 @@ public final class MusicMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(74);
+        ByteMessage msg = player.getSession().message(74);
         msg.putShort(id, ByteOrder.LITTLE);
         return msg;
     }
@@ -3,15 +3,13 @@ package io.luna.net.msg.out;
 import io.luna.game.model.Direction;
 import io.luna.game.model.mobile.Npc;
 import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.Viewport;
 import io.luna.game.model.mobile.update.UpdateBlockSet;
 import io.luna.game.model.mobile.update.UpdateState;
-import io.luna.game.model.region.RegionManager;
 import io.luna.net.codec.ByteMessage;
 import io.luna.net.codec.MessageType;
 import io.luna.net.msg.MessageWriter;
 
-import java.util.Iterator;
-
 /**
  * A {@link MessageWriter} implementation that sends an NPC update message.
  *
@@ -24,42 +22,57 @@ public final class NpcUpdateMessageWriter extends MessageWriter {
      */
     private final UpdateBlockSet<Npc> blockSet = UpdateBlockSet.NPC_BLOCK_SET;
 
+    /**
+     * A reusable buffer for update blocks, or {@code null} if one should be allocated.
+     */
+    private final ByteMessage scratch;
+
+    /**
+     * Creates a new {@link NpcUpdateMessageWriter} that allocates its own buffer for update blocks.
+     */
+    public NpcUpdateMessageWriter() {
+        this(null);
+    }
+
+    /**
+     * Creates a new {@link NpcUpdateMessageWriter}.
+     *
+     * @param scratch A reusable buffer for update blocks, or {@code null} if one should be allocated.
+     */
+    public NpcUpdateMessageWriter(ByteMessage scratch) {
+        this.scratch = scratch;
+    }
+
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(65, MessageType.VAR_SHORT);
-        ByteMessage blockMsg = ByteMessage.message();
+        ByteMessage msg = player.getSession().message(65, MessageType.VAR_SHORT);
+        ByteMessage blockMsg = scratch == null ? ByteMessage.message() : scratch;
 
         try {
-            msg.startBitAccess();
-            msg.putBits(8, player.getLocalNpcs().size());
+            Viewport<Npc> viewport = player.getLocalNpcs();
+            viewport.refresh(player);
 
-            Iterator<Npc> iterator = player.getLocalNpcs().iterator();
-            while (iterator.hasNext()) {
-                Npc other = iterator.next();
+            /* Local count, local movement, additions, and the terminator at their largest. */
+            msg.startBitAccess(8 + viewport.size() * 7 + viewport.enteringSize() * 38 + 14);
 
-                if (other.isViewable(player)) {
-                    handleMovement(other, msg);
-                    blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.UPDATE_LOCAL);
-                } else {
+            msg.putBits(8, viewport.size());
+            for (int slot = 0; slot < viewport.size(); slot++) {
+                if (viewport.isLeaving(slot)) {
                     msg.putBit(true);
                     msg.putBits(2, 3);
-                    iterator.remove();
+                } else {
+                    Npc other = viewport.get(slot);
+                    handleMovement(other, msg);
+                    blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.UPDATE_LOCAL);
                 }
             }
 
-            RegionManager regions = player.getWorld().getRegions();
-            int npcsAdded = 0;
-
-            for (Npc other : regions.getSurroundingNpcs(player)) {
-                if (npcsAdded == 15 || player.getLocalNpcs().size() >= 255) {
-                    break;
-                }
-                if (other.isViewable(player) && player.getLocalNpcs().add(other)) {
-                    addNpc(player, other, msg);
-                    blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.ADD_LOCAL);
-                }
-                npcsAdded++;
+            for (int slot = 0; slot < viewport.enteringSize(); slot++) {
+                Npc other = viewport.getEntering(slot);
+                addNpc(player, other, msg);
+                blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.ADD_LOCAL);
             }
+            viewport.apply();
 
             if (blockMsg.getBuffer().writerIndex() > 0) {
                 msg.putBits(14, 16383);
@@ -68,11 +81,12 @@ public final class NpcUpdateMessageWriter extends MessageWriter {
             } else {
                 msg.endBitAccess();
             }
-        } catch (Exception e) {
-            msg.release();
-            throw e;
         } finally {
-            blockMsg.release();
+            if (scratch == null) {
+                blockMsg.release();
+            } else {
+                blockMsg.getBuffer().clear();
+            }
         }
         return msg;
     }
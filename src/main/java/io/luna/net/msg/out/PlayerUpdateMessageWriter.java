@@ -1,18 +1,15 @@
 package io.luna.net.msg.out;
 
 import io.luna.game.model.Direction;
-import io.luna.game.model.EntityState;
 import io.luna.game.model.Position;
 import io.luna.game.model.mobile.Player;
+import io.luna.game.model.mobile.Viewport;
 import io.luna.game.model.mobile.update.UpdateBlockSet;
 import io.luna.game.model.mobile.update.UpdateState;
-import io.luna.game.model.region.RegionManager;
 import io.luna.net.codec.ByteMessage;
 import io.luna.net.codec.MessageType;
 import io.luna.net.msg.MessageWriter;
 
-import java.util.Iterator;
-
 /**
  * A {@link MessageWriter} implementation that sends a player update message.
  *
@@ -25,48 +22,60 @@ public final class PlayerUpdateMessageWriter extends MessageWriter {
      */
     private final UpdateBlockSet<Player> blockSet = UpdateBlockSet.PLAYER_BLOCK_SET;
 
+    /**
+     * A reusable buffer for update blocks, or {@code null} if one should be allocated.
+     */
+    private final ByteMessage scratch;
+
+    /**
+     * Creates a new {@link PlayerUpdateMessageWriter} that allocates its own buffer for update blocks.
+     */
+    public PlayerUpdateMessageWriter() {
+        this(null);
+    }
+
+    /**
+     * Creates a new {@link PlayerUpdateMessageWriter}.
+     *
+     * @param scratch A reusable buffer for update blocks, or {@code null} if one should be allocated.
+     */
+    public PlayerUpdateMessageWriter(ByteMessage scratch) {
+        this.scratch = scratch;
+    }
+
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(81, MessageType.VAR_SHORT);
-        ByteMessage blockMsg = ByteMessage.message();
+        ByteMessage msg = player.getSession().message(81, MessageType.VAR_SHORT);
+        ByteMessage blockMsg = scratch == null ? ByteMessage.message() : scratch;
 
         try {
-            msg.startBitAccess();
+            Viewport<Player> viewport = player.getLocalPlayers();
+            viewport.refresh(player);
+
+            /* Self movement, local count, local movement, additions, and the terminator at their largest. */
+            msg.startBitAccess(21 + 8 + viewport.size() * 10 + viewport.enteringSize() * 23 + 11);
 
             handleMovement(player, msg);
             blockSet.encodeUpdateBlocks(player, blockMsg, UpdateState.UPDATE_SELF);
 
-            msg.putBits(8, player.getLocalPlayers().size());
-            Iterator<Player> iterator = player.getLocalPlayers().iterator();
-            while (iterator.hasNext()) {
-                Player other = iterator.next();
-
-                if (other.isViewable(player) && other.getState() == EntityState.ACTIVE && !other.isRegionChanged()) {
-                    handleMovement(other, msg);
-                    blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.UPDATE_LOCAL);
-                } else {
+            msg.putBits(8, viewport.size());
+            for (int slot = 0; slot < viewport.size(); slot++) {
+                if (viewport.isLeaving(slot)) {
                     msg.putBit(true);
                     msg.putBits(2, 3);
-                    iterator.remove();
+                } else {
+                    Player other = viewport.get(slot);
+                    handleMovement(other, msg);
+                    blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.UPDATE_LOCAL);
                 }
             }
 
-            RegionManager regions = player.getWorld().getRegions();
-            int playersAdded = 0;
-
-            for (Player other : regions.getSurroundingPlayers(player)) {
-                if (playersAdded == 15 || player.getLocalPlayers().size() >= 255) {
-                    break;
-                }
-                if (player.equals(other) || other.getState() != EntityState.ACTIVE) {
-                    continue;
-                }
-                if (other.getPosition().isViewable(player.getPosition()) && player.getLocalPlayers().add(other)) {
-                    playersAdded++;
-                    addPlayer(msg, player, other);
-                    blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.ADD_LOCAL);
-                }
+            for (int slot = 0; slot < viewport.enteringSize(); slot++) {
+                Player other = viewport.getEntering(slot);
+                addPlayer(msg, player, other);
+                blockSet.encodeUpdateBlocks(other, blockMsg, UpdateState.ADD_LOCAL);
             }
+            viewport.apply();
 
             if (blockMsg.getBuffer().writerIndex() > 0) {
                 msg.putBits(11, 2047);
@@ -75,11 +84,12 @@ public final class PlayerUpdateMessageWriter extends MessageWriter {
             } else {
                 msg.endBitAccess();
             }
-        } catch (Exception e) {
-            msg.release();
-            throw e;
         } finally {
-            blockMsg.release();
+            if (scratch == null) {
+                blockMsg.release();
+            } else {
+                blockMsg.getBuffer().clear();
+            }
         }
         return msg;
     }
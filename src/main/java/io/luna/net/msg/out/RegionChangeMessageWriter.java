@@ -14,7 +14,7 @@ public final class RegionChangeMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(73);
+        ByteMessage msg = player.getSession().message(73);
         msg.putShort(player.getPosition().getRegionX() + 6, ByteTransform.A);
         msg.putShort(player.getPosition().getRegionY() + 6);
         return msg;
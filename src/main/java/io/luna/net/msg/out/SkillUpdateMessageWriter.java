@@ -30,7 +30,7 @@ public final class SkillUpdateMessageWriter extends MessageWriter {
     @Override
     public ByteMessage write(Player player) {
         Skill skill = player.skill(id);
-        ByteMessage msg = ByteMessage.message(134);
+        ByteMessage msg = player.getSession().message(134);
         msg.put(id);
         msg.putInt((int) skill.getExperience(), ByteOrder.MIDDLE);
         msg.put(skill.getLevel());
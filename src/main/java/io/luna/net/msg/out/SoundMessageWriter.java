@@ -50,10 +50,15 @@ public final class SoundMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(174);
+        ByteMessage msg = player.getSession().message(174);
         msg.putShort(id);
         msg.put(loops);
         msg.putShort(delay);
         return msg;
     }
+
+    @Override
+    public boolean isEssential() {
+        return false;
+    }
 }
@@ -48,7 +48,7 @@ public final class TabInterfaceMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(71);
+        ByteMessage msg = player.getSession().message(71);
         msg.putShort(interfaceId);
         msg.put(tabId, ByteTransform.A);
         return msg;
@@ -27,7 +27,7 @@ public final class UpdateRunEnergyMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(110);
+        ByteMessage msg = player.getSession().message(110);
         msg.put(energy);
         return msg;
     }
@@ -28,7 +28,7 @@ public class WalkableInterfaceMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(208);
+        ByteMessage msg = player.getSession().message(208);
         msg.putShort(id, ByteOrder.LITTLE);
         return msg;
     }
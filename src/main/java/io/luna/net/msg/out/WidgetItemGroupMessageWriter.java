@@ -53,7 +53,7 @@ public final class WidgetItemGroupMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(53, MessageType.VAR_SHORT);
+        ByteMessage msg = player.getSession().message(53, MessageType.VAR_SHORT);
         msg.putShort(id);
         msg.putShort(items.size());
 
@@ -74,4 +74,9 @@ public final class WidgetItemGroupMessageWriter extends MessageWriter {
         }
         return msg;
     }
+
+    @Override
+    public Object getRefreshKey() {
+        return id;
+    }
 }
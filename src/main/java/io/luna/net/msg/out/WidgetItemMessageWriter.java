@@ -43,7 +43,7 @@ public final class WidgetItemMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(34, MessageType.VAR_SHORT);
+        ByteMessage msg = player.getSession().message(34, MessageType.VAR_SHORT);
         msg.putShort(id);
         msg.put(index);
 
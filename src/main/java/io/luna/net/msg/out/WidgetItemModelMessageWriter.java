@@ -42,7 +42,7 @@ public class WidgetItemModelMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(246);
+        ByteMessage msg = player.getSession().message(246);
         msg.putShort(id, ByteOrder.LITTLE);
         msg.putShort(scale);
         msg.putShort(item);
@@ -36,7 +36,7 @@ public final class WidgetTextMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(126, MessageType.VAR_SHORT);
+        ByteMessage msg = player.getSession().message(126, MessageType.VAR_SHORT);
         msg.putString(text);
         msg.putShort(id, ByteTransform.A);
         return msg;
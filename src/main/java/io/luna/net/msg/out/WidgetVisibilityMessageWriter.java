@@ -34,7 +34,7 @@ public final class WidgetVisibilityMessageWriter extends MessageWriter {
 
     @Override
     public ByteMessage write(Player player) {
-        ByteMessage msg = ByteMessage.message(171);
+        ByteMessage msg = player.getSession().message(171);
         msg.put(hide ? 1 : 0);
         msg.putShort(id);
         return msg;
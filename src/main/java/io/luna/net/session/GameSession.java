@@ -1,24 +1,65 @@
 package io.luna.net.session;
 
+import io.luna.LunaConstants;
 import io.luna.game.model.mobile.Player;
 import io.luna.net.LunaNetworkConstants;
+import io.luna.net.codec.ByteMessage;
 import io.luna.net.codec.IsaacCipher;
+import io.luna.net.codec.MessageType;
+import io.luna.net.codec.game.GameMessageBuffer;
 import io.luna.net.msg.GameMessage;
+import io.luna.net.msg.MessageRateLimiter;
 import io.luna.net.msg.MessageReader;
 import io.luna.net.msg.MessageRepository;
 import io.luna.net.msg.MessageWriter;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A {@link Session} implementation that handles gameplay networking.
+ * <p>
+ * Sessions whose channel is unwritable are backed up, meaning the client isn't reading as fast as it's being written
+ * to. While backed up non-essential messages are skipped and refreshes are held back, and if the session stays
+ * backed up for {@link LunaConstants#UNWRITABLE_TICK_LIMIT} ticks it's disconnected.
  *
  * @author lare96 <http://github.org/lare96>
  */
 public final class GameSession extends Session {
 
+    /**
+     * An enumerated type whose elements represent the reasons reading from the client can be paused. Reading only
+     * resumes once none of them hold.
+     */
+    public enum ReadPause {
+
+        /**
+         * A message exceeded its rate limit, held until the limit has a token again.
+         */
+        RATE_LIMIT,
+
+        /**
+         * The inbound queue was filled under critical load, held until a tick that isn't.
+         */
+        FLOOD
+    }
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
     /**
      * The player.
      */
@@ -39,11 +80,56 @@ public final class GameSession extends Session {
      */
     private final MessageRepository messageRepository;
 
+    /**
+     * The outbound messages queued this tick.
+     */
+    private final GameMessageBuffer outbound;
+
+    /**
+     * The inbound message rate limiter.
+     */
+    private final MessageRateLimiter rateLimiter;
+
     /**
      * A bounded queue of decoded game packets.
      */
     private final Queue<GameMessage> inboundQueue = new ArrayBlockingQueue<>(LunaNetworkConstants.MESSAGE_LIMIT);
 
+    /**
+     * The latest refresh held back for each key while backed up.
+     */
+    private final Map<Object, MessageWriter> heldRefreshes = new LinkedHashMap<>();
+
+    /**
+     * The amount of flushed bytes not yet written to the client.
+     */
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    /**
+     * The amount of messages skipped or replaced while backed up.
+     */
+    private long skipped;
+
+    /**
+     * The consecutive ticks this session has been backed up for.
+     */
+    private int unwritableTicks;
+
+    /**
+     * The reasons reading is paused, one bit per {@link ReadPause}. Only used on the channel's event loop.
+     */
+    private int readPauses;
+
+    /**
+     * If reading is paused for {@link ReadPause#FLOOD}. Only used on the game thread.
+     */
+    private boolean flooding;
+
+    /**
+     * If the outbound buffer has been released. Only used on the game thread.
+     */
+    private boolean released;
+
     /**
      * Creates a new {@link GameSession}.
      *
@@ -59,6 +145,8 @@ public final class GameSession extends Session {
         this.encryptor = encryptor;
         this.decryptor = decryptor;
         this.messageRepository = messageRepository;
+        outbound = new GameMessageBuffer(encryptor);
+        rateLimiter = new MessageRateLimiter(messageRepository);
     }
 
     @Override
@@ -69,36 +157,185 @@ public final class GameSession extends Session {
     @Override
     public void handleUpstreamMessage(Object msg) {
         if (msg instanceof GameMessage) {
-            inboundQueue.offer((GameMessage) msg);
+            GameMessage gameMsg = (GameMessage) msg;
+            if (!inboundQueue.offer(gameMsg)) {
+                gameMsg.getPayload().release(); /* Payloads pin the decoder's buffer, so don't leak them. */
+            }
         }
     }
 
     /**
-     * Writes a message to the underlying channel; The channel is not flushed.
+     * Starts a message at the end of this tick's outbound buffer. Only {@link MessageWriter}s being queued should call
+     * this.
+     */
+    public ByteMessage message(int opcode, MessageType type) {
+        return outbound.start(opcode, type);
+    }
+
+    /**
+     * Starts a fixed size message at the end of this tick's outbound buffer. Only {@link MessageWriter}s being queued
+     * should call this.
+     */
+    public ByteMessage message(int opcode) {
+        return message(opcode, MessageType.FIXED);
+    }
+
+    /**
+     * Writes a message to this tick's outbound buffer; Nothing is sent until the session is flushed.
      */
     public void queue(MessageWriter msg) {
         Channel channel = getChannel();
+        if (released || !channel.isActive()) {
+            return;
+        }
 
-        if (channel.isActive()) {
-            channel.write(msg.handleOutboundMessage(player), channel.voidPromise());
+        Object refreshKey = msg.getRefreshKey();
+        if (!channel.isWritable()) {
+            if (!msg.isEssential()) {
+                skipped++;
+                return;
+            } else if (refreshKey != null) {
+                if (heldRefreshes.put(refreshKey, msg) != null) {
+                    skipped++;
+                }
+                return;
+            }
+        } else if (refreshKey != null && heldRefreshes.remove(refreshKey) != null) {
+            skipped++;
+        }
+
+        long start = System.nanoTime();
+        ByteMessage written;
+        try {
+            written = msg.write(player);
+        } catch (RuntimeException e) {
+            outbound.abort();
+            throw e;
         }
+        int opcode = written.getOpcode();
+        int size = outbound.finish(written);
+        player.getWorld().getTrafficProfiler().outbound(msg.getClass(), opcode, size, System.nanoTime() - start);
     }
 
     /**
-     * Flushes the underlying channel.
+     * Writes this tick's outbound buffer to the underlying channel as one buffer, then flushes it. Should be called
+     * once every tick, as it also applies the backed up policy. Use a {@link SessionFlusher} to flush many sessions
+     * at once.
      */
     public void flush() {
+        ByteBuf buf = take();
+        if (buf != null) {
+            write(buf);
+        }
+    }
+
+    /**
+     * Flushes this session a final time, then releases anything left in the outbound buffer, such as a message that
+     * was never finished. Messages queued afterwards are dropped. Called on the game thread once the player has
+     * logged out.
+     */
+    public void release() {
+        try {
+            flush();
+        } finally {
+            released = true;
+            outbound.release();
+            heldRefreshes.clear();
+        }
+    }
+
+    /**
+     * Applies the backed up policy, then takes this tick's outbound buffer. Returns {@code null} if there's nothing
+     * to write.
+     */
+    ByteBuf take() {
+        Channel channel = getChannel();
+        if (channel.isWritable()) {
+            unwritableTicks = 0;
+            sendHeldRefreshes();
+        } else if (channel.isActive() && ++unwritableTicks >= LunaConstants.UNWRITABLE_TICK_LIMIT) {
+            LOGGER.warn("{} backed up for {} ticks with {} bytes pending, disconnecting.", player, unwritableTicks,
+                pendingBytes.get());
+            channel.close();
+        }
+
+        ByteBuf buf = outbound.take();
+        if (buf != null && !channel.isActive()) {
+            buf.release();
+            return null;
+        }
+        return buf;
+    }
+
+    /**
+     * Writes and flushes a buffer returned by {@link #take()}. Should be called from the channel's event loop where
+     * possible, so the write doesn't become a task of its own.
+     */
+    void write(ByteBuf buf) {
         Channel channel = getChannel();
+        int size = buf.readableBytes();
+        pendingBytes.addAndGet(size);
+
+        ChannelPromise promise = channel.newPromise();
+        promise.addListener(future -> pendingBytes.addAndGet(-size));
+        promise.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        channel.writeAndFlush(buf, promise);
+    }
 
-        if (channel.isActive()) {
-            channel.flush();
+    /**
+     * Queues the refreshes held back while this session was backed up.
+     */
+    private void sendHeldRefreshes() {
+        Iterator<MessageWriter> iterator = heldRefreshes.values().iterator();
+        while (iterator.hasNext()) {
+            MessageWriter msg = iterator.next();
+            iterator.remove();
+            queue(msg);
         }
     }
 
     /**
-     * Dequeues decoded game packets and applies their listeners to them.
+     * Pauses or resumes reading from the client for {@code reason}. The change is made on the channel's event loop,
+     * so this can be called from any thread.
+     */
+    public void setReadPaused(ReadPause reason, boolean paused) {
+        Channel channel = getChannel();
+        EventLoop eventLoop = channel.eventLoop();
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(() -> setReadPaused(reason, paused));
+            return;
+        }
+
+        int bit = 1 << reason.ordinal();
+        readPauses = paused ? readPauses | bit : readPauses & ~bit;
+        channel.config().setAutoRead(readPauses == 0);
+    }
+
+    /**
+     * Returns {@code true} if reading is paused for {@code reason}. Only accurate on the channel's event loop.
      */
-    public void dequeue() {
+    public boolean isReadPaused(ReadPause reason) {
+        return (readPauses & 1 << reason.ordinal()) != 0;
+    }
+
+    /**
+     * Pauses or resumes reading for {@link ReadPause#FLOOD}. Returns {@code true} if this changed anything. Only the
+     * game thread should call this.
+     */
+    public boolean setFlooding(boolean flooding) {
+        if (this.flooding == flooding) {
+            return false;
+        }
+        this.flooding = flooding;
+        setReadPaused(ReadPause.FLOOD, flooding);
+        return true;
+    }
+
+    /**
+     * Dequeues decoded game packets and applies their listeners to them. Returns the amount of packets handled.
+     */
+    public int dequeue() {
+        int count = 0;
         for (; ; ) {
             GameMessage msg = inboundQueue.poll();
             if (msg == null) {
@@ -106,7 +343,9 @@ public final class GameSession extends Session {
             }
             MessageReader inbound = messageRepository.getHandler(msg.getOpcode());
             inbound.handleInboundMessage(player, msg);
+            count++;
         }
+        return count;
     }
 
     /**
@@ -122,4 +361,32 @@ public final class GameSession extends Session {
     public IsaacCipher getDecryptor() {
         return decryptor;
     }
+
+    /**
+     * @return The inbound message rate limiter.
+     */
+    public MessageRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @return The amount of flushed bytes not yet written to the client.
+     */
+    public long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * @return The amount of messages skipped or replaced while backed up.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return The consecutive ticks this session has been backed up for.
+     */
+    public int getUnwritableTicks() {
+        return unwritableTicks;
+    }
 }
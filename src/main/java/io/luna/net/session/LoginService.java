@@ -0,0 +1,228 @@
+package io.luna.net.session;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.luna.LunaConstants;
+import io.luna.LunaContext;
+import io.luna.game.profile.RollingHistogram;
+import io.luna.game.profile.TickProfiler;
+import io.luna.net.codec.login.LoginRequestMessage;
+import io.luna.net.codec.login.LoginResponse;
+import io.luna.net.codec.login.LoginResponseMessage;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A model that decrypts, validates, and loads logins on a bounded pool of login threads, keeping that work off the
+ * event loops. Logins are admitted at the rate the world adds players each tick, and logins that don't fit within
+ * the queue are told how long to wait before retrying.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class LoginService implements LoginServiceMXBean {
+
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * The amount of recent login latencies kept.
+     */
+    private static final int WINDOW = 1000;
+
+    /**
+     * The context instance.
+     */
+    private final LunaContext context;
+
+    /**
+     * The login threads.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The amount of logins that may still be processed this tick.
+     */
+    private final Semaphore admissions = new Semaphore(0);
+
+    /**
+     * The recent login latencies.
+     */
+    private final RollingHistogram latency = new RollingHistogram(WINDOW);
+
+    /**
+     * The amount of logins accepted.
+     */
+    private final AtomicLong accepted = new AtomicLong();
+
+    /**
+     * The amount of logins refused.
+     */
+    private final AtomicLong refused = new AtomicLong();
+
+    /**
+     * The amount of logins told to retry.
+     */
+    private final AtomicLong requeued = new AtomicLong();
+
+    /**
+     * The amount of logins that failed.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * The amount of logins dropped while queued.
+     */
+    private final AtomicLong abandoned = new AtomicLong();
+
+    /**
+     * Creates a new {@link LoginService}.
+     *
+     * @param context The context instance.
+     */
+    public LoginService(LunaContext context) {
+        this.context = context;
+
+        executor = new ThreadPoolExecutor(LunaConstants.LOGIN_THREADS, LunaConstants.LOGIN_THREADS, 60,
+            TimeUnit.SECONDS, new ArrayBlockingQueue<>(LunaConstants.LOGIN_QUEUE_SIZE),
+            new ThreadFactoryBuilder().setNameFormat("LunaLoginThread").build());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Registers this service with the platform MBean server.
+     */
+    public void registerMBean() throws Exception {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("io.luna:type=LoginService"));
+    }
+
+    /**
+     * Queues {@code request} to be processed by a login thread. If the queue is full, the client is told to retry
+     * once it would have drained.
+     */
+    public void submit(LoginSession session, LoginRequestMessage request) {
+        try {
+            executor.execute(() -> process(session, request));
+        } catch (RejectedExecutionException e) {
+            requeued.incrementAndGet();
+
+            Channel channel = session.getChannel();
+            channel.writeAndFlush(new LoginResponseMessage(computeWaitSeconds()))
+                .addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Allows up to {@code threshold} logins to be processed until the next tick. Called on the game thread.
+     */
+    public void admit(int threshold) {
+        int missing = threshold - admissions.availablePermits();
+        if (missing > 0) {
+            admissions.release(missing);
+        }
+    }
+
+    /**
+     * Waits for admission, then processes {@code request} on a login thread.
+     */
+    private void process(LoginSession session, LoginRequestMessage request) {
+        try {
+            admissions.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Channel channel = session.getChannel();
+        if (!channel.isActive()) {
+            admissions.release();
+            abandoned.incrementAndGet();
+            return;
+        }
+
+        try {
+            LoginResponse response = session.handleRequest(request);
+            latency.record(System.nanoTime() - request.getReceivedAt());
+            if (response == LoginResponse.NORMAL) {
+                accepted.incrementAndGet();
+            } else {
+                refused.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            LOGGER.catching(e);
+            channel.close();
+        }
+    }
+
+    /**
+     * Estimates how many seconds a full queue takes to drain at the current admission rate.
+     */
+    private int computeWaitSeconds() {
+        int threshold = context.getWorld().getLoadMonitor().getLoadLevel().getLoginThreshold();
+        long ticks = (LunaConstants.LOGIN_QUEUE_SIZE + threshold - 1) / threshold;
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(ticks * TickProfiler.TICK_NANOS) + 1;
+        return (int) Math.min(seconds, 255);
+    }
+
+    @Override
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    @Override
+    public long getRefused() {
+        return refused.get();
+    }
+
+    @Override
+    public long getRequeued() {
+        return requeued.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public long getAbandoned() {
+        return abandoned.get();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getP95Nanos() {
+        return latency.percentile(95);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.max();
+    }
+}
@@ -0,0 +1,60 @@
+package io.luna.net.session;
+
+/**
+ * The management interface for login metrics. Latencies are in nanoseconds, from a login request being received to
+ * its response being written, over the most recent logins.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public interface LoginServiceMXBean {
+
+    /**
+     * @return The amount of logins waiting for a login thread.
+     */
+    int getQueued();
+
+    /**
+     * @return The amount of logins accepted.
+     */
+    long getAccepted();
+
+    /**
+     * @return The amount of logins refused with a response other than {@code NORMAL}.
+     */
+    long getRefused();
+
+    /**
+     * @return The amount of logins told to retry because the queue was full.
+     */
+    long getRequeued();
+
+    /**
+     * @return The amount of logins that failed with an exception.
+     */
+    long getFailed();
+
+    /**
+     * @return The amount of logins dropped because the client disconnected while queued.
+     */
+    long getAbandoned();
+
+    /**
+     * @return The median login latency.
+     */
+    long getP50Nanos();
+
+    /**
+     * @return The 95th percentile of login latency.
+     */
+    long getP95Nanos();
+
+    /**
+     * @return The 99th percentile of login latency.
+     */
+    long getP99Nanos();
+
+    /**
+     * @return The largest login latency.
+     */
+    long getMaxNanos();
+}
@@ -7,8 +7,8 @@ import io.luna.game.model.mobile.PlayerCredentials;
 import io.luna.game.model.mobile.PlayerSerializer;
 import io.luna.net.LunaNetworkConstants;
 import io.luna.net.codec.game.GameMessageDecoder;
-import io.luna.net.codec.game.GameMessageEncoder;
 import io.luna.net.codec.login.LoginCredentialsMessage;
+import io.luna.net.codec.login.LoginRequestMessage;
 import io.luna.net.codec.login.LoginResponse;
 import io.luna.net.codec.login.LoginResponseMessage;
 import io.luna.net.msg.MessageRepository;
@@ -16,6 +16,8 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelPipeline;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -30,6 +32,11 @@ import static com.google.common.base.Preconditions.checkState;
  */
 public final class LoginSession extends Session {
 
+    /**
+     * The asynchronous logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger();
+
     /**
      * The context instance.
      */
@@ -55,16 +62,23 @@ public final class LoginSession extends Session {
 
     @Override
     public void handleUpstreamMessage(Object msg) throws Exception {
-        if (msg instanceof LoginCredentialsMessage) {
-            LoginCredentialsMessage credentials = (LoginCredentialsMessage) msg;
-            handleCredentials(credentials);
+        if (msg instanceof LoginRequestMessage) {
+            LoginRequestMessage request = (LoginRequestMessage) msg;
+            context.getLoginService().submit(this, request);
         }
     }
 
     /**
-     * Handles the received login credentials.
+     * Decrypts and handles a login request. Called on a login thread.
      */
-    private void handleCredentials(LoginCredentialsMessage msg) throws Exception {
+    LoginResponse handleRequest(LoginRequestMessage request) throws Exception {
+        return handleCredentials(request.decrypt());
+    }
+
+    /**
+     * Handles the received login credentials, returning the response sent.
+     */
+    private LoginResponse handleCredentials(LoginCredentialsMessage msg) throws Exception {
         // TODO: Pretty ugly, find a nicer way of doing this?
 
         Channel channel = getChannel();
@@ -79,39 +93,61 @@ public final class LoginSession extends Session {
 
         Player player = new Player(context, new PlayerCredentials(username, password));
 
-        if (world.getPlayers().isFull()) {
-            response = LoginResponse.WORLD_FULL;
-        }
-
-        if (world.getPlayer(player.getUsernameHash()).isPresent()) {
-            response = LoginResponse.ACCOUNT_ONLINE;
-        }
+        // Once claimed, the username must be released unless the player is queued for login.
+        boolean claimed = false;
+        try {
+            if (world.getPlayers().isFull()) {
+                response = LoginResponse.WORLD_FULL;
+            } else if (!(claimed = world.claimUsername(player))) {
+                response = LoginResponse.ACCOUNT_ONLINE;
+            } else {
+                PlayerSerializer deserializer = new PlayerSerializer(player);
 
-        if (response == LoginResponse.NORMAL) {
-            PlayerSerializer deserializer = new PlayerSerializer(player);
+                response = deserializer.load(context.getSaveService(), password);
+                response = handlePunishments(player).orElse(response);
+            }
 
-            response = deserializer.load(password);
-            response = handlePunishments(player).orElse(response);
+            ChannelFuture future = channel.writeAndFlush(new LoginResponseMessage(response, player.getRights(),
+                false));
+            if (response != LoginResponse.NORMAL) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            } else {
+                future.addListener(it -> {
+                    try {
+                        if (!it.isSuccess()) {
+                            world.releaseUsername(player);
+                            channel.close();
+                            return;
+                        }
+                        GameSession session = new GameSession(player, channel, msg.getEncryptor(),
+                            msg.getDecryptor(), messageRepository);
+
+                        pipeline.remove("login-encoder");
+                        pipeline.replace("login-decoder", "game-decoder", new GameMessageDecoder(msg.getDecryptor(),
+                            messageRepository, session, world.getTrafficProfiler()));
+
+                        channel.attr(LunaNetworkConstants.SESSION_KEY).set(session);
+                        player.setSession(session);
+
+                        world.queueLogin(player);
+                    } catch (Exception e) {
+                        LOGGER.catching(e);
+                        world.releaseUsername(player);
+                        channel.close();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            if (claimed) {
+                world.releaseUsername(player);
+            }
+            throw e;
         }
 
-        ChannelFuture future = channel.writeAndFlush(new LoginResponseMessage(response, player.getRights(), false));
-        if (response != LoginResponse.NORMAL) {
-            future.addListener(ChannelFutureListener.CLOSE);
-        } else {
-            future.addListener(it -> {
-                pipeline.replace("login-encoder", "game-encoder", new GameMessageEncoder(msg.getEncryptor()));
-                pipeline.replace("login-decoder", "game-decoder",
-                    new GameMessageDecoder(msg.getDecryptor(), messageRepository));
-
-                GameSession session = new GameSession(player, channel, msg.getEncryptor(), msg.getDecryptor(),
-                    messageRepository);
-
-                channel.attr(LunaNetworkConstants.SESSION_KEY).set(session);
-                player.setSession(session);
-
-                world.queueLogin(player);
-            });
+        if (claimed && response != LoginResponse.NORMAL) {
+            world.releaseUsername(player);
         }
+        return response;
     }
 
     /**
@@ -0,0 +1,91 @@
+package io.luna.net.session;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A model that flushes many {@link GameSession}s at once from a thread outside of Netty. Flushing a channel from
+ * another thread submits a task to its event loop for every channel, so instead sessions are grouped by event loop
+ * and each loop is given a single task that writes all of them.
+ * <p>
+ * Instances are not thread safe, and should only be used by the game thread.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class SessionFlusher {
+
+    /**
+     * The sessions of a single event loop, and the buffers to write to them.
+     */
+    private static final class Batch implements Runnable {
+
+        /**
+         * The sessions.
+         */
+        private final List<GameSession> sessions = new ArrayList<>();
+
+        /**
+         * The buffers, in the same order as the sessions.
+         */
+        private final List<ByteBuf> buffers = new ArrayList<>();
+
+        @Override
+        public void run() {
+            for (int index = 0; index < sessions.size(); index++) {
+                sessions.get(index).write(buffers.get(index));
+            }
+        }
+
+        /**
+         * Releases every buffer without writing it.
+         */
+        private void release() {
+            buffers.forEach(ByteBuf::release);
+        }
+    }
+
+    /**
+     * The batches being built, by event loop.
+     */
+    private final Map<EventLoop, Batch> batches = new IdentityHashMap<>();
+
+    /**
+     * Takes {@code session}'s outbound buffer, to be written by the next {@link #flush()}.
+     */
+    public void add(GameSession session) {
+        ByteBuf buf = session.take();
+        if (buf == null) {
+            return;
+        }
+
+        EventLoop loop = session.getChannel().eventLoop();
+        Batch batch = batches.get(loop);
+        if (batch == null) {
+            batch = new Batch();
+            batches.put(loop, batch);
+        }
+        batch.sessions.add(session);
+        batch.buffers.add(buf);
+    }
+
+    /**
+     * Hands every batch to its event loop to be written and flushed.
+     */
+    public void flush() {
+        for (Map.Entry<EventLoop, Batch> entry : batches.entrySet()) {
+            Batch batch = entry.getValue();
+            try {
+                entry.getKey().execute(batch);
+            } catch (RejectedExecutionException e) {
+                batch.release(); /* The event loop is shutting down. */
+            }
+        }
+        batches.clear();
+    }
+}
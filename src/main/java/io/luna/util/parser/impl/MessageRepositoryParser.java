@@ -1,15 +1,22 @@
 package io.luna.util.parser.impl;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import fj.P;
 import fj.P3;
 import io.luna.net.msg.MessageRepository;
 import io.luna.util.parser.GsonParser;
 
+import java.io.BufferedReader;
 import java.util.List;
 
+import static io.luna.util.GsonUtils.getAsType;
+
 /**
- * A {@link GsonParser} implementation that parses incoming packet data.
+ * A {@link GsonParser} implementation that parses incoming packet data and the rate limits shared between incoming
+ * packets.
  *
  * @author lare96 <http://github.org/lare96>
  */
@@ -30,6 +37,25 @@ public final class MessageRepositoryParser extends GsonParser<P3<Integer, Intege
         this.messageRepository = messageRepository;
     }
 
+    @Override
+    public JsonArray getReader(BufferedReader in) throws Exception {
+        JsonObject root = new JsonParser().parse(in).getAsJsonObject();
+
+        JsonObject rateLimits = root.getAsJsonObject("rate_limits");
+        messageRepository.setFloodLimits(rateLimits.get("flood_window_seconds").getAsInt(),
+            rateLimits.get("flood_delay_threshold").getAsInt(), rateLimits.get("flood_disconnect_threshold").getAsInt());
+        for (JsonElement element : rateLimits.getAsJsonArray("limits")) {
+            JsonObject limit = element.getAsJsonObject();
+            String name = limit.get("name").getAsString();
+            int capacity = limit.get("capacity").getAsInt();
+            double perSecond = limit.get("per_second").getAsDouble();
+            int[] opcodes = limit.has("opcodes") ? getAsType(limit.get("opcodes"), int[].class) : new int[0];
+            boolean isDefault = limit.has("default") && limit.get("default").getAsBoolean();
+            messageRepository.addRateLimit(name, capacity, perSecond, opcodes, isDefault);
+        }
+        return root.getAsJsonArray("messages");
+    }
+
     @Override
     public P3<Integer, Integer, String> readObject(JsonObject reader) throws Exception {
         int opcode = reader.get("opcode").getAsInt();
@@ -0,0 +1,64 @@
+package io.luna.codec;
+
+import io.luna.net.codec.ByteMessage;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A test that ensures bit access mode in {@link ByteMessage} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class ByteMessageTest {
+
+    /**
+     * Test writing bits of varying lengths, checked against a naive bit-by-bit writer.
+     */
+    @Test
+    public void testPutBits() {
+        Random random = new Random(317);
+        int[] amounts = new int[4096];
+        int[] values = new int[amounts.length];
+        int totalBits = 0;
+        for (int index = 0; index < amounts.length; index++) {
+            amounts[index] = 1 + random.nextInt(32);
+            values[index] = random.nextInt();
+            totalBits += amounts[index];
+        }
+
+        byte[] expected = new byte[(totalBits + 7) / 8];
+        int bitIndex = 0;
+        for (int index = 0; index < amounts.length; index++) {
+            for (int bit = amounts[index] - 1; bit >= 0; bit--, bitIndex++) {
+                if ((values[index] >> bit & 1) != 0) {
+                    expected[bitIndex >> 3] |= 0x80 >> (bitIndex & 7);
+                }
+            }
+        }
+
+        ByteMessage msg = ByteMessage.message();
+        try {
+            msg.put(42);
+            msg.startBitAccess();
+            for (int index = 0; index < amounts.length; index++) {
+                msg.putBits(amounts[index], values[index]);
+            }
+            msg.endBitAccess();
+            msg.put(43);
+
+            ByteBuf buf = msg.getBuffer();
+            assertEquals(expected.length + 2, buf.writerIndex());
+            assertEquals(42, buf.getByte(0));
+            for (int index = 0; index < expected.length; index++) {
+                assertEquals(expected[index], buf.getByte(index + 1));
+            }
+            assertEquals(43, buf.getByte(expected.length + 1));
+        } finally {
+            msg.release();
+        }
+    }
+}
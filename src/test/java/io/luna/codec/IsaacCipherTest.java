@@ -0,0 +1,69 @@
+package io.luna.codec;
+
+import io.luna.net.codec.IsaacCipher;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A test that ensures the {@link IsaacCipher} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class IsaacCipherTest {
+
+    /**
+     * Test that encrypting opcodes in bulk gives the same result as encrypting them one at a time, across several
+     * blocks of keys and mixed with single keys, for both heap and direct buffers.
+     */
+    @Test
+    public void testEncryptOpcodes() {
+        testEncryptOpcodes(Unpooled.buffer(4096));
+        testEncryptOpcodes(Unpooled.directBuffer(4096));
+    }
+
+    /**
+     * Runs the bulk encryption test on {@code bulk}.
+     */
+    private void testEncryptOpcodes(ByteBuf bulk) {
+        Random random = new Random(7);
+        IsaacCipher scalarCipher = new IsaacCipher(new int[] { 1, 2, 3, 4 });
+        IsaacCipher bulkCipher = new IsaacCipher(new int[] { 1, 2, 3, 4 });
+        ByteBuf scalar = Unpooled.buffer(4096);
+        int[] offsets = new int[1024];
+
+        try {
+            for (int round = 0; round < 20; round++) {
+                scalar.clear();
+                bulk.clear();
+                for (int index = 0; index < 4096; index++) {
+                    int value = random.nextInt(256);
+                    scalar.writeByte(value);
+                    bulk.writeByte(value);
+                }
+
+                int amount = random.nextInt(offsets.length + 1);
+                for (int index = 0; index < amount; index++) {
+                    offsets[index] = random.nextInt(4096);
+                }
+
+                for (int index = 0; index < amount; index++) {
+                    int offset = offsets[index];
+                    scalar.setByte(offset, scalar.getByte(offset) + scalarCipher.nextInt());
+                }
+                bulkCipher.encryptOpcodes(bulk, offsets, amount);
+                assertEquals(scalar, bulk);
+
+                // single keys in between must stay in step
+                assertEquals(scalarCipher.nextInt(), bulkCipher.nextInt());
+            }
+        } finally {
+            scalar.release();
+            bulk.release();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.luna.codec.game;
+
+import io.luna.net.codec.ByteMessage;
+import io.luna.net.codec.IsaacCipher;
+import io.luna.net.codec.MessageType;
+import io.luna.net.codec.game.GameMessageBuffer;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * A test that ensures the {@link GameMessageBuffer} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ * @author Graham
+ */
+public final class GameMessageBufferTest {
+
+    /**
+     * Test encoding game packets.
+     */
+    @Test
+    public void testEncode() throws Exception {
+        IsaacCipher isaac = new IsaacCipher(new int[] { 0, 0, 0, 0 });
+
+        GameMessageBuffer outbound = new GameMessageBuffer(isaac);
+
+        byte[] payload = "test".getBytes();
+
+        // fixed length messages
+        ByteMessage msg = outbound.start(54, MessageType.FIXED);
+        msg.putBytes(payload);
+        outbound.finish(msg);
+
+        // variable length messages
+        msg = outbound.start(54, MessageType.VAR);
+        msg.putBytes(payload);
+        outbound.finish(msg);
+
+        // discarded messages don't use up the cipher
+        msg = outbound.start(54, MessageType.VAR);
+        msg.putBytes(payload);
+        outbound.abort();
+
+        // variable short length messages, built in their own buffer
+        msg = ByteMessage.message(54, MessageType.VAR_SHORT);
+        msg.putBytes(payload);
+        outbound.finish(msg);
+
+        ByteBuf buffer = outbound.take();
+        try {
+            assertEquals(41, buffer.readUnsignedByte());
+            assertEquals('t', buffer.readByte());
+            assertEquals('e', buffer.readByte());
+            assertEquals('s', buffer.readByte());
+            assertEquals('t', buffer.readByte());
+
+            assertEquals(195, buffer.readUnsignedByte());
+            assertEquals(4, buffer.readByte());
+            assertEquals('t', buffer.readByte());
+            assertEquals('e', buffer.readByte());
+            assertEquals('s', buffer.readByte());
+            assertEquals('t', buffer.readByte());
+
+            assertEquals(88, buffer.readUnsignedByte());
+            assertEquals(4, buffer.readUnsignedShort());
+            assertEquals('t', buffer.readByte());
+            assertEquals('e', buffer.readByte());
+            assertEquals('s', buffer.readByte());
+            assertEquals('t', buffer.readByte());
+
+            assertEquals(0, buffer.readableBytes());
+            assertNull(outbound.take());
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Test that messages which were never taken are released.
+     */
+    @Test
+    public void testRelease() throws Exception {
+        GameMessageBuffer outbound = new GameMessageBuffer(new IsaacCipher(new int[] { 0, 0, 0, 0 }));
+
+        ByteMessage msg = outbound.start(54, MessageType.FIXED);
+        msg.putBytes("test".getBytes());
+        ByteBuf buffer = msg.getBuffer();
+
+        outbound.release();
+        assertEquals(0, buffer.refCnt());
+        assertNull(outbound.take());
+    }
+}
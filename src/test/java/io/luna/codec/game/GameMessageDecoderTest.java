@@ -0,0 +1,199 @@
+package io.luna.codec.game;
+
+import io.luna.game.profile.TrafficProfiler;
+import io.luna.net.codec.IsaacCipher;
+import io.luna.net.codec.MessageType;
+import io.luna.net.codec.game.GameMessageDecoder;
+import io.luna.net.msg.GameMessage;
+import io.luna.net.msg.MessageRateLimiter;
+import io.luna.net.msg.MessageRepository;
+import io.luna.net.session.GameSession;
+import io.luna.net.session.GameSession.ReadPause;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test that ensures the {@link GameMessageDecoder} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class GameMessageDecoderTest {
+
+    /**
+     * Test decoding several game packets, split across reads at every possible point.
+     */
+    @Test
+    public void testDecode() throws Exception {
+        MessageRepository repository = createRepository(0.0, 0);
+
+        IsaacCipher encryptor = new IsaacCipher(new int[] { 0, 0, 0, 0 });
+        ByteBuf frames = Unpooled.buffer();
+
+        frames.writeByte(10 + encryptor.nextInt()); // fixed length
+        frames.writeBytes("test".getBytes());
+        frames.writeByte(20 + encryptor.nextInt()); // variable length
+        frames.writeByte(2);
+        frames.writeBytes("ab".getBytes());
+        frames.writeByte(30 + encryptor.nextInt()); // no handler, skipped
+        frames.writeByte(40 + encryptor.nextInt()); // variable short length
+        frames.writeShort(3);
+        frames.writeBytes("xyz".getBytes());
+        frames.writeByte(50 + encryptor.nextInt()); // empty
+
+        for (int split = 0; split <= frames.writerIndex(); split++) {
+            EmbeddedChannel channel = createChannel();
+            createSession(channel, repository);
+            channel.writeInbound(frames.retainedSlice(0, split));
+            channel.writeInbound(frames.retainedSlice(split, frames.writerIndex() - split));
+
+            assertMessage(channel.readInbound(), 10, MessageType.FIXED, "test");
+            assertMessage(channel.readInbound(), 20, MessageType.VAR, "ab");
+            assertMessage(channel.readInbound(), 40, MessageType.VAR_SHORT, "xyz");
+            assertMessage(channel.readInbound(), 50, MessageType.FIXED, "");
+            assertNull(channel.readInbound());
+            channel.finishAndReleaseAll();
+        }
+        frames.release();
+    }
+
+    /**
+     * Test that messages over their rate limit are dropped, then delayed, then disconnected.
+     */
+    @Test
+    public void testRateLimit() throws Exception {
+        MessageRepository repository = createRepository(0.001, 10);
+
+        IsaacCipher encryptor = new IsaacCipher(new int[] { 0, 0, 0, 0 });
+        ByteBuf frames = Unpooled.buffer();
+        for (int count = 0; count < 100; count++) {
+            frames.writeByte(10 + encryptor.nextInt());
+            frames.writeBytes("test".getBytes());
+        }
+
+        EmbeddedChannel channel = createChannel();
+        MessageRateLimiter rateLimiter = createSession(channel, repository).getRateLimiter();
+        channel.writeInbound(frames);
+
+        assertMessage(channel.readInbound(), 10, MessageType.FIXED, "test");
+        assertMessage(channel.readInbound(), 10, MessageType.FIXED, "test");
+        assertNull(channel.readInbound());
+
+        assertEquals(repository.getFloodDisconnectThreshold() + 1, rateLimiter.getDropped());
+        assertEquals(repository.getFloodDisconnectThreshold() - repository.getFloodDelayThreshold(),
+            rateLimiter.getDelays());
+        assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Test that a tick resuming a flood pause doesn't cut a rate limit delay short, and that reading only resumes
+     * once neither holds.
+     */
+    @Test
+    public void testReadPauses() throws Exception {
+        MessageRepository repository = createRepository(20.0, 0);
+        EmbeddedChannel channel = createChannel();
+        GameSession session = createSession(channel, repository);
+
+        IsaacCipher encryptor = new IsaacCipher(new int[] { 0, 0, 0, 0 });
+        ByteBuf frames = Unpooled.buffer();
+        for (int count = 0; count < 3; count++) {
+            frames.writeByte(10 + encryptor.nextInt());
+            frames.writeBytes("test".getBytes());
+        }
+        channel.writeInbound(frames);
+        assertMessage(channel.readInbound(), 10, MessageType.FIXED, "test");
+        assertMessage(channel.readInbound(), 10, MessageType.FIXED, "test");
+        assertNull(channel.readInbound());
+        assertTrue(session.isReadPaused(ReadPause.RATE_LIMIT));
+        assertFalse(channel.config().isAutoRead());
+
+        /* A tick pauses and then resumes for flooding while the delay is pending. */
+        assertTrue(session.setFlooding(true));
+        assertTrue(session.setFlooding(false));
+        assertFalse(channel.config().isAutoRead());
+
+        /* The delay expires during a flood pause. */
+        assertTrue(session.setFlooding(true));
+        TimeUnit.MILLISECONDS.sleep(100);
+        channel.runPendingTasks();
+        assertFalse(session.isReadPaused(ReadPause.RATE_LIMIT));
+        assertFalse(channel.config().isAutoRead());
+
+        assertTrue(session.setFlooding(false));
+        assertTrue(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Asserts that {@code msg} is as expected, then releases it.
+     */
+    private void assertMessage(GameMessage msg, int opcode, MessageType type, String payload) {
+        try {
+            assertEquals(opcode, msg.getOpcode());
+            assertEquals(type, msg.getType());
+            assertEquals(payload, msg.getPayload().getBuffer().toString(StandardCharsets.US_ASCII));
+        } finally {
+            msg.getPayload().release();
+        }
+    }
+
+    /**
+     * Creates a channel with a remote address, as sessions require.
+     */
+    private EmbeddedChannel createChannel() {
+        return new EmbeddedChannel() {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return new InetSocketAddress("127.0.0.1", 43594);
+            }
+        };
+    }
+
+    /**
+     * Creates a session for {@code channel} and adds a decoder for it.
+     */
+    private GameSession createSession(EmbeddedChannel channel, MessageRepository repository) {
+        GameSession session = new GameSession(null, channel, new IsaacCipher(new int[] { 0, 0, 0, 0 }),
+            new IsaacCipher(new int[] { 0, 0, 0, 0 }), repository);
+        channel.pipeline().addLast(new GameMessageDecoder(new IsaacCipher(new int[] { 0, 0, 0, 0 }), repository,
+            session, new TrafficProfiler()));
+        return session;
+    }
+
+    /**
+     * Creates a message repository on an initialization thread, as required. If {@code perSecond} is positive,
+     * opcode {@code 10} is only allowed twice and then {@code perSecond} times a second, and reading is delayed after
+     * {@code delayThreshold} violations.
+     */
+    private MessageRepository createRepository(double perSecond, int delayThreshold) throws Exception {
+        FutureTask<MessageRepository> task = new FutureTask<>(() -> {
+            MessageRepository repository = new MessageRepository();
+            repository.addHandler(10, 4, null);
+            repository.addHandler(20, -1, null);
+            repository.addHandler(40, -2, null);
+            repository.addHandler(50, 0, null);
+            repository.setFloodLimits(5, delayThreshold, 50);
+            if (perSecond > 0.0) {
+                repository.addRateLimit("TEST", 2, perSecond, new int[] { 10 }, false);
+            }
+            return repository;
+        });
+        Thread thread = new Thread(task, "LunaInitializationThread");
+        thread.start();
+        return task.get();
+    }
+}
@@ -0,0 +1,262 @@
+package io.luna.game.model.mobile;
+
+import io.luna.game.model.Position;
+import io.luna.game.model.item.IndexedItem;
+import io.luna.game.model.item.Item;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test that ensures the {@link PlayerJournal} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerJournalTest {
+
+    /**
+     * A directory for player saves and journal segments.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The storage entries are replayed into.
+     */
+    private FilePlayerStorage storage;
+
+    /**
+     * The directory containing journal segments.
+     */
+    private Path directory;
+
+    /**
+     * Creates the storage with a save for {@code lare96}.
+     */
+    @Before
+    public void setUp() throws Exception {
+        storage = new FilePlayerStorage(folder.newFolder("saves").toPath());
+        storage.open();
+        storage.save("lare96", createData(1));
+        directory = folder.getRoot().toPath().resolve("journal");
+    }
+
+    /**
+     * Closes the storage.
+     */
+    @After
+    public void tearDown() throws Exception {
+        storage.close();
+    }
+
+    /**
+     * Test that every type of entry is replayed into the save, and that replayed segments are deleted.
+     */
+    @Test
+    public void testReplay() throws Exception {
+        PlayerJournal journal = start(4096);
+        journal.slotChanged("lare96", SaveSection.INVENTORY, 0, new Item(995, 50));
+        journal.slotChanged("lare96", SaveSection.INVENTORY, 5, new Item(4151, 1));
+        journal.skillChanged("lare96", 0, 10, 1154.0);
+        journal.positionChanged("lare96", new Position(3093, 3244, 1));
+        journal.attributeChanged("lare96", "run_energy", 50.0);
+        journal.slotChanged("nobody", SaveSection.INVENTORY, 0, new Item(995, 50));
+        journal.flush();
+        journal.close();
+        long sequence = journal.getSequence();
+
+        start(4096).close();
+        PlayerData data = storage.load("lare96");
+        assertEquals(50, data.getInventory()[0].getItem().getAmount());
+        assertEquals(5, data.getInventory()[1].getIndex());
+        assertEquals(4151, data.getInventory()[1].getItem().getId());
+        assertEquals(10, data.getLevels()[0]);
+        assertEquals(1154.0, data.getExperience()[0], 0.0);
+        assertEquals(3093, data.getX());
+        assertEquals(3244, data.getY());
+        assertEquals(1, data.getZ());
+        assertEquals(50.0, data.getAttributes().get("run_energy"));
+        assertEquals(sequence - 1, data.getJournalSequence());
+        assertNull(storage.load("nobody"));
+        assertEquals(0, countSegments());
+    }
+
+    /**
+     * Test that segments left behind are replayed while the journal is disabled, so they can't overwrite saves
+     * written without a sequence once it's enabled again.
+     */
+    @Test
+    public void testDisabledReplay() throws Exception {
+        writeAmounts(3);
+
+        PlayerJournal disabled = new PlayerJournal(storage, directory, false, 128);
+        disabled.start();
+        assertEquals(3, storage.load("lare96").getInventory()[0].getItem().getAmount());
+        assertEquals(0, countSegments());
+
+        storage.save("lare96", createData(99));
+        start(128).close();
+        assertEquals(99, storage.load("lare96").getInventory()[0].getItem().getAmount());
+    }
+
+    /**
+     * Test that entries a save already reflects aren't replayed over it.
+     */
+    @Test
+    public void testSequenceFiltering() throws Exception {
+        PlayerJournal journal = start(4096);
+        journal.slotChanged("lare96", SaveSection.INVENTORY, 0, new Item(995, 10));
+        PlayerData saved = createData(99);
+        saved.setJournalSequence(journal.getSequence());
+        storage.save("lare96", saved);
+        journal.skillChanged("lare96", 0, 10, 1154.0);
+        journal.flush();
+        journal.close();
+
+        start(4096).close();
+        PlayerData data = storage.load("lare96");
+        assertEquals(99, data.getInventory()[0].getItem().getAmount());
+        assertEquals(10, data.getLevels()[0]);
+        assertEquals(journal.getSequence(), data.getJournalSequence());
+    }
+
+    /**
+     * Test that replay stops at an entry with a bad checksum, even if valid entries follow it.
+     */
+    @Test
+    public void testBadChecksum() throws Exception {
+        writeAmounts(3);
+
+        Path segment = firstSegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(4);
+            int second = 4 + 8 + file.readInt();
+            file.seek(second + 8 + 8);
+            file.write(file.read() ^ 0xFF);
+        }
+
+        start(4096).close();
+        assertEquals(1, storage.load("lare96").getInventory()[0].getItem().getAmount());
+    }
+
+    /**
+     * Test that replay stops at an entry that was never completely written.
+     */
+    @Test
+    public void testTornEntry() throws Exception {
+        writeAmounts(3);
+
+        Path segment = firstSegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(4);
+            int second = 4 + 8 + file.readInt();
+            file.seek(second);
+            int length = file.readInt();
+            int third = second + 8 + length;
+            file.seek(third - length / 2);
+            file.write(new byte[length / 2 + 8 + length]);
+        }
+
+        start(4096).close();
+        assertEquals(1, storage.load("lare96").getInventory()[0].getItem().getAmount());
+    }
+
+    /**
+     * Test that full segments are rotated, and replayed in order.
+     */
+    @Test
+    public void testRotation() throws Exception {
+        writeAmounts(20);
+        assertTrue(countSegments() > 2);
+
+        start(128).close();
+        assertEquals(20, storage.load("lare96").getInventory()[0].getItem().getAmount());
+    }
+
+    /**
+     * Test that full segments are deleted once every player in them has been saved past their last entry.
+     */
+    @Test
+    public void testDeletion() throws Exception {
+        PlayerJournal journal = start(128);
+        for (int amount = 1; amount <= 10; amount++) {
+            journal.slotChanged("lare96", SaveSection.INVENTORY, 0, new Item(995, amount));
+            journal.flush();
+        }
+        journal.saved("lare96", journal.getSequence());
+
+        /* Enough ticks for the journal thread to look for segments to delete. */
+        for (int amount = 1; amount <= 100; amount++) {
+            journal.slotChanged("bot", SaveSection.INVENTORY, 0, new Item(995, amount));
+            journal.flush();
+        }
+        journal.close();
+
+        assertFalse(Files.exists(directory.resolve(String.format("%016d.log", 1))));
+        assertTrue(countSegments() > 1);
+    }
+
+    /**
+     * Journals {@code count} changes to the coins of {@code lare96}, one per tick, in segments of {@code 128}
+     * bytes.
+     */
+    private void writeAmounts(int count) throws Exception {
+        PlayerJournal journal = start(128);
+        for (int amount = 1; amount <= count; amount++) {
+            journal.slotChanged("lare96", SaveSection.INVENTORY, 0, new Item(995, amount));
+            journal.flush();
+        }
+        journal.close();
+    }
+
+    /**
+     * Creates and starts a journal with segments of {@code segmentSize} bytes.
+     */
+    private PlayerJournal start(int segmentSize) throws Exception {
+        PlayerJournal journal = new PlayerJournal(storage, directory, true, segmentSize);
+        journal.start();
+        return journal;
+    }
+
+    /**
+     * @return The oldest journal segment.
+     */
+    private Path firstSegment() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().findFirst().get();
+        }
+    }
+
+    /**
+     * @return The amount of journal segments.
+     */
+    private long countSegments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Creates data with {@code amount} coins in the inventory.
+     */
+    private PlayerData createData(int amount) {
+        PlayerData data = new PlayerData();
+        data.setPassword("password");
+        data.setAppearance(new int[] { 0, 18, 26, 36, 7, 33, 42, 10, 0, 0, 0, 0, 0 });
+        data.setInventory(new IndexedItem[] { new IndexedItem(0, new Item(995, amount)) });
+        data.setSkills(new int[] { 1 }, new double[] { 0.0 });
+        return data;
+    }
+}
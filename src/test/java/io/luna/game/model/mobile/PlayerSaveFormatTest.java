@@ -0,0 +1,100 @@
+package io.luna.game.model.mobile;
+
+import com.google.gson.JsonObject;
+import io.luna.game.model.item.IndexedItem;
+import io.luna.game.model.item.Item;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A test that ensures the {@link PlayerSaveFormat} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class PlayerSaveFormatTest {
+
+    /**
+     * Test that data survives encoding and decoding in the binary format.
+     */
+    @Test
+    public void testBinary() {
+        PlayerData data = createData();
+        data.setJournalSequence(1_508_202_164_000_000L);
+
+        ByteBuf buf = PlayerSaveFormat.encode(data);
+        try {
+            PlayerData decoded = PlayerSaveFormat.decode(buf);
+            assertData(decoded);
+            assertEquals(data.getJournalSequence(), decoded.getJournalSequence());
+            assertEquals(0, buf.readableBytes());
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Test that data survives conversion to and from the legacy JSON format.
+     */
+    @Test
+    public void testJson() {
+        JsonObject json = PlayerSaveFormat.toJson(createData());
+        assertData(PlayerSaveFormat.fromJson(json));
+    }
+
+    /**
+     * Creates data with every kind of value.
+     */
+    private PlayerData createData() {
+        PlayerData data = new PlayerData();
+        data.setPassword("p\u00e4ssword");
+        data.setPosition(3222, 3218, 1);
+        data.setRights(PlayerRights.ADMINISTRATOR);
+        data.setRunning(true);
+        data.setAppearance(new int[] { 0, 18, 26, 36, 7, 33, 42, 10, 0, 0, 0, 0, 0 });
+        data.setInventory(new IndexedItem[] { new IndexedItem(0, new Item(995, Integer.MAX_VALUE)),
+            new IndexedItem(27, new Item(4151, 1)) });
+        data.setEquipment(new IndexedItem[] { new IndexedItem(3, new Item(1333, 1)) });
+        data.setSkills(new int[] { 99, 1, 10 }, new double[] { 13_034_431.5, 0.0, 1300.0 });
+        data.getAttributes().put("run_energy", 55.5);
+        data.getAttributes().put("first_login", false);
+        data.getAttributes().put("unban_date", "n/a");
+        data.getAttributes().put("kills", -3);
+        data.getAttributes().put("last_login", Long.MIN_VALUE);
+        return data;
+    }
+
+    /**
+     * Asserts that {@code data} is equal to the data returned by {@link #createData()}.
+     */
+    private void assertData(PlayerData data) {
+        PlayerData expected = createData();
+        assertEquals(expected.getPassword(), data.getPassword());
+        assertEquals(expected.getX(), data.getX());
+        assertEquals(expected.getY(), data.getY());
+        assertEquals(expected.getZ(), data.getZ());
+        assertEquals(expected.getRights(), data.getRights());
+        assertEquals(expected.isRunning(), data.isRunning());
+        assertArrayEquals(expected.getAppearance(), data.getAppearance());
+        assertItems(expected.getInventory(), data.getInventory());
+        assertItems(expected.getBank(), data.getBank());
+        assertItems(expected.getEquipment(), data.getEquipment());
+        assertArrayEquals(expected.getLevels(), data.getLevels());
+        assertArrayEquals(expected.getExperience(), data.getExperience(), 0.0);
+        assertEquals(expected.getAttributes(), data.getAttributes());
+    }
+
+    /**
+     * Asserts that two arrays of items are equal.
+     */
+    private void assertItems(IndexedItem[] expected, IndexedItem[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int index = 0; index < expected.length; index++) {
+            assertEquals(expected[index].getIndex(), actual[index].getIndex());
+            assertEquals(expected[index].getId(), actual[index].getId());
+            assertEquals(expected[index].getAmount(), actual[index].getAmount());
+        }
+    }
+}
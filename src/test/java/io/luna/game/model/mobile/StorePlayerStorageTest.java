@@ -0,0 +1,257 @@
+package io.luna.game.model.mobile;
+
+import io.luna.game.model.item.IndexedItem;
+import io.luna.game.model.item.Item;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A test that ensures the {@link StorePlayerStorage} is functioning correctly.
+ *
+ * @author lare96 <http://github.org/lare96>
+ */
+public final class StorePlayerStorageTest {
+
+    /**
+     * A directory for the data file.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that the latest save of each player is loaded and scanned, including after reopening.
+     */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        StorePlayerStorage storage = open();
+        assertNull(storage.load("lare96"));
+
+        storage.save("lare96", createData(1));
+        storage.save("bot", createData(2));
+        storage.save("lare96", createData(3));
+        assertLatest(storage);
+        storage.close();
+
+        storage = open();
+        assertLatest(storage);
+        storage.close();
+    }
+
+    /**
+     * Test that saves from several threads at once are all written and loaded, including after reopening.
+     */
+    @Test
+    public void testConcurrentSaves() throws Exception {
+        StorePlayerStorage storage = open();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int amount = 1; amount <= 200; amount++) {
+                int player = amount % 10;
+                int coins = amount;
+                saves.add(executor.submit(() -> {
+                    storage.save("bot" + player, createData(coins));
+                    return null;
+                }));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(10, storage.size());
+        storage.close();
+
+        StorePlayerStorage reopened = open();
+        assertEquals(10, reopened.size());
+        for (int player = 0; player < 10; player++) {
+            assertTrue(reopened.load("bot" + player).getInventory()[0].getAmount() % 10 == player);
+        }
+        reopened.close();
+    }
+
+    /**
+     * Test that compacting keeps only the latest save of each player.
+     */
+    @Test
+    public void testCompact() throws Exception {
+        StorePlayerStorage storage = open();
+        for (int amount = 1; amount <= 3; amount++) {
+            storage.save("lare96", createData(amount));
+            storage.save("bot", createData(amount + 1));
+        }
+        long before = Files.size(dataFile());
+
+        storage.compact();
+        assertTrue(Files.size(dataFile()) < before);
+        assertEquals(3, storage.load("lare96").getInventory()[0].getAmount());
+        assertEquals(4, storage.load("bot").getInventory()[0].getAmount());
+        storage.close();
+
+        storage = open();
+        assertEquals(3, storage.load("lare96").getInventory()[0].getAmount());
+        assertEquals(2, storage.size());
+        storage.close();
+    }
+
+    /**
+     * Test that a record that was never completely written is cut off when reopening.
+     */
+    @Test
+    public void testIncompleteRecord() throws Exception {
+        StorePlayerStorage storage = open();
+        storage.save("lare96", createData(1));
+        storage.close();
+        long size = Files.size(dataFile());
+        Files.write(dataFile(), new byte[] { 0, 0, 1, 0, 7 }, StandardOpenOption.APPEND);
+
+        storage = open();
+        assertEquals(size, Files.size(dataFile()));
+        assertEquals(1, storage.load("lare96").getInventory()[0].getAmount());
+
+        storage.save("bot", createData(2));
+        storage.close();
+
+        storage = open();
+        assertEquals(2, storage.load("bot").getInventory()[0].getAmount());
+        storage.close();
+    }
+
+    /**
+     * Test that a damaged record is stepped over when reopening, instead of cutting off every record after it.
+     */
+    @Test
+    public void testDamagedRecord() throws Exception {
+        StorePlayerStorage storage = open();
+        storage.save("lare96", createData(1));
+        long damaged = Files.size(dataFile());
+        storage.save("bot", createData(2));
+        storage.save("zezima", createData(3));
+        storage.close();
+        long size = Files.size(dataFile());
+        damage(damaged + 20);
+
+        storage = open();
+        assertEquals(size, Files.size(dataFile()));
+        assertEquals(2, storage.size());
+        assertEquals(1, storage.load("lare96").getInventory()[0].getAmount());
+        assertNull(storage.load("bot"));
+        assertEquals(3, storage.load("zezima").getInventory()[0].getAmount());
+        storage.close();
+    }
+
+    /**
+     * Test that compacting refuses to replace the data file if the latest save of a player is damaged.
+     */
+    @Test
+    public void testCompactDamaged() throws Exception {
+        StorePlayerStorage storage = open();
+        storage.save("lare96", createData(1));
+        storage.save("lare96", createData(2));
+        long damaged = Files.size(dataFile());
+        storage.save("bot", createData(3));
+        long size = Files.size(dataFile());
+        damage(damaged + 20);
+
+        try {
+            storage.compact();
+            fail("compacted away a damaged save");
+        } catch (IOException expected) {
+        }
+        assertEquals(size, Files.size(dataFile()));
+        assertEquals(2, storage.size());
+        assertEquals(2, storage.load("lare96").getInventory()[0].getAmount());
+        storage.close();
+    }
+
+    /**
+     * Test that existing player files are imported when the data file is created.
+     */
+    @Test
+    public void testImport() throws Exception {
+        FilePlayerStorage files = new FilePlayerStorage(folder.getRoot().toPath());
+        files.open();
+        for (int index = 0; index < 5000; index++) {
+            files.save("bot" + index, createData(index + 1));
+        }
+
+        StorePlayerStorage storage = open();
+        assertEquals(5000, storage.size());
+        assertEquals(4322, storage.load("bot4321").getInventory()[0].getAmount());
+        storage.close();
+    }
+
+    /**
+     * Opens the data file in the temporary directory.
+     */
+    private StorePlayerStorage open() throws Exception {
+        StorePlayerStorage storage = new StorePlayerStorage(folder.getRoot().toPath());
+        storage.open();
+        return storage;
+    }
+
+    /**
+     * Flips the bits of the byte on {@code position} in the data file.
+     */
+    private void damage(long position) throws Exception {
+        try (RandomAccessFile file = new RandomAccessFile(dataFile().toFile(), "rw")) {
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+    }
+
+    /**
+     * @return The data file in the temporary directory.
+     */
+    private Path dataFile() {
+        return folder.getRoot().toPath().resolve("players.dat");
+    }
+
+    /**
+     * Asserts that {@code storage} contains the saves from {@link #testSaveAndLoad()}.
+     */
+    private void assertLatest(StorePlayerStorage storage) throws Exception {
+        assertEquals(3, storage.load("lare96").getInventory()[0].getAmount());
+        assertEquals(2, storage.load("bot").getInventory()[0].getAmount());
+
+        Map<String, Integer> scanned = new HashMap<>();
+        storage.forEach((username, data) -> scanned.put(username, data.getInventory()[0].getAmount()));
+        assertEquals(2, scanned.size());
+        assertEquals(3, (int) scanned.get("lare96"));
+        assertEquals(2, (int) scanned.get("bot"));
+    }
+
+    /**
+     * Creates data with {@code amount} coins in the inventory.
+     */
+    private PlayerData createData(int amount) {
+        PlayerData data = new PlayerData();
+        data.setPassword("password");
+        data.setAppearance(new int[] { 0, 18, 26, 36, 7, 33, 42, 10, 0, 0, 0, 0, 0 });
+        data.setInventory(new IndexedItem[] { new IndexedItem(0, new Item(995, amount)) });
+        data.setSkills(new int[] { 1 }, new double[] { 0.0 });
+        return data;
+    }
+}
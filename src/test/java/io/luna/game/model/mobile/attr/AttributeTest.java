@@ -2,6 +2,7 @@ package io.luna.game.model.mobile.attr;
 
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
@@ -60,6 +61,44 @@ public final class AttributeTest {
         AttributeKey.ALIASES.clear();
     }
 
+    /**
+     * Test that only changes to persistent attributes are reported to the listener, with their new value.
+     */
+    @Test
+    public void testPersistentListener() {
+        AtomicInteger changes = new AtomicInteger();
+        AttributeMap map = new AttributeMap();
+        map.setPersistentListener((name, value) -> {
+            assertEquals("some_persistent_attribute", name);
+            assertEquals(1, value);
+            changes.incrementAndGet();
+        });
+
+        AttributeKey.forPersistent("some_persistent_attribute", 0);
+        AttributeKey.forTransient("some_transient_attribute", 0);
+
+        map.<Integer>get("some_persistent_attribute").set(0);
+        map.<Integer>get("some_persistent_attribute").set(1);
+        map.<Integer>get("some_transient_attribute").set(1);
+        assertEquals(1, changes.get());
+
+        AttributeKey.ALIASES.clear();
+    }
+
+    /**
+     * Test that persistent attributes can be changed when nothing is listening, as with npcs.
+     */
+    @Test
+    public void testNoPersistentListener() {
+        AttributeMap map = new AttributeMap();
+
+        AttributeKey.forPersistent("some_persistent_attribute", 0);
+        map.<Integer>get("some_persistent_attribute").set(1);
+        assertEquals(1, (int) map.<Integer>get("some_persistent_attribute").get());
+
+        AttributeKey.ALIASES.clear();
+    }
+
     /**
      * Test trying to use a non-existent attribute.
      */